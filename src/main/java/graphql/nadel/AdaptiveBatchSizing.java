@@ -0,0 +1,147 @@
+package graphql.nadel;
+
+import graphql.PublicApi;
+
+import static graphql.Assert.assertTrue;
+
+/**
+ * Settings for tuning the size of batched hydration calls from the latency the underlying service shows,
+ * separately for every service and top level field.
+ *
+ * The static size from the NSDL (the {@code batch size} of the hydration or the {@code default batch size} of the
+ * top level field) is where the batch size starts and is also the largest size used.  Hydrations without a static
+ * size are sent in one call as before.
+ *
+ * The latency of a call is divided by the number of objects the service returned, so calls of any size can be
+ * compared, and a response that gets more expensive per object than the batch size suggests shows up as climbing
+ * latency.  Calls that returned no objects are not counted.  The window holds the latencies of the latest calls.  After
+ * every call, once the window is full, its tail latency is compared to the tail latency after the call before.  While
+ * it stays within the tolerance the batch size grows by the growth step, when it climbs above the tolerance the batch
+ * size is multiplied by the shrink factor.
+ */
+@PublicApi
+public class AdaptiveBatchSizing {
+    private final int windowSize;
+    private final double tailPercentile;
+    private final double tailLatencyTolerance;
+    private final int growthStep;
+    private final double shrinkFactor;
+    private final int minBatchSize;
+
+    private AdaptiveBatchSizing(Builder builder) {
+        this.windowSize = builder.windowSize;
+        this.tailPercentile = builder.tailPercentile;
+        this.tailLatencyTolerance = builder.tailLatencyTolerance;
+        this.growthStep = builder.growthStep;
+        this.shrinkFactor = builder.shrinkFactor;
+        this.minBatchSize = builder.minBatchSize;
+    }
+
+    public static Builder newAdaptiveBatchSizing() {
+        return new Builder();
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public double getTailPercentile() {
+        return tailPercentile;
+    }
+
+    public double getTailLatencyTolerance() {
+        return tailLatencyTolerance;
+    }
+
+    public int getGrowthStep() {
+        return growthStep;
+    }
+
+    public double getShrinkFactor() {
+        return shrinkFactor;
+    }
+
+    public int getMinBatchSize() {
+        return minBatchSize;
+    }
+
+    public static class Builder {
+        private int windowSize = 20;
+        private double tailPercentile = 0.99;
+        private double tailLatencyTolerance = 0.25;
+        private int growthStep = 1;
+        private double shrinkFactor = 0.5;
+        private int minBatchSize = 1;
+
+        /**
+         * @param windowSize the number of latest calls the tail latency is taken over, 20 by default
+         *
+         * @return this builder
+         */
+        public Builder windowSize(int windowSize) {
+            assertTrue(windowSize > 0, () -> "windowSize must be positive");
+            this.windowSize = windowSize;
+            return this;
+        }
+
+        /**
+         * @param tailPercentile the percentile that counts as tail latency, 0.99 by default
+         *
+         * @return this builder
+         */
+        public Builder tailPercentile(double tailPercentile) {
+            assertTrue(tailPercentile > 0 && tailPercentile <= 1, () -> "tailPercentile must be in (0, 1]");
+            this.tailPercentile = tailPercentile;
+            return this;
+        }
+
+        /**
+         * @param tailLatencyTolerance how much the tail latency may grow from one window to the next before the
+         *                             batch size shrinks, 0.25 (25%) by default
+         *
+         * @return this builder
+         */
+        public Builder tailLatencyTolerance(double tailLatencyTolerance) {
+            assertTrue(tailLatencyTolerance >= 0, () -> "tailLatencyTolerance must not be negative");
+            this.tailLatencyTolerance = tailLatencyTolerance;
+            return this;
+        }
+
+        /**
+         * @param growthStep how much the batch size grows after a call with flat tail latency, 1 by default
+         *
+         * @return this builder
+         */
+        public Builder growthStep(int growthStep) {
+            assertTrue(growthStep > 0, () -> "growthStep must be positive");
+            this.growthStep = growthStep;
+            return this;
+        }
+
+        /**
+         * @param shrinkFactor what the batch size is multiplied with after a call with climbing tail latency, 0.5 by default
+         *
+         * @return this builder
+         */
+        public Builder shrinkFactor(double shrinkFactor) {
+            assertTrue(shrinkFactor > 0 && shrinkFactor < 1, () -> "shrinkFactor must be in (0, 1)");
+            this.shrinkFactor = shrinkFactor;
+            return this;
+        }
+
+        /**
+         * @param minBatchSize the smallest batch size used, 1 by default
+         *
+         * @return this builder
+         */
+        public Builder minBatchSize(int minBatchSize) {
+            assertTrue(minBatchSize > 0, () -> "minBatchSize must be positive");
+            this.minBatchSize = minBatchSize;
+            return this;
+        }
+
+        public AdaptiveBatchSizing build() {
+            return new AdaptiveBatchSizing(this);
+        }
+    }
+}
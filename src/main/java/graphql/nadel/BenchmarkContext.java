@@ -10,6 +10,7 @@ import graphql.execution.instrumentation.InstrumentationState;
 import graphql.execution.nextgen.FieldSubSelection;
 import graphql.language.Document;
 import graphql.nadel.engine.NadelContext;
+import graphql.nadel.engine.QueryTransformationResult;
 import graphql.nadel.engine.transformation.FieldTransformation;
 import graphql.nadel.engine.transformation.TransformationMetadata;
 import graphql.nadel.hooks.ServiceExecutionHooks;
@@ -73,6 +74,7 @@ public class BenchmarkContext {
         public ServiceExecutionResult serviceExecutionResult;
         public ElapsedTime elapsedTime;
         public NormalizedQueryFromAst normalizedQuery;
+        public QueryTransformationResult queryTransformationResult;
     }
 
     public ServiceResultNodesToOverallResultArgs serviceResultNodesToOverallResult = new ServiceResultNodesToOverallResultArgs();
@@ -0,0 +1,193 @@
+package graphql.nadel;
+
+import graphql.PublicApi;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+import static graphql.Assert.assertNotNull;
+import static graphql.Assert.assertTrue;
+
+/**
+ * A {@link HydrationCache} that keeps objects for a fixed time after they were put and evicts the least recently
+ * used objects once the total weight of all objects goes over a maximum.
+ *
+ * By default every object weighs 1, so the maximum weight is the maximum number of objects.
+ */
+@PublicApi
+public class DefaultHydrationCache implements HydrationCache {
+
+    private final long timeToLiveNanos;
+    private final long maxWeight;
+    private final ToLongFunction<Object> weigher;
+    private final LongSupplier ticker;
+
+    private final LinkedHashMap<HydrationCacheKey, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // every object lives for the same time, so the order they were put in is the order they expire in
+    private final ArrayDeque<Entry> expiryQueue = new ArrayDeque<>();
+    private long totalWeight;
+
+    private DefaultHydrationCache(Duration timeToLive, long maxWeight, ToLongFunction<Object> weigher, LongSupplier ticker) {
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.ticker = ticker;
+    }
+
+    public static Builder newHydrationCache() {
+        return new Builder();
+    }
+
+    @Override
+    public Object get(HydrationCacheKey key) {
+        long now = ticker.getAsLong();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.isExpired(now)) {
+                remove(key);
+                return null;
+            }
+            return entry.value;
+        }
+    }
+
+    @Override
+    public void put(HydrationCacheKey key, Object value) {
+        long weight = weigher.applyAsLong(value);
+        if (weight > maxWeight) {
+            return;
+        }
+        long now = ticker.getAsLong();
+        synchronized (entries) {
+            remove(key);
+            Entry entry = new Entry(key, value, weight, now + timeToLiveNanos);
+            entries.put(key, entry);
+            expiryQueue.addLast(entry);
+            totalWeight += weight;
+            evict(now);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getTotalWeight() {
+        synchronized (entries) {
+            return totalWeight;
+        }
+    }
+
+    private void remove(HydrationCacheKey key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            totalWeight -= entry.weight;
+            entry.removed = true;
+        }
+    }
+
+    /*
+     * Expired objects go first, then the least recently used ones until we are within the maximum weight again
+     */
+    private void evict(long now) {
+        while (!expiryQueue.isEmpty() && expiryQueue.peekFirst().isExpired(now)) {
+            Entry entry = expiryQueue.pollFirst();
+            if (!entry.removed) {
+                remove(entry.key);
+            }
+        }
+        Iterator<Map.Entry<HydrationCacheKey, Entry>> iterator = entries.entrySet().iterator();
+        while (totalWeight > maxWeight && iterator.hasNext()) {
+            Entry entry = iterator.next().getValue();
+            totalWeight -= entry.weight;
+            entry.removed = true;
+            iterator.remove();
+        }
+        // objects that were replaced or evicted stay in the queue until they expire, unless there are too many of them
+        if (expiryQueue.size() > 2 * entries.size() + 64) {
+            expiryQueue.removeIf(entry -> entry.removed);
+        }
+    }
+
+    private static class Entry {
+        private final HydrationCacheKey key;
+        private final Object value;
+        private final long weight;
+        private final long expiresAt;
+        private boolean removed;
+
+        Entry(HydrationCacheKey key, Object value, long weight, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+
+    public static class Builder {
+        private Duration timeToLive = Duration.ofMinutes(1);
+        private long maxWeight = 10_000;
+        private ToLongFunction<Object> weigher = value -> 1;
+        private LongSupplier ticker = System::nanoTime;
+
+        /**
+         * @param timeToLive how long an object is kept after it was put, one minute by default
+         *
+         * @return this builder
+         */
+        public Builder timeToLive(Duration timeToLive) {
+            assertTrue(!assertNotNull(timeToLive).isNegative() && !timeToLive.isZero(), () -> "timeToLive must be positive");
+            this.timeToLive = timeToLive;
+            return this;
+        }
+
+        /**
+         * @param maxWeight the maximum total weight of all objects, 10000 by default
+         *
+         * @return this builder
+         */
+        public Builder maxWeight(long maxWeight) {
+            assertTrue(maxWeight > 0, () -> "maxWeight must be positive");
+            this.maxWeight = maxWeight;
+            return this;
+        }
+
+        /**
+         * @param weigher gives the weight of an object, for example an estimate of its size
+         *
+         * @return this builder
+         */
+        public Builder weigher(ToLongFunction<Object> weigher) {
+            this.weigher = assertNotNull(weigher);
+            return this;
+        }
+
+        /**
+         * @param ticker the source of the time in nanoseconds, {@link System#nanoTime()} by default
+         *
+         * @return this builder
+         */
+        public Builder ticker(LongSupplier ticker) {
+            this.ticker = assertNotNull(ticker);
+            return this;
+        }
+
+        public DefaultHydrationCache build() {
+            return new DefaultHydrationCache(timeToLive, maxWeight, weigher, ticker);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package graphql.nadel;
+
+import graphql.ExecutionInput;
+import graphql.PublicApi;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import static graphql.Assert.assertNotNull;
+import static graphql.Assert.assertTrue;
+
+/**
+ * A {@link PreparsedDocumentProvider} that keeps the parsed and validated documents of queries and evicts the least
+ * recently used ones once the total weight of all queries goes over a maximum.
+ *
+ * Queries are looked up by their text.  By default a query weighs the number of characters in it, so the maximum
+ * weight is roughly the number of query characters kept.  Queries that failed to parse or validate are kept as well,
+ * they fail the same way every time against the same schema.
+ *
+ * Every hit, miss and eviction is reported to the {@link CacheEventListener} the provider is built with, Nadel reports
+ * the events of the provider of {@link Nadel.Builder#preparsedDocumentCacheSize(long)} to
+ * {@link graphql.nadel.instrumentation.NadelInstrumentation#preparsedDocumentCacheEvent}.
+ *
+ * A cached document is the very same object every time, so it also lets the query plan cache of
+ * {@link Nadel.Builder#queryPlanCacheSize(int)} find its plans.  Note that changes made by
+ * {@link graphql.nadel.instrumentation.NadelInstrumentation#instrumentDocumentAndVariables} are only made when a
+ * query is parsed, not when its document comes from the cache.
+ */
+@PublicApi
+public class DefaultPreparsedDocumentProvider implements PreparsedDocumentProvider {
+
+    /**
+     * What happened in the cache, see {@link CacheEventListener}
+     */
+    public enum CacheEvent {
+        /**
+         * the document of a query was found in the cache
+         */
+        HIT,
+        /**
+         * the document of a query was not in the cache and has been parsed and validated
+         */
+        MISS,
+        /**
+         * a document was removed from the cache to make room for another one
+         */
+        EVICTION
+    }
+
+    /**
+     * Is told what happened in the cache, for example to count hits and misses
+     */
+    @FunctionalInterface
+    public interface CacheEventListener {
+
+        CacheEventListener NONE = (cacheEvent, executionInput) -> {
+        };
+
+        /**
+         * Called for every event of a lookup, after the cache is unlocked again
+         *
+         * @param cacheEvent     what happened
+         * @param executionInput the input of the query that was looked up, an eviction removes the document of another query
+         */
+        void onCacheEvent(CacheEvent cacheEvent, ExecutionInput executionInput);
+    }
+
+    private final long maxWeight;
+    private final ToLongFunction<String> weigher;
+    private final CacheEventListener cacheEventListener;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalWeight;
+
+    private DefaultPreparsedDocumentProvider(long maxWeight, ToLongFunction<String> weigher, CacheEventListener cacheEventListener) {
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.cacheEventListener = cacheEventListener;
+    }
+
+    public static Builder newPreparsedDocumentProvider() {
+        return new Builder();
+    }
+
+    @Override
+    public PreparsedDocumentEntry getDocument(ExecutionInput executionInput, Function<ExecutionInput, PreparsedDocumentEntry> computeFunction) {
+        String query = executionInput.getQuery();
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(query);
+        }
+        if (entry != null) {
+            cacheEventListener.onCacheEvent(CacheEvent.HIT, executionInput);
+            return entry.documentEntry;
+        }
+        cacheEventListener.onCacheEvent(CacheEvent.MISS, executionInput);
+        // parsing and validating happens outside of the lock, the same query may be computed twice at the same time
+        PreparsedDocumentEntry documentEntry = computeFunction.apply(executionInput);
+        long weight = weigher.applyAsLong(query);
+        if (weight > maxWeight) {
+            return documentEntry;
+        }
+        int evicted;
+        synchronized (entries) {
+            Entry previous = entries.put(query, new Entry(documentEntry, weight));
+            if (previous != null) {
+                totalWeight -= previous.weight;
+            }
+            totalWeight += weight;
+            evicted = evict();
+        }
+        for (int i = 0; i < evicted; i++) {
+            cacheEventListener.onCacheEvent(CacheEvent.EVICTION, executionInput);
+        }
+        return documentEntry;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getTotalWeight() {
+        synchronized (entries) {
+            return totalWeight;
+        }
+    }
+
+    private int evict() {
+        int evicted = 0;
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (totalWeight > maxWeight && iterator.hasNext()) {
+            totalWeight -= iterator.next().getValue().weight;
+            iterator.remove();
+            evicted++;
+        }
+        return evicted;
+    }
+
+    private static class Entry {
+        private final PreparsedDocumentEntry documentEntry;
+        private final long weight;
+
+        Entry(PreparsedDocumentEntry documentEntry, long weight) {
+            this.documentEntry = documentEntry;
+            this.weight = weight;
+        }
+    }
+
+    public static class Builder {
+        private long maxWeight = 1_000_000;
+        private ToLongFunction<String> weigher = String::length;
+        private CacheEventListener cacheEventListener = CacheEventListener.NONE;
+
+        /**
+         * @param maxWeight the maximum total weight of all queries, 1000000 by default
+         *
+         * @return this builder
+         */
+        public Builder maxWeight(long maxWeight) {
+            assertTrue(maxWeight > 0, () -> "maxWeight must be positive");
+            this.maxWeight = maxWeight;
+            return this;
+        }
+
+        /**
+         * @param weigher gives the weight of a query from its text, the number of characters by default
+         *
+         * @return this builder
+         */
+        public Builder weigher(ToLongFunction<String> weigher) {
+            this.weigher = assertNotNull(weigher);
+            return this;
+        }
+
+        /**
+         * @param cacheEventListener is told about every hit, miss and eviction, nothing by default
+         *
+         * @return this builder
+         */
+        public Builder cacheEventListener(CacheEventListener cacheEventListener) {
+            this.cacheEventListener = assertNotNull(cacheEventListener);
+            return this;
+        }
+
+        public DefaultPreparsedDocumentProvider build() {
+            return new DefaultPreparsedDocumentProvider(maxWeight, weigher, cacheEventListener);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package graphql.nadel;
+
+import graphql.ExecutionResult;
+import graphql.PublicApi;
+import graphql.nadel.result.ResultNodesExecutionResult;
+import graphql.nadel.util.JsonWriterKit;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the {@link ExecutionResult}s returned by {@link Nadel} as JSON in the graphql response format.
+ *
+ * Results that come straight out of a Nadel execution are written from the result tree, so the data is never
+ * built as maps.  Any other result, for example one that was replaced by an instrumentation, is written from its
+ * {@link ExecutionResult#toSpecification()}.
+ */
+@PublicApi
+public class ExecutionResultJsonWriter {
+
+    /**
+     * Writes the result to the writer, which is neither flushed nor closed.
+     *
+     * @param executionResult the result to write
+     * @param writer          the writer to write to
+     *
+     * @throws IOException if writing fails
+     */
+    public static void writeJson(ExecutionResult executionResult, Writer writer) throws IOException {
+        if (executionResult instanceof ResultNodesExecutionResult) {
+            ((ResultNodesExecutionResult) executionResult).writeJson(writer);
+        } else {
+            JsonWriterKit.writeValue(writer, executionResult.toSpecification());
+        }
+    }
+
+    /**
+     * Writes the result as UTF-8 to the output stream, which is flushed but not closed.
+     *
+     * @param executionResult the result to write
+     * @param outputStream    the output stream to write to
+     *
+     * @throws IOException if writing fails
+     */
+    public static void writeJson(ExecutionResult executionResult, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writeJson(executionResult, writer);
+        writer.flush();
+    }
+}
@@ -0,0 +1,33 @@
+package graphql.nadel;
+
+import graphql.PublicSpi;
+
+/**
+ * A cache of the objects returned by batched hydration calls that is shared by all requests of a {@link Nadel}.
+ *
+ * Before a batched hydration call is made each object identifier is looked up in the cache, and only the identifiers
+ * that are missing are sent to the underlying service.  The objects that come back are put into the cache, as long
+ * as the service did not return any errors.
+ *
+ * The values are the objects of the underlying service response as maps and lists.  They must not be changed.
+ *
+ * A cached object is used for any caller, so only use a cache when the hydrated data does not depend on who is asking.
+ *
+ * @see DefaultHydrationCache
+ */
+@PublicSpi
+public interface HydrationCache {
+
+    /**
+     * @param key the key of the object
+     *
+     * @return the cached object or null if there is none
+     */
+    Object get(HydrationCacheKey key);
+
+    /**
+     * @param key   the key of the object
+     * @param value the object returned by the underlying service
+     */
+    void put(HydrationCacheKey key, Object value);
+}
@@ -0,0 +1,72 @@
+package graphql.nadel;
+
+import graphql.PublicApi;
+
+import java.util.Objects;
+
+/**
+ * Identifies one object of a batched hydration call: the service and top level field that is called, the shape of
+ * the selection set that is asked for and the object identifier.
+ */
+@PublicApi
+public class HydrationCacheKey {
+    private final String serviceName;
+    private final String topLevelField;
+    private final String selectionSetShape;
+    private final String objectIdentifier;
+
+    public HydrationCacheKey(String serviceName, String topLevelField, String selectionSetShape, String objectIdentifier) {
+        this.serviceName = serviceName;
+        this.topLevelField = topLevelField;
+        this.selectionSetShape = selectionSetShape;
+        this.objectIdentifier = objectIdentifier;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public String getTopLevelField() {
+        return topLevelField;
+    }
+
+    /**
+     * @return a printed form of the selection set and arguments sent to the underlying service, without the object identifiers
+     */
+    public String getSelectionSetShape() {
+        return selectionSetShape;
+    }
+
+    public String getObjectIdentifier() {
+        return objectIdentifier;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        HydrationCacheKey that = (HydrationCacheKey) o;
+        return Objects.equals(serviceName, that.serviceName) &&
+                Objects.equals(topLevelField, that.topLevelField) &&
+                Objects.equals(selectionSetShape, that.selectionSetShape) &&
+                Objects.equals(objectIdentifier, that.objectIdentifier);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(serviceName, topLevelField, selectionSetShape, objectIdentifier);
+    }
+
+    @Override
+    public String toString() {
+        return "HydrationCacheKey{" +
+                "serviceName='" + serviceName + '\'' +
+                ", topLevelField='" + topLevelField + '\'' +
+                ", objectIdentifier='" + objectIdentifier + '\'' +
+                '}';
+    }
+}
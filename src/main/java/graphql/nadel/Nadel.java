@@ -19,9 +19,11 @@ import graphql.nadel.dsl.CommonDefinition;
 import graphql.nadel.dsl.ServiceDefinition;
 import graphql.nadel.dsl.StitchingDsl;
 import graphql.nadel.engine.Execution;
+import graphql.nadel.engine.QueryPlanCache;
 import graphql.nadel.hooks.ServiceExecutionHooks;
 import graphql.nadel.instrumentation.NadelInstrumentation;
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationCreateStateParameters;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationPreparsedDocumentCacheParameters;
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationQueryExecutionParameters;
 import graphql.nadel.instrumentation.parameters.NadelNadelInstrumentationQueryValidationParameters;
 import graphql.nadel.introspection.DefaultIntrospectionRunner;
@@ -50,6 +52,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.function.UnaryOperator;
 
+import static graphql.Assert.assertTrue;
 import static graphql.execution.instrumentation.DocumentAndVariables.newDocumentAndVariables;
 import static graphql.nadel.util.Util.buildServiceRegistry;
 import static java.util.Objects.requireNonNull;
@@ -75,6 +78,7 @@ public class Nadel {
     private final WiringFactory overallWiringFactory;
     private final WiringFactory underlyingWiringFactory;
     private final SchemaTransformationHook schemaTransformationHook;
+    private final Execution execution;
     private final OverallSchemaGenerator overallSchemaGenerator = new OverallSchemaGenerator();
 
     private Nadel(Reader nsdl,
@@ -86,7 +90,14 @@ public class Nadel {
                   ServiceExecutionHooks serviceExecutionHooks,
                   WiringFactory overallWiringFactory,
                   WiringFactory underlyingWiringFactory,
-                  SchemaTransformationHook schemaTransformationHook) {
+                  SchemaTransformationHook schemaTransformationHook,
+                  QueryPlanCache queryPlanCache,
+                  HydrationCache hydrationCache,
+                  AdaptiveBatchSizing adaptiveBatchSizing,
+                  ParallelListConversion parallelListConversion,
+                  StageExecutors stageExecutors,
+                  ServiceCallPolicy serviceCallPolicy,
+                  boolean groupTopLevelFieldsByService) {
         this.serviceExecutionFactory = serviceExecutionFactory;
         this.instrumentation = instrumentation;
         this.serviceExecutionHooks = serviceExecutionHooks;
@@ -101,6 +112,7 @@ public class Nadel {
         this.services = createServices();
         this.commonTypes = createCommonTypes();
         this.overallSchema = createOverallSchema();
+        this.execution = new Execution(services, overallSchema, instrumentation, introspectionRunner, serviceExecutionHooks, queryPlanCache, hydrationCache, adaptiveBatchSizing, parallelListConversion, stageExecutors, serviceCallPolicy, groupTopLevelFieldsByService);
     }
 
     private DefinitionRegistry createCommonTypes() {
@@ -302,8 +314,6 @@ public class Nadel {
             executionArgs.nadelExecutionParams = nadelExecutionParams;
         }
 
-        Execution execution = new Execution(getServices(), overallSchema, instrumentation, introspectionRunner, serviceExecutionHooks, executionInput.getContext());
-
         return execution.execute(executionInput, document, executionId, instrumentationState, nadelExecutionParams);
     }
 
@@ -322,11 +332,19 @@ public class Nadel {
         private ServiceExecutionHooks serviceExecutionHooks = new ServiceExecutionHooks() {
         };
         private PreparsedDocumentProvider preparsedDocumentProvider = NoOpPreparsedDocumentProvider.INSTANCE;
+        private long preparsedDocumentCacheSize = 0;
         private ExecutionIdProvider executionIdProvider = ExecutionIdProvider.DEFAULT_EXECUTION_ID_PROVIDER;
         private IntrospectionRunner introspectionRunner = new DefaultIntrospectionRunner();
         private WiringFactory overallWiringFactory = new NeverWiringFactory();
         private WiringFactory underlyingWiringFactory = new NeverWiringFactory();
         private SchemaTransformationHook schemaTransformationHook = SchemaTransformationHook.IDENTITY;
+        private int queryPlanCacheSize = 0;
+        private HydrationCache hydrationCache;
+        private AdaptiveBatchSizing adaptiveBatchSizing;
+        private ParallelListConversion parallelListConversion;
+        private StageExecutors stageExecutors = StageExecutors.newStageExecutors().build();
+        private ServiceCallPolicy serviceCallPolicy;
+        private boolean groupTopLevelFieldsByService;
 
 
         public Builder dsl(Reader nsdl) {
@@ -350,6 +368,7 @@ public class Nadel {
 
         public Builder preparsedDocumentProvider(PreparsedDocumentProvider preparsedDocumentProvider) {
             this.preparsedDocumentProvider = requireNonNull(preparsedDocumentProvider);
+            this.preparsedDocumentCacheSize = 0;
             return this;
         }
 
@@ -383,7 +402,135 @@ public class Nadel {
             return this;
         }
 
+        /**
+         * Keeps the parsed and validated documents of up to the given number of query characters in a
+         * {@link DefaultPreparsedDocumentProvider}.  This and {@link #preparsedDocumentProvider(PreparsedDocumentProvider)}
+         * replace each other, the one called last is used.  Hits, misses and evictions are reported to
+         * {@link NadelInstrumentation#preparsedDocumentCacheEvent(NadelInstrumentationPreparsedDocumentCacheParameters)}.
+         *
+         * @param maxQueryCharacters the maximum total length of the cached queries
+         *
+         * @return this builder
+         */
+        public Builder preparsedDocumentCacheSize(long maxQueryCharacters) {
+            assertTrue(maxQueryCharacters > 0, () -> "maxQueryCharacters must be positive");
+            this.preparsedDocumentCacheSize = maxQueryCharacters;
+            return this;
+        }
+
+        /**
+         * Query plans (the normalized overall query and the transformed query per service and top level field)
+         * are cached by the identity of the parsed document, so this only has an effect when a caching
+         * {@link PreparsedDocumentProvider} hands out the same document for the same query.
+         *
+         * A transformed query is only shared between requests with equal
+         * {@link ServiceExecutionHooks#queryPlanCacheKey(Object, Object)} keys, as a shared query does not call
+         * {@link ServiceExecutionHooks#isFieldAllowed} and {@link ServiceExecutionHooks#visitArgumentValueInQuery} again.
+         * By default the key is the service context.
+         *
+         * @param maxPlans the maximum number of plans to keep, 0 turns caching off (the default)
+         *
+         * @return this builder
+         */
+        public Builder queryPlanCacheSize(int maxPlans) {
+            assertTrue(maxPlans >= 0, () -> "maxPlans must not be negative");
+            this.queryPlanCacheSize = maxPlans;
+            return this;
+        }
+
+        /**
+         * Batched hydration calls look up their objects in this cache first and only ask the underlying service
+         * for the ones that are missing.  There is no cache by default.
+         *
+         * A cached object is used for every caller, so only use this when the hydrated data does not depend on
+         * who is asking.
+         *
+         * @param hydrationCache the cache to use, for example a {@link DefaultHydrationCache}
+         *
+         * @return this builder
+         */
+        public Builder hydrationCache(HydrationCache hydrationCache) {
+            this.hydrationCache = requireNonNull(hydrationCache);
+            return this;
+        }
+
+        /**
+         * Tunes the size of batched hydration calls per service and top level field from the latency of the
+         * underlying service, with the static size from the NSDL as the largest size.  The static sizes are used
+         * as they are by default.
+         *
+         * @param adaptiveBatchSizing the settings for the tuning
+         *
+         * @return this builder
+         */
+        public Builder adaptiveBatchSizing(AdaptiveBatchSizing adaptiveBatchSizing) {
+            this.adaptiveBatchSizing = requireNonNull(adaptiveBatchSizing);
+            return this;
+        }
+
+        /**
+         * Turns large lists in the results of the underlying services into result nodes on more than one thread.
+         * Lists are converted on the thread that reads the service result by default.
+         *
+         * @param parallelListConversion the executor and the sizes to use
+         *
+         * @return this builder
+         */
+        public Builder parallelListConversion(ParallelListConversion parallelListConversion) {
+            this.parallelListConversion = requireNonNull(parallelListConversion);
+            return this;
+        }
+
+        /**
+         * Runs the conversion of service results and the resolving of hydrations on the given executors, so that
+         * the threads completing the {@link ServiceExecution} futures are not kept busy with them.  Both run on the
+         * completing thread by default.
+         *
+         * @param stageExecutors the executors to use
+         *
+         * @return this builder
+         */
+        public Builder stageExecutors(StageExecutors stageExecutors) {
+            this.stageExecutors = requireNonNull(stageExecutors);
+            return this;
+        }
+
+        /**
+         * Puts timeouts and a request deadline on the calls to the underlying services and hedges slow queries.
+         * By default Nadel waits for a service as long as it takes.
+         *
+         * @param serviceCallPolicy the timeouts and hedging to use
+         *
+         * @return this builder
+         */
+        public Builder serviceCallPolicy(ServiceCallPolicy serviceCallPolicy) {
+            this.serviceCallPolicy = requireNonNull(serviceCallPolicy);
+            return this;
+        }
+
+        /**
+         * Sends all the top level fields of a query that belong to the same service in one call instead of one call per
+         * top level field.  The result is split back per top level field for
+         * {@link graphql.nadel.hooks.ServiceExecutionHooks#resultRewrite(graphql.nadel.hooks.ResultRewriteParams)}, and the
+         * call is made with the service context created for the first of the fields.  Off by default.
+         *
+         * @param groupTopLevelFieldsByService whether to make one call per service
+         *
+         * @return this builder
+         */
+        public Builder groupTopLevelFieldsByService(boolean groupTopLevelFieldsByService) {
+            this.groupTopLevelFieldsByService = groupTopLevelFieldsByService;
+            return this;
+        }
+
         public Nadel build() {
+            NadelInstrumentation instrumentation = this.instrumentation;
+            PreparsedDocumentProvider preparsedDocumentProvider = preparsedDocumentCacheSize > 0
+                    ? DefaultPreparsedDocumentProvider.newPreparsedDocumentProvider()
+                    .maxWeight(preparsedDocumentCacheSize)
+                    .cacheEventListener((cacheEvent, executionInput) -> instrumentation.preparsedDocumentCacheEvent(new NadelInstrumentationPreparsedDocumentCacheParameters(cacheEvent, executionInput)))
+                    .build()
+                    : this.preparsedDocumentProvider;
             return new Nadel(
                     nsdl,
                     serviceExecutionFactory,
@@ -394,7 +541,14 @@ public class Nadel {
                     serviceExecutionHooks,
                     overallWiringFactory,
                     underlyingWiringFactory,
-                    schemaTransformationHook);
+                    schemaTransformationHook,
+                    queryPlanCacheSize > 0 ? new QueryPlanCache(queryPlanCacheSize) : QueryPlanCache.NO_CACHE,
+                    hydrationCache,
+                    adaptiveBatchSizing,
+                    parallelListConversion,
+                    stageExecutors,
+                    serviceCallPolicy,
+                    groupTopLevelFieldsByService);
         }
     }
 }
@@ -7,12 +7,25 @@ import graphql.Internal;
 public class NadelExecutionParams {
 
     private final String artificialFieldsUUID;
+    private final long startNanos;
 
     public NadelExecutionParams(String artificialFieldsUUID) {
+        this(artificialFieldsUUID, System.nanoTime());
+    }
+
+    public NadelExecutionParams(String artificialFieldsUUID, long startNanos) {
         this.artificialFieldsUUID = artificialFieldsUUID;
+        this.startNanos = startNanos;
     }
 
     public String getArtificialFieldsUUID() {
         return artificialFieldsUUID;
     }
+
+    /**
+     * @return the {@link System#nanoTime()} the request started at
+     */
+    public long getStartNanos() {
+        return startNanos;
+    }
 }
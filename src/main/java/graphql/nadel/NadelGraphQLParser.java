@@ -9,9 +9,6 @@ import graphql.parser.Parser;
 import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.ParserRuleContext;
 
-import java.util.LinkedHashMap;
-import java.util.Map;
-
 /**
  * Special Parser which adds an ID to every node
  */
@@ -26,14 +23,7 @@ public class NadelGraphQLParser extends Parser {
             @Override
             protected void addCommonData(NodeBuilder nodeBuilder, ParserRuleContext parserRuleContext) {
                 super.addCommonData(nodeBuilder, parserRuleContext);
-                nodeBuilder.additionalData(additionalIdData());
-            }
-
-            private Map<String, String> additionalIdData() {
-                Map<String, String> additionalData = new LinkedHashMap<>();
-                String nodeIdVal = String.valueOf(idCounter++);
-                additionalData.put(NodeId.ID, nodeIdVal);
-                return additionalData;
+                nodeBuilder.additionalData(NodeId.ID, String.valueOf(idCounter++));
             }
         };
     }
@@ -0,0 +1,89 @@
+package graphql.nadel;
+
+import graphql.PublicApi;
+
+import java.util.concurrent.Executor;
+
+import static graphql.Assert.assertNotNull;
+import static graphql.Assert.assertTrue;
+
+/**
+ * Settings for turning large lists of a service result into result nodes on more than one thread.
+ *
+ * The elements of a list with at least {@link #getMinListSize()} elements are split into chunks of
+ * {@link #getChunkSize()} elements, which are converted by tasks on the executor while the calling thread converts
+ * chunks as well.  The calling thread never waits for a chunk that has not started yet, so a busy or bounded executor
+ * only means less parallelism.  The elements end up in the same order as in the service result, lists inside a chunk
+ * are converted on the thread of the chunk.
+ */
+@PublicApi
+public class ParallelListConversion {
+    private final Executor executor;
+    private final int minListSize;
+    private final int chunkSize;
+
+    private ParallelListConversion(Builder builder) {
+        this.executor = builder.executor;
+        this.minListSize = builder.minListSize;
+        this.chunkSize = builder.chunkSize;
+    }
+
+    public static Builder newParallelListConversion() {
+        return new Builder();
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public int getMinListSize() {
+        return minListSize;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public static class Builder {
+        private Executor executor;
+        private int minListSize = 1000;
+        private int chunkSize = 250;
+
+        /**
+         * @param executor the executor the chunks are converted on, for example a {@link java.util.concurrent.ForkJoinPool}
+         *
+         * @return this builder
+         */
+        public Builder executor(Executor executor) {
+            this.executor = assertNotNull(executor, () -> "executor must not be null");
+            return this;
+        }
+
+        /**
+         * @param minListSize the smallest list that is converted in parallel, 1000 by default
+         *
+         * @return this builder
+         */
+        public Builder minListSize(int minListSize) {
+            assertTrue(minListSize > 0, () -> "minListSize must be positive");
+            this.minListSize = minListSize;
+            return this;
+        }
+
+        /**
+         * @param chunkSize the number of list elements converted by one task, 250 by default
+         *
+         * @return this builder
+         */
+        public Builder chunkSize(int chunkSize) {
+            assertTrue(chunkSize > 0, () -> "chunkSize must be positive");
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        public ParallelListConversion build() {
+            assertNotNull(executor, () -> "an executor is required");
+            return new ParallelListConversion(this);
+        }
+    }
+}
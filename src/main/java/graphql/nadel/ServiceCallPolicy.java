@@ -0,0 +1,209 @@
+package graphql.nadel;
+
+import graphql.PublicApi;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static graphql.Assert.assertNotNull;
+import static graphql.Assert.assertTrue;
+import static java.util.Collections.unmodifiableMap;
+
+/**
+ * How long Nadel waits for the calls to the underlying services and whether slow calls are hedged.
+ *
+ * The timeout of a call is the timeout of the hydrated top level field for hydration calls, else the timeout of the
+ * service, else the default timeout.  With a request deadline a call never gets more than what is left of the request
+ * deadline, and a call that would start after the deadline is not made at all.  The time a call gets is passed to the
+ * service in {@link ServiceExecutionParameters#getTimeout()}.  A call that runs out of time gets the same error as a
+ * service that failed, with a {@link java.util.concurrent.TimeoutException}.
+ *
+ * With hedging a query that has not been answered after the given percentile of the latencies seen for its service and
+ * top level field is sent a second time, and whichever answer comes first is used.  A call for several top level fields
+ * at once has its own latencies.  Mutations are never hedged.
+ */
+@PublicApi
+public class ServiceCallPolicy {
+    private final Duration defaultTimeout;
+    private final Map<String, Duration> serviceTimeouts;
+    private final Map<String, Duration> hydrationTimeouts;
+    private final Duration requestDeadline;
+    private final double hedgePercentile;
+    private final int hedgeMinSamples;
+    private final int hedgeWindowSize;
+    private final ScheduledExecutorService scheduler;
+
+    private ServiceCallPolicy(Builder builder) {
+        this.defaultTimeout = builder.defaultTimeout;
+        this.serviceTimeouts = unmodifiableMap(new LinkedHashMap<>(builder.serviceTimeouts));
+        this.hydrationTimeouts = unmodifiableMap(new LinkedHashMap<>(builder.hydrationTimeouts));
+        this.requestDeadline = builder.requestDeadline;
+        this.hedgePercentile = builder.hedgePercentile;
+        this.hedgeMinSamples = builder.hedgeMinSamples;
+        this.hedgeWindowSize = builder.hedgeWindowSize;
+        this.scheduler = builder.scheduler;
+    }
+
+    public static Builder newServiceCallPolicy() {
+        return new Builder();
+    }
+
+    /**
+     * @return the timeout of calls without a more specific one or null if they have no timeout
+     */
+    public Duration getDefaultTimeout() {
+        return defaultTimeout;
+    }
+
+    /**
+     * @return the timeouts by service name
+     */
+    public Map<String, Duration> getServiceTimeouts() {
+        return serviceTimeouts;
+    }
+
+    /**
+     * @return the timeouts of hydration calls by "service.topLevelField"
+     */
+    public Map<String, Duration> getHydrationTimeouts() {
+        return hydrationTimeouts;
+    }
+
+    /**
+     * @return the time all calls of a request have to be done in, counted from the start of the request, or null
+     */
+    public Duration getRequestDeadline() {
+        return requestDeadline;
+    }
+
+    /**
+     * @return the latency percentile after which a query is sent again, 0 if queries are not hedged
+     */
+    public double getHedgePercentile() {
+        return hedgePercentile;
+    }
+
+    public int getHedgeMinSamples() {
+        return hedgeMinSamples;
+    }
+
+    public int getHedgeWindowSize() {
+        return hedgeWindowSize;
+    }
+
+    /**
+     * @return the scheduler for timeouts and hedged calls or null if a shared one is used
+     */
+    public ScheduledExecutorService getScheduler() {
+        return scheduler;
+    }
+
+    public static class Builder {
+        private Duration defaultTimeout;
+        private final Map<String, Duration> serviceTimeouts = new LinkedHashMap<>();
+        private final Map<String, Duration> hydrationTimeouts = new LinkedHashMap<>();
+        private Duration requestDeadline;
+        private double hedgePercentile;
+        private int hedgeMinSamples = 20;
+        private int hedgeWindowSize = 100;
+        private ScheduledExecutorService scheduler;
+
+        /**
+         * @param timeout the timeout of calls without a more specific one, there is none by default
+         *
+         * @return this builder
+         */
+        public Builder defaultTimeout(Duration timeout) {
+            this.defaultTimeout = assertPositive(timeout);
+            return this;
+        }
+
+        /**
+         * @param serviceName the name of the service
+         * @param timeout     the timeout of the calls to the service
+         *
+         * @return this builder
+         */
+        public Builder serviceTimeout(String serviceName, Duration timeout) {
+            serviceTimeouts.put(assertNotNull(serviceName), assertPositive(timeout));
+            return this;
+        }
+
+        /**
+         * @param serviceName   the name of the service of the hydration, as in {@code hydrated from Service.topLevelField}
+         * @param topLevelField the name of the top level field of the hydration
+         * @param timeout       the timeout of the hydration calls to that field
+         *
+         * @return this builder
+         */
+        public Builder hydrationTimeout(String serviceName, String topLevelField, Duration timeout) {
+            hydrationTimeouts.put(assertNotNull(serviceName) + "." + assertNotNull(topLevelField), assertPositive(timeout));
+            return this;
+        }
+
+        /**
+         * @param requestDeadline the time all calls of a request have to be done in, there is none by default
+         *
+         * @return this builder
+         */
+        public Builder requestDeadline(Duration requestDeadline) {
+            this.requestDeadline = assertPositive(requestDeadline);
+            return this;
+        }
+
+        /**
+         * @param hedgePercentile the latency percentile after which a query is sent again, for example 0.95
+         *
+         * @return this builder
+         */
+        public Builder hedgeAfterPercentile(double hedgePercentile) {
+            assertTrue(hedgePercentile > 0 && hedgePercentile < 1, () -> "hedgePercentile must be in (0, 1)");
+            this.hedgePercentile = hedgePercentile;
+            return this;
+        }
+
+        /**
+         * @param hedgeMinSamples the number of latencies that have to be seen before queries are hedged, 20 by default
+         *
+         * @return this builder
+         */
+        public Builder hedgeMinSamples(int hedgeMinSamples) {
+            assertTrue(hedgeMinSamples > 0, () -> "hedgeMinSamples must be positive");
+            this.hedgeMinSamples = hedgeMinSamples;
+            return this;
+        }
+
+        /**
+         * @param hedgeWindowSize the number of latest latencies the percentile is taken over, 100 by default
+         *
+         * @return this builder
+         */
+        public Builder hedgeWindowSize(int hedgeWindowSize) {
+            assertTrue(hedgeWindowSize > 0, () -> "hedgeWindowSize must be positive");
+            this.hedgeWindowSize = hedgeWindowSize;
+            return this;
+        }
+
+        /**
+         * @param scheduler runs the timeouts and hedged calls, a shared single daemon thread by default
+         *
+         * @return this builder
+         */
+        public Builder scheduler(ScheduledExecutorService scheduler) {
+            this.scheduler = assertNotNull(scheduler);
+            return this;
+        }
+
+        public ServiceCallPolicy build() {
+            assertTrue(hedgeMinSamples <= hedgeWindowSize, () -> "hedgeMinSamples must not be larger than hedgeWindowSize");
+            return new ServiceCallPolicy(this);
+        }
+
+        private static Duration assertPositive(Duration duration) {
+            assertTrue(!assertNotNull(duration).isNegative() && !duration.isZero(), () -> "a timeout must be positive");
+            return duration;
+        }
+    }
+}
@@ -7,8 +7,10 @@ import graphql.language.Document;
 import graphql.language.FragmentDefinition;
 import graphql.language.OperationDefinition;
 
+import java.time.Duration;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import static graphql.Assert.assertNotNull;
 
@@ -25,6 +27,7 @@ public class ServiceExecutionParameters {
     private final CacheControl cacheControl;
     private final Object serviceContext;
     private final boolean hydrationCall;
+    private final Duration timeout;
 
     private ServiceExecutionParameters(Builder builder) {
         this.query = assertNotNull(builder.query);
@@ -36,6 +39,7 @@ public class ServiceExecutionParameters {
         this.cacheControl = builder.cacheControl;
         this.serviceContext = builder.serviceContext;
         this.hydrationCall = builder.hydrationCall;
+        this.timeout = builder.timeout;
     }
 
     public Document getQuery() {
@@ -78,6 +82,22 @@ public class ServiceExecutionParameters {
         return hydrationCall;
     }
 
+    /**
+     * The time Nadel waits for this call, see {@link ServiceCallPolicy}.  With a request deadline this is what is left
+     * of it when the call starts, so a call that starts late gets less time.
+     *
+     * @return the time the call gets or null if Nadel waits as long as it takes
+     */
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public ServiceExecutionParameters transform(Consumer<Builder> builderConsumer) {
+        Builder builder = new Builder(this);
+        builderConsumer.accept(builder);
+        return builder.build();
+    }
+
     public static Builder newServiceExecutionParameters() {
         return new Builder();
     }
@@ -92,10 +112,24 @@ public class ServiceExecutionParameters {
         private CacheControl cacheControl;
         private Object serviceContext;
         private boolean hydrationCall;
+        private Duration timeout;
 
         private Builder() {
         }
 
+        private Builder(ServiceExecutionParameters other) {
+            this.query = other.query;
+            this.context = other.context;
+            this.variables.putAll(other.variables);
+            this.fragments.putAll(other.fragments);
+            this.operationDefinition = other.operationDefinition;
+            this.executionId = other.executionId;
+            this.cacheControl = other.cacheControl;
+            this.serviceContext = other.serviceContext;
+            this.hydrationCall = other.hydrationCall;
+            this.timeout = other.timeout;
+        }
+
         public Builder query(Document query) {
             this.query = query;
             return this;
@@ -141,6 +175,11 @@ public class ServiceExecutionParameters {
             return this;
         }
 
+        public Builder timeout(Duration timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
         public ServiceExecutionParameters build() {
             return new ServiceExecutionParameters(this);
         }
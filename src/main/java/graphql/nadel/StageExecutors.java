@@ -0,0 +1,76 @@
+package graphql.nadel;
+
+import graphql.PublicApi;
+
+import java.util.concurrent.Executor;
+
+import static graphql.Assert.assertNotNull;
+
+/**
+ * The executors the CPU heavy stages of a request run on.
+ *
+ * Without an executor a stage runs on the thread that completed the stage before it, which is usually the thread
+ * that completed the future of a {@link ServiceExecution}, for example the event loop of an HTTP client.  A large
+ * service result then blocks that thread while it is converted and every other call on it has to wait.
+ *
+ * The result conversion executor runs the conversion of every service result into the overall result, the
+ * hydration executor runs the resolving of hydrated fields including the rewriting of the result tree.  On JDKs with
+ * virtual threads {@code Executors.newVirtualThreadPerTaskExecutor()} can be used for both.
+ */
+@PublicApi
+public class StageExecutors {
+    private final Executor resultConversionExecutor;
+    private final Executor hydrationExecutor;
+
+    private StageExecutors(Builder builder) {
+        this.resultConversionExecutor = builder.resultConversionExecutor;
+        this.hydrationExecutor = builder.hydrationExecutor;
+    }
+
+    public static Builder newStageExecutors() {
+        return new Builder();
+    }
+
+    /**
+     * @return the executor service results are converted on or null if they are converted on the completing thread
+     */
+    public Executor getResultConversionExecutor() {
+        return resultConversionExecutor;
+    }
+
+    /**
+     * @return the executor hydrations are resolved on or null if they are resolved on the completing thread
+     */
+    public Executor getHydrationExecutor() {
+        return hydrationExecutor;
+    }
+
+    public static class Builder {
+        private Executor resultConversionExecutor;
+        private Executor hydrationExecutor;
+
+        /**
+         * @param resultConversionExecutor the executor service results are converted on
+         *
+         * @return this builder
+         */
+        public Builder resultConversionExecutor(Executor resultConversionExecutor) {
+            this.resultConversionExecutor = assertNotNull(resultConversionExecutor, () -> "resultConversionExecutor must not be null");
+            return this;
+        }
+
+        /**
+         * @param hydrationExecutor the executor hydrations are resolved on
+         *
+         * @return this builder
+         */
+        public Builder hydrationExecutor(Executor hydrationExecutor) {
+            this.hydrationExecutor = assertNotNull(hydrationExecutor, () -> "hydrationExecutor must not be null");
+            return this;
+        }
+
+        public StageExecutors build() {
+            return new StageExecutors(this);
+        }
+    }
+}
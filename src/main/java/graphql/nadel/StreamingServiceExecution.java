@@ -0,0 +1,35 @@
+package graphql.nadel;
+
+
+import graphql.PublicSpi;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A {@link ServiceExecution} that hands back the raw JSON response of the service instead of a materialized
+ * {@link ServiceExecutionResult}.
+ *
+ * Nadel reads the response token by token and builds its result nodes directly while parsing, guided by the
+ * query that was sent to the service.  This avoids building the whole response as nested maps and lists first,
+ * which matters for large responses.
+ *
+ * This requires com.fasterxml.jackson.core:jackson-core to be on the class path.
+ */
+@PublicSpi
+public interface StreamingServiceExecution extends ServiceExecution {
+
+    CompletableFuture<StreamingServiceExecutionResult> executeStreaming(ServiceExecutionParameters serviceExecutionParameters);
+
+    /**
+     * Only used when Nadel can't consume the stream directly, for example when a
+     * {@link graphql.nadel.instrumentation.NadelInstrumentation} wraps the service execution.
+     *
+     * @param serviceExecutionParameters the parameters of the service call
+     *
+     * @return the response read into a {@link ServiceExecutionResult}
+     */
+    @Override
+    default CompletableFuture<ServiceExecutionResult> execute(ServiceExecutionParameters serviceExecutionParameters) {
+        return executeStreaming(serviceExecutionParameters).thenApply(StreamingServiceExecutionResult::toServiceExecutionResult);
+    }
+}
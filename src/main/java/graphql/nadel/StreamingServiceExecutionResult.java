@@ -0,0 +1,55 @@
+package graphql.nadel;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import graphql.PublicApi;
+import graphql.nadel.util.JsonParserKit;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+
+import static graphql.Assert.assertNotNull;
+
+/**
+ * The raw response of a {@link StreamingServiceExecution}.  The parser must be positioned before or at the start of
+ * the response object, which is a standard graphql response with "data", "errors" and "extensions" entries.
+ *
+ * The parser is consumed and closed by Nadel.
+ */
+@PublicApi
+public class StreamingServiceExecutionResult {
+    private final JsonParser parser;
+
+    public StreamingServiceExecutionResult(JsonParser parser) {
+        this.parser = assertNotNull(parser);
+    }
+
+    public JsonParser getParser() {
+        return parser;
+    }
+
+    /**
+     * Reads the whole response into maps and lists.  This defeats the purpose of streaming and is only used as a fallback.
+     *
+     * @return the materialized result
+     */
+    @SuppressWarnings("unchecked")
+    public ServiceExecutionResult toServiceExecutionResult() {
+        try (JsonParser jsonParser = parser) {
+            if (jsonParser.currentToken() == null) {
+                jsonParser.nextToken();
+            }
+            if (jsonParser.currentToken() != JsonToken.START_OBJECT) {
+                throw new IOException("A graphql response must be a JSON object");
+            }
+            Map<String, Object> response = (Map<String, Object>) JsonParserKit.readValue(jsonParser);
+            return new ServiceExecutionResult((Map<String, Object>) response.get("data"),
+                    (List<Map<String, Object>>) response.get("errors"),
+                    (Map<String, Object>) response.get("extensions"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
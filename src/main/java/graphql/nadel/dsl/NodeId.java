@@ -6,6 +6,7 @@ import graphql.language.Node;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static graphql.Assert.assertNotNull;
 import static graphql.nadel.util.FpKit.map;
@@ -17,10 +18,40 @@ public class NodeId {
      */
     public static final String ID = "id";
 
+    /*
+     * Generated ids are handed out in blocks so that threads don't contend on the shared counter.  They are unique
+     * for the whole process because transformed queries are cached and reused by later requests.
+     */
+    private static final int ID_BLOCK_SIZE = 1024;
+    private static final AtomicLong NEXT_ID_BLOCK = new AtomicLong();
+    private static final ThreadLocal<long[]> ID_BLOCK = ThreadLocal.withInitial(() -> new long[]{0, 0});
+
+    /**
+     * Ids of parsed nodes are a counter of the document, generated ids start with this so the two never clash
+     */
+    public static final String GENERATED_ID_PREFIX = "_";
+
     public static String getId(Node<?> node) {
         return assertNotNull(node.getAdditionalData().get(ID), () -> String.format("expected node %s to have an id", node));
     }
 
+    /**
+     * @return a new id for a node that is not parsed but created by Nadel
+     */
+    public static String newId() {
+        return GENERATED_ID_PREFIX + Long.toString(nextId(), Character.MAX_RADIX);
+    }
+
+    private static long nextId() {
+        // [next id, end of the block]
+        long[] block = ID_BLOCK.get();
+        if (block[0] == block[1]) {
+            block[0] = NEXT_ID_BLOCK.getAndIncrement() * ID_BLOCK_SIZE;
+            block[1] = block[0] + ID_BLOCK_SIZE;
+        }
+        return block[0]++;
+    }
+
     public static List<String> getIds(Node<?> node) {
         return Collections.singletonList(getId(node));
     }
@@ -0,0 +1,93 @@
+package graphql.nadel.engine;
+
+import graphql.Internal;
+import graphql.nadel.AdaptiveBatchSizing;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the current batch size of every service and top level field, see {@link AdaptiveBatchSizing} for how it is tuned.
+ */
+@Internal
+public class AdaptiveBatchSizer {
+
+    private final AdaptiveBatchSizing settings;
+    private final Map<String, FieldState> fieldStates = new ConcurrentHashMap<>();
+
+    public AdaptiveBatchSizer(AdaptiveBatchSizing settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * @param serviceName   the service that is called
+     * @param topLevelField the top level field that is called
+     * @param maxBatchSize  the static batch size from the NSDL
+     *
+     * @return the batch size to use now
+     */
+    public int getBatchSize(String serviceName, String topLevelField, int maxBatchSize) {
+        FieldState fieldState = fieldStates.computeIfAbsent(key(serviceName, topLevelField), key -> new FieldState(maxBatchSize, settings.getWindowSize()));
+        synchronized (fieldState) {
+            return Math.min(fieldState.batchSize, maxBatchSize);
+        }
+    }
+
+    /**
+     * @param serviceName   the service that was called
+     * @param topLevelField the top level field that was called
+     * @param objectCount   the number of objects the service returned
+     * @param latencyNanos  how long the call took
+     */
+    public void recordCall(String serviceName, String topLevelField, int objectCount, long latencyNanos) {
+        FieldState fieldState = fieldStates.get(key(serviceName, topLevelField));
+        if (fieldState == null || objectCount == 0) {
+            return;
+        }
+        synchronized (fieldState) {
+            fieldState.samples[fieldState.next] = latencyNanos / objectCount;
+            fieldState.next = (fieldState.next + 1) % fieldState.samples.length;
+            fieldState.sampleCount = Math.min(fieldState.sampleCount + 1, fieldState.samples.length);
+            if (fieldState.sampleCount == fieldState.samples.length) {
+                adjust(fieldState);
+            }
+        }
+    }
+
+    private void adjust(FieldState fieldState) {
+        long[] samples = Arrays.copyOf(fieldState.samples, fieldState.sampleCount);
+        Arrays.sort(samples);
+        int tailIndex = (int) Math.ceil(settings.getTailPercentile() * samples.length) - 1;
+        long tailLatency = samples[Math.max(tailIndex, 0)];
+
+        if (fieldState.previousTailLatency >= 0 && tailLatency > fieldState.previousTailLatency * (1 + settings.getTailLatencyTolerance())) {
+            int shrunk = (int) (fieldState.batchSize * settings.getShrinkFactor());
+            fieldState.batchSize = Math.max(shrunk, settings.getMinBatchSize());
+        } else {
+            fieldState.batchSize = Math.min(fieldState.batchSize + settings.getGrowthStep(), fieldState.maxBatchSize);
+        }
+        fieldState.previousTailLatency = tailLatency;
+    }
+
+    private static String key(String serviceName, String topLevelField) {
+        // names can't contain a '.'
+        return serviceName + "." + topLevelField;
+    }
+
+    private static class FieldState {
+        private final int maxBatchSize;
+        // the latencies per object of the latest calls
+        private final long[] samples;
+        private int next;
+        private int sampleCount;
+        private int batchSize;
+        private long previousTailLatency = -1;
+
+        FieldState(int maxBatchSize, int windowSize) {
+            this.maxBatchSize = maxBatchSize;
+            this.batchSize = maxBatchSize;
+            this.samples = new long[windowSize];
+        }
+    }
+}
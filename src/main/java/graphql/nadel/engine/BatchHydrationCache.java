@@ -0,0 +1,229 @@
+package graphql.nadel.engine;
+
+import graphql.Internal;
+import graphql.language.Argument;
+import graphql.language.Field;
+import graphql.language.FragmentDefinition;
+import graphql.language.Selection;
+import graphql.nadel.HydrationCache;
+import graphql.nadel.HydrationCacheKey;
+import graphql.nadel.ServiceExecutionResult;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static graphql.language.AstPrinter.printAstCompact;
+
+/**
+ * Looks up and stores the objects of batched hydration calls in a {@link HydrationCache}.
+ *
+ * The artificial object identifier and __typename aliases contain a value that is different for every request, so
+ * they are replaced by a fixed name in the cache keys and in the cached objects, and put back when an object is
+ * used for a request.
+ */
+@Internal
+public class BatchHydrationCache {
+
+    private static final String OBJECT_IDENTIFIER_ALIAS = "object_identifier__";
+    private static final String UNDERSCORE_TYPENAME_ALIAS = "typename__";
+
+    private final HydrationCache hydrationCache;
+
+    public BatchHydrationCache(HydrationCache hydrationCache) {
+        this.hydrationCache = hydrationCache;
+    }
+
+    /**
+     * The shape is everything that is sent to the service apart from the object identifiers: the other arguments,
+     * the selection set, the fragments and the values of the variables used.
+     *
+     * @param queryTransformationResult the transformed batch query
+     * @param rootField                 the field of the query that calls the top level field
+     * @param syntheticField            the synthetic field around the top level field or null
+     * @param batchArgumentName         the argument the object identifiers are passed in
+     * @param variables                 the variables of the request
+     * @param nadelContext              the context of the request
+     *
+     * @return the selection set shape
+     */
+    public String selectionSetShape(QueryTransformationResult queryTransformationResult,
+                                    Field rootField,
+                                    String syntheticField,
+                                    String batchArgumentName,
+                                    Map<String, Object> variables,
+                                    NadelContext nadelContext) {
+        Set<String> fragmentNames = new LinkedHashSet<>();
+        Set<String> variableNames = new LinkedHashSet<>();
+        queryTransformationResult.collectReferences(rootField, fragmentNames, variableNames);
+
+        Field topLevelField = rootField;
+        if (syntheticField != null) {
+            topLevelField = (Field) topLevelField.getSelectionSet().getSelections().get(0);
+        }
+        StringBuilder shape = new StringBuilder();
+        for (Argument argument : topLevelField.getArguments()) {
+            if (!argument.getName().equals(batchArgumentName)) {
+                shape.append(printAstCompact(argument)).append(' ');
+            }
+        }
+        for (Selection selection : topLevelField.getSelectionSet().getSelections()) {
+            shape.append(printAstCompact(selection)).append(' ');
+        }
+        for (FragmentDefinition fragmentDefinition : queryTransformationResult.getTransformedFragments().values()) {
+            if (fragmentNames.contains(fragmentDefinition.getName())) {
+                shape.append(printAstCompact(fragmentDefinition)).append(' ');
+            }
+        }
+        for (String variable : variableNames) {
+            shape.append('$').append(variable).append('=').append(variables.get(variable)).append(' ');
+        }
+        return shape.toString()
+                .replace(nadelContext.getObjectIdentifierAlias(), OBJECT_IDENTIFIER_ALIAS)
+                .replace(nadelContext.getUnderscoreTypeNameAlias(), UNDERSCORE_TYPENAME_ALIAS);
+    }
+
+    /**
+     * @param serviceName       the service called
+     * @param topLevelField     the top level field called
+     * @param selectionSetShape the shape of the call
+     * @param objectIdentifiers the object identifiers to look up
+     * @param nadelContext      the context of the request
+     *
+     * @return the cached objects by object identifier, ready to be used in a response for this request
+     */
+    public Map<String, Object> getObjects(String serviceName,
+                                          String topLevelField,
+                                          String selectionSetShape,
+                                          Collection<String> objectIdentifiers,
+                                          NadelContext nadelContext) {
+        Map<String, String> renames = new LinkedHashMap<>();
+        renames.put(OBJECT_IDENTIFIER_ALIAS, nadelContext.getObjectIdentifierAlias());
+        renames.put(UNDERSCORE_TYPENAME_ALIAS, nadelContext.getUnderscoreTypeNameAlias());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (String objectIdentifier : objectIdentifiers) {
+            Object object = hydrationCache.get(new HydrationCacheKey(serviceName, topLevelField, selectionSetShape, objectIdentifier));
+            if (object != null) {
+                result.put(objectIdentifier, renameKeys(object, renames));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Puts the objects of a response into the cache, unless the response has errors
+     *
+     * @param serviceName       the service called
+     * @param topLevelField     the top level field called
+     * @param rootResultKey     the result key of the field of the query that calls the top level field
+     * @param syntheticField    the synthetic field around the top level field or null
+     * @param selectionSetShape the shape of the call
+     * @param result            the response of the service
+     * @param nadelContext      the context of the request
+     */
+    public void putObjects(String serviceName,
+                           String topLevelField,
+                           String rootResultKey,
+                           String syntheticField,
+                           String selectionSetShape,
+                           ServiceExecutionResult result,
+                           NadelContext nadelContext) {
+        List<Object> objects = getObjects(result.getData(), rootResultKey, syntheticField, topLevelField);
+        if (objects == null || !result.getErrors().isEmpty()) {
+            return;
+        }
+        Map<String, String> renames = new LinkedHashMap<>();
+        renames.put(nadelContext.getObjectIdentifierAlias(), OBJECT_IDENTIFIER_ALIAS);
+        renames.put(nadelContext.getUnderscoreTypeNameAlias(), UNDERSCORE_TYPENAME_ALIAS);
+
+        for (Object object : objects) {
+            if (!(object instanceof Map)) {
+                continue;
+            }
+            Object objectIdentifier = ((Map<?, ?>) object).get(nadelContext.getObjectIdentifierAlias());
+            if (objectIdentifier != null) {
+                HydrationCacheKey key = new HydrationCacheKey(serviceName, topLevelField, selectionSetShape, objectIdentifier.toString());
+                hydrationCache.put(key, renameKeys(object, renames));
+            }
+        }
+    }
+
+    /**
+     * @param result         the response of the service for the object identifiers that were not cached
+     * @param rootResultKey  the result key of the field of the query that calls the top level field
+     * @param syntheticField the synthetic field around the top level field or null
+     * @param topLevelField  the top level field called
+     * @param cachedObjects  the cached objects
+     *
+     * @return the response with the cached objects added
+     */
+    public static ServiceExecutionResult addObjects(ServiceExecutionResult result,
+                                                    String rootResultKey,
+                                                    String syntheticField,
+                                                    String topLevelField,
+                                                    Collection<Object> cachedObjects) {
+        List<Object> objects = new ArrayList<>();
+        List<Object> fetchedObjects = getObjects(result.getData(), rootResultKey, syntheticField, topLevelField);
+        if (fetchedObjects != null) {
+            objects.addAll(fetchedObjects);
+        }
+        objects.addAll(cachedObjects);
+
+        Map<String, Object> data = new LinkedHashMap<>(result.getData() == null ? new LinkedHashMap<>() : result.getData());
+        if (syntheticField == null) {
+            data.put(rootResultKey, objects);
+        } else {
+            Map<String, Object> syntheticData = new LinkedHashMap<>();
+            if (data.get(rootResultKey) instanceof Map) {
+                syntheticData.putAll(castMap(data.get(rootResultKey)));
+            }
+            syntheticData.put(topLevelField, objects);
+            data.put(rootResultKey, syntheticData);
+        }
+        return new ServiceExecutionResult(data, result.getErrors(), result.getExtensions());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> getObjects(Map<String, Object> data, String rootResultKey, String syntheticField, String topLevelField) {
+        if (data == null) {
+            return null;
+        }
+        Object objects = data.get(rootResultKey);
+        if (syntheticField != null) {
+            objects = objects instanceof Map ? castMap(objects).get(topLevelField) : null;
+        }
+        return objects instanceof List ? (List<Object>) objects : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> castMap(Object map) {
+        return (Map<String, Object>) map;
+    }
+
+    /*
+     * copies the value so neither the cache nor the response can see later changes of the other
+     */
+    private static Object renameKeys(Object value, Map<String, String> renames) {
+        if (value instanceof Map) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            for (Map.Entry<String, Object> entry : castMap(value).entrySet()) {
+                String key = renames.getOrDefault(entry.getKey(), entry.getKey());
+                result.put(key, renameKeys(entry.getValue(), renames));
+            }
+            return result;
+        }
+        if (value instanceof List) {
+            List<Object> result = new ArrayList<>();
+            for (Object item : (List<?>) value) {
+                result.add(renameKeys(item, renames));
+            }
+            return result;
+        }
+        return value;
+    }
+}
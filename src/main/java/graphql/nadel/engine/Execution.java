@@ -14,20 +14,24 @@ import graphql.execution.nextgen.FieldSubSelection;
 import graphql.language.Document;
 import graphql.language.FieldDefinition;
 import graphql.language.ObjectTypeDefinition;
+import graphql.nadel.AdaptiveBatchSizing;
 import graphql.nadel.BenchmarkContext;
 import graphql.nadel.FieldInfo;
 import graphql.nadel.FieldInfos;
+import graphql.nadel.HydrationCache;
 import graphql.nadel.NadelExecutionParams;
+import graphql.nadel.ParallelListConversion;
 import graphql.nadel.Service;
+import graphql.nadel.ServiceCallPolicy;
+import graphql.nadel.StageExecutors;
 import graphql.nadel.hooks.ServiceExecutionHooks;
 import graphql.nadel.instrumentation.NadelInstrumentation;
 import graphql.nadel.instrumentation.parameters.NadelInstrumentRootExecutionResultParameters;
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationExecuteOperationParameters;
 import graphql.nadel.introspection.IntrospectionRunner;
 import graphql.nadel.normalized.NormalizedQueryFactory;
-import graphql.nadel.normalized.NormalizedQueryFromAst;
 import graphql.nadel.result.ResultComplexityAggregator;
-import graphql.nadel.result.ResultNodesUtil;
+import graphql.nadel.result.ResultNodesExecutionResult;
 import graphql.nadel.result.RootExecutionResultNode;
 import graphql.schema.GraphQLFieldDefinition;
 import graphql.schema.GraphQLObjectType;
@@ -49,30 +53,45 @@ public class Execution {
     private final IntrospectionRunner introspectionRunner;
     private final ExecutionHelper executionHelper = new ExecutionHelper();
     private final NadelExecutionStrategy nadelExecutionStrategy;
+    private final QueryPlanCache queryPlanCache;
+    private final ServiceExecutionHooks serviceExecutionHooks;
+    private final FieldInfos fieldInfos;
 
-    private NormalizedQueryFactory normalizedQueryFactory = new NormalizedQueryFactory();
+    private final NormalizedQueryFactory normalizedQueryFactory = new NormalizedQueryFactory();
 
+    public Execution(List<Service> services,
+                     GraphQLSchema overallSchema,
+                     NadelInstrumentation instrumentation,
+                     IntrospectionRunner introspectionRunner,
+                     ServiceExecutionHooks serviceExecutionHooks) {
+        this(services, overallSchema, instrumentation, introspectionRunner, serviceExecutionHooks, QueryPlanCache.NO_CACHE, null, null, null, StageExecutors.newStageExecutors().build(), null, false);
+    }
+
+    /**
+     * An execution only holds state that is derived from the services and the overall schema, so it is
+     * created once per {@link graphql.nadel.Nadel} and shared by all requests.  Anything request specific
+     * lives in the {@link NadelContext} and the {@link ExecutionContext} of the request.
+     */
     public Execution(List<Service> services,
                      GraphQLSchema overallSchema,
                      NadelInstrumentation instrumentation,
                      IntrospectionRunner introspectionRunner,
                      ServiceExecutionHooks serviceExecutionHooks,
-                     Object userSuppliedContext) {
+                     QueryPlanCache queryPlanCache,
+                     HydrationCache hydrationCache,
+                     AdaptiveBatchSizing adaptiveBatchSizing,
+                     ParallelListConversion parallelListConversion,
+                     StageExecutors stageExecutors,
+                     ServiceCallPolicy serviceCallPolicy,
+                     boolean groupTopLevelFieldsByService) {
         this.services = services;
+        this.queryPlanCache = queryPlanCache;
         this.overallSchema = overallSchema;
         this.instrumentation = instrumentation;
         this.introspectionRunner = introspectionRunner;
-        FieldInfos fieldsInfos = createFieldsInfos();
-        if (userSuppliedContext instanceof BenchmarkContext) {
-            BenchmarkContext.NadelExecutionStrategyArgs args = ((BenchmarkContext) userSuppliedContext).nadelExecutionStrategyArgs;
-            args.services = services;
-            args.fieldInfos = fieldsInfos;
-            args.overallSchema = overallSchema;
-            args.instrumentation = instrumentation;
-            args.serviceExecutionHooks = serviceExecutionHooks;
-        }
-
-        this.nadelExecutionStrategy = new NadelExecutionStrategy(services, fieldsInfos, overallSchema, instrumentation, serviceExecutionHooks);
+        this.serviceExecutionHooks = serviceExecutionHooks;
+        this.fieldInfos = createFieldsInfos();
+        this.nadelExecutionStrategy = new NadelExecutionStrategy(services, fieldInfos, overallSchema, instrumentation, serviceExecutionHooks, hydrationCache, adaptiveBatchSizing, parallelListConversion, stageExecutors, serviceCallPolicy, groupTopLevelFieldsByService);
     }
 
     public CompletableFuture<ExecutionResult> execute(ExecutionInput executionInput,
@@ -81,13 +100,25 @@ public class Execution {
                                                       InstrumentationState instrumentationState,
                                                       NadelExecutionParams nadelExecutionParams) {
 
-        NormalizedQueryFromAst normalizedQueryFromAst = normalizedQueryFactory.createNormalizedQuery(overallSchema, document, executionInput.getOperationName(), executionInput.getVariables());
+        if (executionInput.getContext() instanceof BenchmarkContext) {
+            BenchmarkContext.NadelExecutionStrategyArgs args = ((BenchmarkContext) executionInput.getContext()).nadelExecutionStrategyArgs;
+            args.services = services;
+            args.fieldInfos = fieldInfos;
+            args.overallSchema = overallSchema;
+            args.instrumentation = instrumentation;
+            args.serviceExecutionHooks = serviceExecutionHooks;
+        }
+
+        String operationName = executionInput.getOperationName();
+        Map<String, Object> variables = executionInput.getVariables();
+        QueryPlan queryPlan = queryPlanCache.getQueryPlan(document, operationName, variables, nadelExecutionParams.getArtificialFieldsUUID(),
+                () -> normalizedQueryFactory.createNormalizedQuery(overallSchema, document, operationName, variables));
 
         NadelContext nadelContext = NadelContext.newContext()
                 .userSuppliedContext(executionInput.getContext())
-                .originalOperationName(document, executionInput.getOperationName())
-                .artificialFieldsUUID(nadelExecutionParams.getArtificialFieldsUUID())
-                .normalizedOverallQuery(normalizedQueryFromAst)
+                .originalOperationName(document, operationName)
+                .queryPlan(queryPlan)
+                .requestStartNanos(nadelExecutionParams.getStartNanos())
                 .build();
 
         executionInput = executionInput.transform(builder -> builder.context(nadelContext));
@@ -126,8 +157,7 @@ public class Execution {
                     ((BenchmarkContext) nadelContext.getUserSuppliedContext()).overallResult = rootResultNode;
                 }
                 rootResultNode = instrumentation.instrumentRootExecutionResult(rootResultNode, new NadelInstrumentRootExecutionResultParameters(executionContext, instrumentationState));
-                ExecutionResult executionResult = withNodeComplexity(ResultNodesUtil.toExecutionResult(rootResultNode), resultComplexityAggregator);
-                return executionResult;
+                return new ResultNodesExecutionResult(rootResultNode, nodeComplexityExtension(resultComplexityAggregator));
             });
         }
 
@@ -167,9 +197,9 @@ public class Execution {
         return new FieldInfos(fieldInfoByDefinition);
     }
 
-    public ExecutionResult withNodeComplexity(ExecutionResult executionResult, ResultComplexityAggregator resultComplexityAggregator) {
-        return ExecutionResultImpl.newExecutionResult().from(executionResult)
-                .addExtension("resultComplexity", resultComplexityAggregator.snapshotResultComplexityData())
-                .build();
+    private Map<Object, Object> nodeComplexityExtension(ResultComplexityAggregator resultComplexityAggregator) {
+        Map<Object, Object> extensions = new LinkedHashMap<>();
+        extensions.put("resultComplexity", resultComplexityAggregator.snapshotResultComplexityData());
+        return extensions;
     }
 }
@@ -28,6 +28,9 @@ public class ExecutionResultNodeMapper {
         ExecutionPath mappedPath = pathMapper.mapPath(node.getExecutionPath(), node.getResultKey(), environment);
         GraphQLObjectType mappedObjectType = mapObjectType(node, typeRenameMappings, overallSchema);
         GraphQLFieldDefinition mappedFieldDefinition = getFieldDef(overallSchema, mappedObjectType, node.getFieldName());
+        if (mappedObjectType == node.getObjectType() && mappedFieldDefinition == node.getFieldDefinition() && mappedPath.equals(node.getExecutionPath())) {
+            return node;
+        }
         return node.transform(builder -> builder
                 .executionPath(mappedPath)
                 .objectType(mappedObjectType)
@@ -0,0 +1,214 @@
+package graphql.nadel.engine;
+
+import graphql.Internal;
+import graphql.language.Field;
+import graphql.language.FragmentDefinition;
+import graphql.language.InlineFragment;
+import graphql.language.Selection;
+import graphql.language.SelectionSet;
+import graphql.language.VariableDefinition;
+import graphql.nadel.Service;
+import graphql.nadel.engine.transformation.FieldMetadata;
+import graphql.nadel.engine.transformation.FieldTransformation;
+import graphql.nadel.engine.transformation.TransformationMetadata;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static graphql.nadel.dsl.NodeId.getId;
+
+/**
+ * Remembers the fragment definitions transformed during one request, so that a fragment used by several top level
+ * fields or hydration calls of the same service is only transformed once.
+ *
+ * A fragment is keyed by the service, its name and the service context the hooks see.  A transformed fragment is only
+ * reused while none of its fields carries metadata of a transformation around it (a renamed field the fragment is spread
+ * into), because that changes how the fragment is transformed.
+ */
+@Internal
+public class FragmentTransformationMemo {
+
+    private final Map<Key, TransformedFragment> transformedFragments = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> fieldIdsByFragmentName = new ConcurrentHashMap<>();
+
+    /**
+     * @param service           the service the fragment is transformed for
+     * @param serviceContext    the service context the hooks see
+     * @param fragment          the fragment definition
+     * @param metadataByFieldId the field metadata of the query the fragment is transformed for
+     * @param transform         transforms the fragment into an empty {@link TransformedFragment}
+     *
+     * @return the transformed fragment, or null if it can't be reused for this query and has to be transformed in place
+     */
+    public TransformedFragment get(Service service,
+                                   Object serviceContext,
+                                   FragmentDefinition fragment,
+                                   Map<String, List<FieldMetadata>> metadataByFieldId,
+                                   Supplier<TransformedFragment> transform) {
+        for (String fieldId : fieldIdsByFragmentName.computeIfAbsent(fragment.getName(), name -> fieldIds(fragment))) {
+            if (metadataByFieldId.containsKey(fieldId)) {
+                return null;
+            }
+        }
+        Key key = new Key(service, fragment.getName(), serviceContext);
+        TransformedFragment transformedFragment = transformedFragments.get(key);
+        if (transformedFragment == null) {
+            transformedFragment = transform.get();
+            TransformedFragment existing = transformedFragments.putIfAbsent(key, transformedFragment);
+            if (existing != null) {
+                transformedFragment = existing;
+            }
+        }
+        return transformedFragment;
+    }
+
+    private static List<String> fieldIds(FragmentDefinition fragment) {
+        List<String> fieldIds = new ArrayList<>();
+        addFieldIds(fragment.getSelectionSet(), fieldIds);
+        return fieldIds;
+    }
+
+    private static void addFieldIds(SelectionSet selectionSet, List<String> fieldIds) {
+        if (selectionSet == null) {
+            return;
+        }
+        for (Selection<?> selection : selectionSet.getSelections()) {
+            if (selection instanceof Field) {
+                fieldIds.add(getId((Field) selection));
+                addFieldIds(((Field) selection).getSelectionSet(), fieldIds);
+            } else if (selection instanceof InlineFragment) {
+                addFieldIds(((InlineFragment) selection).getSelectionSet(), fieldIds);
+            }
+        }
+    }
+
+    /**
+     * A transformed fragment definition together with everything its transformation added to the query
+     */
+    public static class TransformedFragment {
+        private FragmentDefinition fragmentDefinition;
+        private final Map<String, FieldTransformation> fieldIdToTransformation = new LinkedHashMap<>();
+        private final Map<String, String> typeRenameMappings = new LinkedHashMap<>();
+        private final Set<String> referencedFragmentNames = new LinkedHashSet<>();
+        private final Map<String, VariableDefinition> referencedVariables = new LinkedHashMap<>();
+        private final Map<String, Object> variableValues;
+        private final Map<String, Object> newVariableValues = new LinkedHashMap<>();
+        private final TransformationMetadata transformationMetadata = new TransformationMetadata();
+
+        /**
+         * @param variableValues the variable values of the query, the hooks see a copy of them
+         */
+        public TransformedFragment(Map<String, Object> variableValues) {
+            this.variableValues = new LinkedHashMap<>(variableValues);
+        }
+
+        public Map<String, FieldTransformation> getFieldIdToTransformation() {
+            return fieldIdToTransformation;
+        }
+
+        public Map<String, String> getTypeRenameMappings() {
+            return typeRenameMappings;
+        }
+
+        public Set<String> getReferencedFragmentNames() {
+            return referencedFragmentNames;
+        }
+
+        public Map<String, VariableDefinition> getReferencedVariables() {
+            return referencedVariables;
+        }
+
+        public Map<String, Object> getVariableValues() {
+            return variableValues;
+        }
+
+        public TransformationMetadata getTransformationMetadata() {
+            return transformationMetadata;
+        }
+
+        public FragmentDefinition getFragmentDefinition() {
+            return fragmentDefinition;
+        }
+
+        /**
+         * Called once the fragment is transformed, keeps the variable values the hooks put in
+         *
+         * @param fragmentDefinition     the transformed fragment definition
+         * @param originalVariableValues the variable values the transformation started with
+         *
+         * @return this
+         */
+        public TransformedFragment done(FragmentDefinition fragmentDefinition, Map<String, Object> originalVariableValues) {
+            this.fragmentDefinition = fragmentDefinition;
+            variableValues.forEach((name, value) -> {
+                if (!originalVariableValues.containsKey(name) || originalVariableValues.get(name) != value) {
+                    newVariableValues.put(name, value);
+                }
+            });
+            return this;
+        }
+
+        /**
+         * Adds what the transformation of the fragment added to a query
+         *
+         * @param fieldIdToTransformation the field transformations of the query
+         * @param typeRenameMappings      the type renames of the query
+         * @param referencedFragmentNames the fragments referenced by the query
+         * @param referencedVariables     the variables referenced by the query
+         * @param variableValues          the variable values of the query
+         * @param transformationMetadata  the field metadata and removed fields of the query
+         */
+        public void addTo(Map<String, FieldTransformation> fieldIdToTransformation,
+                          Map<String, String> typeRenameMappings,
+                          Set<String> referencedFragmentNames,
+                          Map<String, VariableDefinition> referencedVariables,
+                          Map<String, Object> variableValues,
+                          TransformationMetadata transformationMetadata) {
+            fieldIdToTransformation.putAll(this.fieldIdToTransformation);
+            typeRenameMappings.putAll(this.typeRenameMappings);
+            referencedFragmentNames.addAll(this.referencedFragmentNames);
+            referencedVariables.putAll(this.referencedVariables);
+            variableValues.putAll(this.newVariableValues);
+            transformationMetadata.addAll(this.transformationMetadata);
+        }
+    }
+
+    private static class Key {
+        private final Service service;
+        private final String fragmentName;
+        private final Object serviceContext;
+
+        private Key(Service service, String fragmentName, Object serviceContext) {
+            this.service = service;
+            this.fragmentName = fragmentName;
+            this.serviceContext = serviceContext;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            // the service context is compared by identity, the hooks may keep state in it
+            return Objects.equals(service, key.service) &&
+                    fragmentName.equals(key.fragmentName) &&
+                    serviceContext == key.serviceContext;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * Objects.hashCode(service) + fragmentName.hashCode()) + System.identityHashCode(serviceContext);
+        }
+    }
+}
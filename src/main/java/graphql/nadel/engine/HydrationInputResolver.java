@@ -1,5 +1,6 @@
 package graphql.nadel.engine;
 
+import graphql.GraphQLError;
 import graphql.Internal;
 import graphql.execution.Async;
 import graphql.execution.ExecutionContext;
@@ -8,16 +9,21 @@ import graphql.language.Argument;
 import graphql.language.ArrayValue;
 import graphql.language.Field;
 import graphql.language.FieldDefinition;
+import graphql.language.OperationDefinition;
 import graphql.language.SelectionSet;
 import graphql.language.StringValue;
 import graphql.language.Value;
+import graphql.nadel.AdaptiveBatchSizing;
+import graphql.nadel.HydrationCache;
 import graphql.nadel.Operation;
 import graphql.nadel.Service;
+import graphql.nadel.ServiceExecutionResult;
 import graphql.nadel.dsl.ExtendedFieldDefinition;
 import graphql.nadel.dsl.NodeId;
 import graphql.nadel.dsl.RemoteArgumentDefinition;
 import graphql.nadel.dsl.RemoteArgumentSource;
 import graphql.nadel.dsl.UnderlyingServiceHydration;
+import graphql.nadel.engine.HydrationMemo.HydrationCall;
 import graphql.nadel.engine.transformation.FieldTransformation;
 import graphql.nadel.engine.transformation.HydrationTransformation;
 import graphql.nadel.hooks.ServiceExecutionHooks;
@@ -29,6 +35,7 @@ import graphql.nadel.result.ListExecutionResultNode;
 import graphql.nadel.result.ObjectExecutionResultNode;
 import graphql.nadel.result.ResultComplexityAggregator;
 import graphql.nadel.result.RootExecutionResultNode;
+import graphql.nadel.util.ErrorUtil;
 import graphql.nadel.util.FpKit;
 import graphql.schema.GraphQLCompositeType;
 import graphql.schema.GraphQLFieldDefinition;
@@ -38,11 +45,14 @@ import graphql.util.NodeMultiZipper;
 import graphql.util.NodeZipper;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 import static graphql.Assert.assertNotNull;
 import static graphql.Assert.assertTrue;
@@ -53,6 +63,7 @@ import static graphql.nadel.engine.StrategyUtil.changeFieldIdsInResultNode;
 import static graphql.nadel.engine.StrategyUtil.copyFieldInformation;
 import static graphql.nadel.engine.StrategyUtil.getHydrationInputNodes;
 import static graphql.nadel.engine.StrategyUtil.groupNodesIntoBatchesByField;
+import static graphql.nadel.engine.transformation.FieldUtils.resultKeyForField;
 import static graphql.nadel.result.ResultNodeAdapter.RESULT_NODE_ADAPTER;
 import static graphql.nadel.util.FpKit.filter;
 import static graphql.nadel.util.FpKit.findOneOrNull;
@@ -63,28 +74,57 @@ import static graphql.schema.GraphQLTypeUtil.unwrapAll;
 import static graphql.schema.GraphQLTypeUtil.unwrapNonNull;
 import static java.lang.String.format;
 import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static java.util.concurrent.CompletableFuture.completedFuture;
 
 @Internal
 public class HydrationInputResolver {
 
-    private final OverallQueryTransformer queryTransformer = new OverallQueryTransformer();
+    private final OverallQueryTransformer queryTransformer;
 
-    private final ServiceResultNodesToOverallResult serviceResultNodesToOverallResult = new ServiceResultNodesToOverallResult();
+    private final ServiceResultNodesToOverallResult serviceResultNodesToOverallResult;
 
 
     private final List<Service> services;
     private final GraphQLSchema overallSchema;
     private final ServiceExecutor serviceExecutor;
     private final ServiceExecutionHooks serviceExecutionHooks;
+    private final BatchHydrationCache batchHydrationCache;
+    private final AdaptiveBatchSizer adaptiveBatchSizer;
+    private final StageExecutor hydrationStage;
 
     public HydrationInputResolver(List<Service> services,
                                   GraphQLSchema overallSchema,
                                   ServiceExecutor serviceExecutor,
                                   ServiceExecutionHooks serviceExecutionHooks) {
+        this(services, overallSchema, serviceExecutor, serviceExecutionHooks, null, null, ParallelListConverter.SEQUENTIAL, StageExecutor.SAME_THREAD, new OverallTypeRenames(overallSchema));
+    }
+
+    /**
+     * @param hydrationCache        the cache used for batched hydration calls or null if there is none
+     * @param adaptiveBatchSizing   the settings for tuning batch sizes or null if the static sizes are used
+     * @param parallelListConverter converts the lists of the hydration results
+     * @param hydrationStage        runs the conversion of hydration results and the nested hydrations
+     * @param overallTypeRenames    the type renames of the overall schema
+     */
+    public HydrationInputResolver(List<Service> services,
+                                  GraphQLSchema overallSchema,
+                                  ServiceExecutor serviceExecutor,
+                                  ServiceExecutionHooks serviceExecutionHooks,
+                                  HydrationCache hydrationCache,
+                                  AdaptiveBatchSizing adaptiveBatchSizing,
+                                  ParallelListConverter parallelListConverter,
+                                  StageExecutor hydrationStage,
+                                  OverallTypeRenames overallTypeRenames) {
         this.services = services;
         this.overallSchema = overallSchema;
         this.serviceExecutor = serviceExecutor;
         this.serviceExecutionHooks = serviceExecutionHooks;
+        this.batchHydrationCache = hydrationCache != null ? new BatchHydrationCache(hydrationCache) : null;
+        this.adaptiveBatchSizer = adaptiveBatchSizing != null ? new AdaptiveBatchSizer(adaptiveBatchSizing) : null;
+        this.serviceResultNodesToOverallResult = new ServiceResultNodesToOverallResult(parallelListConverter);
+        this.hydrationStage = hydrationStage;
+        this.queryTransformer = new OverallQueryTransformer(overallTypeRenames);
     }
 
 
@@ -100,46 +140,424 @@ public class HydrationInputResolver {
         List<NodeMultiZipper<ExecutionResultNode>> hydrationInputBatches = groupNodesIntoBatchesByField(hydrationInputZippers, node);
 
         List<CompletableFuture<List<NodeZipper<ExecutionResultNode>>>> resolvedNodeCFs = new ArrayList<>();
+        Map<List<String>, TopLevelFieldValues> valuesToFetch = new LinkedHashMap<>();
+
+        try {
+            for (NodeMultiZipper<ExecutionResultNode> batch : hydrationInputBatches) {
+                if (isBatchHydrationField((HydrationInputNode) batch.getZippers().get(0).getCurNode())) {
+                    resolveInputNodesAsBatch(context, resolvedNodeCFs, valuesToFetch, batch, resultComplexityAggregator);
+                } else {
+                    resolveInputNodes(context, resolvedNodeCFs, batch, serviceContexts, resultComplexityAggregator);
+                }
 
-        for (NodeMultiZipper<ExecutionResultNode> batch : hydrationInputBatches) {
-            if (isBatchHydrationField((HydrationInputNode) batch.getZippers().get(0).getCurNode())) {
-                resolveInputNodesAsBatch(context, resolvedNodeCFs, batch, serviceContexts, resultComplexityAggregator);
-            } else {
-                resolveInputNodes(context, resolvedNodeCFs, batch, serviceContexts, resultComplexityAggregator);
             }
-
+            executeBatches(context, resolvedNodeCFs, valuesToFetch, serviceContexts, resultComplexityAggregator);
+        } catch (RuntimeException e) {
+            // reserved values that were not sent must not keep the hydrations of other levels waiting
+            HydrationMemo hydrationMemo = getNadelContext(context).getHydrationMemo();
+            for (TopLevelFieldValues topLevelFieldValues : valuesToFetch.values()) {
+                for (HydrationMemo.Key key : topLevelFieldValues.keys()) {
+                    hydrationMemo.fail(key, e);
+                }
+            }
+            throw e;
         }
+        // every call goes on with the hydration inputs inside of its own result as soon as it is done,
+        // instead of waiting for all the other calls of this level
+        List<CompletableFuture<List<NodeZipper<ExecutionResultNode>>>> fullyResolvedNodeCFs = map(resolvedNodeCFs,
+                resolvedNodeCF -> hydrationStage.thenCompose(resolvedNodeCF, resolvedNodes -> resolveNestedHydrationInputs(context, resolvedNodes, serviceContexts, resultComplexityAggregator)));
         return Async
-                .each(resolvedNodeCFs)
-                .thenCompose(resolvedNodes -> {
+                .each(fullyResolvedNodeCFs)
+                .thenApply(resolvedNodes -> {
                     NodeMultiZipper<ExecutionResultNode> multiZipper = new NodeMultiZipper<>(node, flatList(resolvedNodes), RESULT_NODE_ADAPTER);
-                    ExecutionResultNode newRoot = multiZipper.toRootNode();
-                    return resolveAllHydrationInputs(context, newRoot, serviceContexts, resultComplexityAggregator);
+                    return multiZipper.toRootNode();
                 })
                 .whenComplete(this::possiblyLogException);
     }
 
+    /*
+     * The nodes of one call are put under a temporary root, so that the hydration inputs inside of them are batched together
+     */
+    private CompletableFuture<List<NodeZipper<ExecutionResultNode>>> resolveNestedHydrationInputs(ExecutionContext context,
+                                                                                                 List<NodeZipper<ExecutionResultNode>> resolvedNodes,
+                                                                                                 Map<Service, Object> serviceContexts,
+                                                                                                 ResultComplexityAggregator resultComplexityAggregator) {
+        RootExecutionResultNode resolvedNodesRoot = RootExecutionResultNode.newRootExecutionResultNode()
+                .children(map(resolvedNodes, NodeZipper::getCurNode))
+                .build();
+        return resolveAllHydrationInputs(context, resolvedNodesRoot, serviceContexts, resultComplexityAggregator)
+                .thenApply(newRoot -> {
+                    if (newRoot == resolvedNodesRoot) {
+                        return resolvedNodes;
+                    }
+                    List<NodeZipper<ExecutionResultNode>> newZippers = new ArrayList<>();
+                    for (int i = 0; i < resolvedNodes.size(); i++) {
+                        newZippers.add(resolvedNodes.get(i).withNewNode(newRoot.getChildren().get(i)));
+                    }
+                    return newZippers;
+                });
+    }
+
     private void resolveInputNodes(ExecutionContext context,
                                    List<CompletableFuture<List<NodeZipper<ExecutionResultNode>>>> resolvedNodeCFs,
                                    NodeMultiZipper<ExecutionResultNode> batch, Map<Service, Object> serviceContexts,
                                    ResultComplexityAggregator resultComplexityAggregator) {
+        HydrationMemo hydrationMemo = getNadelContext(context).getHydrationMemo();
         for (NodeZipper<ExecutionResultNode> hydrationInputNodeZipper : batch.getZippers()) {
             HydrationInputNode hydrationInputNode = (HydrationInputNode) hydrationInputNodeZipper.getCurNode();
-            CompletableFuture<ExecutionResultNode> executionResultNodeCompletableFuture = resolveSingleHydrationInput(context, hydrationInputNode, serviceContexts, resultComplexityAggregator);
+            HydrationMemo.Key key = hydrationMemo.key(hydrationInputNode);
+            CompletableFuture<HydrationCall> hydrationCall = hydrationMemo.reserve(key);
+            // the errors of a call are only reported once, on the first occurrence of its value
+            boolean firstOccurrence = hydrationCall == null;
+            if (firstOccurrence) {
+                try {
+                    hydrationCall = executeSingleHydrationInput(context, hydrationInputNode, serviceContexts);
+                } catch (RuntimeException e) {
+                    hydrationMemo.fail(key, e);
+                    throw e;
+                }
+                hydrationMemo.complete(key, hydrationCall);
+            }
+            CompletableFuture<ExecutionResultNode> executionResultNodeCompletableFuture = hydrationStage
+                    .thenApply(hydrationCall, call -> convertSingleHydrationResultIntoOverallResult(context.getExecutionId(),
+                            hydrationInputNode,
+                            hydrationInputNode.getHydrationTransformation(),
+                            call.getRootResultNode(),
+                            call.getNormalizedField(),
+                            call.getQueryTransformationResult(),
+                            getNadelContext(context),
+                            resultComplexityAggregator,
+                            firstOccurrence
+                    ))
+                    .whenComplete(this::possiblyLogException);
             resolvedNodeCFs.add(executionResultNodeCompletableFuture.thenApply(newNode -> singletonList(hydrationInputNodeZipper.withNewNode(newNode))));
         }
     }
 
+    /*
+     * The values that are not fetched yet are collected by top level field, so that the values of all fields that
+     * hydrate from it are sent together
+     */
     private void resolveInputNodesAsBatch(ExecutionContext context,
                                           List<CompletableFuture<List<NodeZipper<ExecutionResultNode>>>> resolvedNodeCFs,
+                                          Map<List<String>, TopLevelFieldValues> valuesToFetch,
                                           NodeMultiZipper<ExecutionResultNode> batch,
-                                          Map<Service, Object> serviceContexts,
                                           ResultComplexityAggregator resultComplexityAggregator) {
-        List<NodeMultiZipper<ExecutionResultNode>> batchesWithCorrectSize = groupIntoCorrectBatchSizes(batch);
-        for (NodeMultiZipper<ExecutionResultNode> oneBatch : batchesWithCorrectSize) {
-            List<HydrationInputNode> batchedNodes = map(oneBatch.getZippers(), zipper -> (HydrationInputNode) zipper.getCurNode());
-            CompletableFuture<List<ExecutionResultNode>> executionResultNodeCompletableFuture = resolveHydrationInputBatch(context, batchedNodes, serviceContexts, resultComplexityAggregator);
-            resolvedNodeCFs.add(replaceNodesInZipper(oneBatch, executionResultNodeCompletableFuture));
+        HydrationMemo hydrationMemo = getNadelContext(context).getHydrationMemo();
+
+        // every value is only sent once, all occurrences of it are resolved from the same call
+        Map<HydrationMemo.Key, List<NodeZipper<ExecutionResultNode>>> zippersByKey = new LinkedHashMap<>();
+        for (NodeZipper<ExecutionResultNode> zipper : batch.getZippers()) {
+            HydrationMemo.Key key = hydrationMemo.key((HydrationInputNode) zipper.getCurNode());
+            zippersByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(zipper);
+        }
+
+        HydrationTransformation hydrationTransformation = ((HydrationInputNode) batch.getZippers().get(0).getCurNode()).getHydrationTransformation();
+        UnderlyingServiceHydration underlyingServiceHydration = hydrationTransformation.getUnderlyingServiceHydration();
+        TopLevelFieldValues topLevelFieldValues = null;
+        for (Map.Entry<HydrationMemo.Key, List<NodeZipper<ExecutionResultNode>>> entry : zippersByKey.entrySet()) {
+            CompletableFuture<HydrationCall> hydrationCall = hydrationMemo.reserve(entry.getKey());
+            if (hydrationCall != null) {
+                resolvedNodeCFs.add(replaceNodesInZipper(context, entry.getValue(), hydrationCall, false, resultComplexityAggregator));
+                continue;
+            }
+            if (topLevelFieldValues == null) {
+                List<String> topLevelFieldKey = Arrays.asList(underlyingServiceHydration.getServiceName(),
+                        underlyingServiceHydration.getSyntheticField(),
+                        underlyingServiceHydration.getTopLevelField());
+                topLevelFieldValues = valuesToFetch.computeIfAbsent(topLevelFieldKey, key -> new TopLevelFieldValues());
+                topLevelFieldValues.limitBatchSize(getBatchSize(underlyingServiceHydration));
+            }
+            topLevelFieldValues.add(hydrationMemo.selectionShape(hydrationTransformation), entry.getKey(), entry.getValue());
+        }
+    }
+
+    /*
+     * The values of every top level field are split into batches per selection shape.  The batches of different
+     * shapes are sent together in one call: the first batch of every shape goes into the first call, the second
+     * batches into the second call and so on.
+     */
+    private void executeBatches(ExecutionContext context,
+                                List<CompletableFuture<List<NodeZipper<ExecutionResultNode>>>> resolvedNodeCFs,
+                                Map<List<String>, TopLevelFieldValues> valuesToFetch,
+                                Map<Service, Object> serviceContexts,
+                                ResultComplexityAggregator resultComplexityAggregator) {
+        for (TopLevelFieldValues topLevelFieldValues : valuesToFetch.values()) {
+            executeTopLevelFieldBatches(context, resolvedNodeCFs, topLevelFieldValues, serviceContexts, resultComplexityAggregator);
+        }
+    }
+
+    private void executeTopLevelFieldBatches(ExecutionContext context,
+                                             List<CompletableFuture<List<NodeZipper<ExecutionResultNode>>>> resolvedNodeCFs,
+                                             TopLevelFieldValues topLevelFieldValues,
+                                             Map<Service, Object> serviceContexts,
+                                             ResultComplexityAggregator resultComplexityAggregator) {
+        HydrationMemo hydrationMemo = getNadelContext(context).getHydrationMemo();
+        List<List<HydrationBatch>> batchesByShape = topLevelFieldValues.toBatches();
+        int callCount = 0;
+        for (List<HydrationBatch> batches : batchesByShape) {
+            callCount = Math.max(callCount, batches.size());
+        }
+        for (int i = 0; i < callCount; i++) {
+            List<HydrationBatch> callBatches = new ArrayList<>();
+            for (List<HydrationBatch> batches : batchesByShape) {
+                if (i < batches.size()) {
+                    callBatches.add(batches.get(i));
+                }
+            }
+            List<CompletableFuture<HydrationCall>> hydrationCalls = executeBatchesInOneCall(context, callBatches, serviceContexts);
+            for (int j = 0; j < callBatches.size(); j++) {
+                HydrationBatch hydrationBatch = callBatches.get(j);
+                CompletableFuture<HydrationCall> hydrationCall = hydrationCalls.get(j);
+                for (HydrationInputNode hydrationInput : hydrationBatch.hydrationInputs) {
+                    hydrationMemo.complete(hydrationMemo.key(hydrationInput), hydrationCall);
+                }
+                resolvedNodeCFs.add(replaceNodesInZipper(context, hydrationBatch.occurrences, hydrationCall, true, resultComplexityAggregator));
+            }
+        }
+    }
+
+    /*
+     * Every selection shape gets its own aliased top level field in the query
+     */
+    private List<CompletableFuture<HydrationCall>> executeBatchesInOneCall(ExecutionContext context,
+                                                                           List<HydrationBatch> batches,
+                                                                           Map<Service, Object> serviceContexts) {
+        if (batches.size() == 1) {
+            return map(batches, batch -> executeHydrationInputBatch(context, batch.hydrationInputs, serviceContexts));
+        }
+        UnderlyingServiceHydration underlyingServiceHydration = batches.get(0).getUnderlyingServiceHydration();
+        Service service = getService(underlyingServiceHydration);
+        Object serviceContext = serviceContexts.get(service);
+
+        List<Field> rootFields = new ArrayList<>();
+        List<GraphQLCompositeType> topLevelFieldTypes = new ArrayList<>();
+        for (int i = 0; i < batches.size(); i++) {
+            List<HydrationInputNode> hydrationInputs = batches.get(i).hydrationInputs;
+            HydrationTransformation hydrationTransformation = hydrationInputs.get(0).getHydrationTransformation();
+            Field rootField = createBatchHydrationTopLevelField(context,
+                    hydrationInputs,
+                    hydrationTransformation.getOriginalField(),
+                    hydrationTransformation.getUnderlyingServiceHydration());
+            String alias = batchFieldAlias(i);
+            rootFields.add(rootField.transform(builder -> builder.alias(alias)));
+            topLevelFieldTypes.add((GraphQLCompositeType) unwrapAll(hydrationTransformation.getOriginalFieldType()));
+        }
+
+        QueryTransformationResult queryTransformationResult = queryTransformer
+                .transformHydratedTopLevelFields(
+                        context,
+                        service.getUnderlyingSchema(),
+                        buildOperationName(service, context), Operation.QUERY,
+                        rootFields,
+                        topLevelFieldTypes,
+                        serviceExecutionHooks,
+                        service,
+                        serviceContext,
+                        underlyingServiceHydration.getSyntheticField() != null
+                );
+        if (batchHydrationCache != null) {
+            return executeCachedBatchesInOneCall(context, batches, service, serviceContext, queryTransformationResult);
+        }
+
+        long startTime = System.nanoTime();
+        CompletableFuture<RootExecutionResultNode> serviceResult = serviceExecutor
+                .execute(context, queryTransformationResult, service, Operation.QUERY, serviceContext, underlyingServiceHydration.getTopLevelField(), true)
+                .whenComplete((resultNode, throwable) -> recordBatchCall(underlyingServiceHydration, resultNode, 0, startTime));
+        return batchHydrationCalls(batches, queryTransformationResult, serviceResult);
+    }
+
+    /*
+     * Every aliased top level field is looked up in the cache on its own.  Only the object identifiers that are not
+     * cached are sent in the combined call, and top level fields with all their objects cached are left out of it.
+     */
+    private List<CompletableFuture<HydrationCall>> executeCachedBatchesInOneCall(ExecutionContext context,
+                                                                                 List<HydrationBatch> batches,
+                                                                                 Service service,
+                                                                                 Object serviceContext,
+                                                                                 QueryTransformationResult allInputsTransformationResult) {
+        UnderlyingServiceHydration underlyingServiceHydration = batches.get(0).getUnderlyingServiceHydration();
+        String topLevelField = underlyingServiceHydration.getTopLevelField();
+        String syntheticField = underlyingServiceHydration.getSyntheticField();
+        String batchArgumentName = getArgumentFromSourceObject(underlyingServiceHydration).getName();
+        NadelContext nadelContext = getNadelContext(context);
+        Map<String, Field> rootFieldsByAlias = FpKit.getByName(allInputsTransformationResult.getOperationDefinition().getSelectionSet().getSelectionsOfType(Field.class), field -> resultKeyForField(field));
+
+        List<String> selectionSetShapes = new ArrayList<>();
+        List<Map<String, Object>> cachedObjectsByBatch = new ArrayList<>();
+        Map<String, List<HydrationInputNode>> missingInputsByAlias = new LinkedHashMap<>();
+        for (int i = 0; i < batches.size(); i++) {
+            String alias = batchFieldAlias(i);
+            List<HydrationInputNode> hydrationInputs = batches.get(i).hydrationInputs;
+            String selectionSetShape = batchHydrationCache.selectionSetShape(allInputsTransformationResult,
+                    rootFieldsByAlias.get(alias),
+                    syntheticField,
+                    batchArgumentName,
+                    context.getVariables(),
+                    nadelContext);
+            Map<String, Object> cachedObjects = batchHydrationCache.getObjects(service.getName(), topLevelField, selectionSetShape,
+                    map(hydrationInputs, hydrationInput -> hydrationInput.getCompletedValue().toString()), nadelContext);
+            List<HydrationInputNode> missingInputs = filter(hydrationInputs, hydrationInput -> !cachedObjects.containsKey(hydrationInput.getCompletedValue().toString()));
+            selectionSetShapes.add(selectionSetShape);
+            cachedObjectsByBatch.add(cachedObjects);
+            if (!missingInputs.isEmpty()) {
+                missingInputsByAlias.put(alias, missingInputs);
+            }
+        }
+        Function<ServiceExecutionResult, ServiceExecutionResult> addCachedObjects = serviceExecutionResult -> {
+            for (int i = 0; i < batches.size(); i++) {
+                if (!cachedObjectsByBatch.get(i).isEmpty()) {
+                    serviceExecutionResult = BatchHydrationCache.addObjects(serviceExecutionResult, batchFieldAlias(i),
+                            syntheticField, topLevelField, cachedObjectsByBatch.get(i).values());
+                }
+            }
+            return serviceExecutionResult;
+        };
+
+        if (missingInputsByAlias.isEmpty()) {
+            ServiceExecutionResult serviceExecutionResult = addCachedObjects.apply(new ServiceExecutionResult(new LinkedHashMap<>()));
+            RootExecutionResultNode resultNode = serviceExecutor.resultToResultNode(context, allInputsTransformationResult,
+                    service, Operation.QUERY, serviceContext, true, serviceExecutionResult);
+            return batchHydrationCalls(batches, allInputsTransformationResult, completedFuture(resultNode));
+        }
+
+        QueryTransformationResult queryTransformationResult = withBatchValues(allInputsTransformationResult, underlyingServiceHydration, missingInputsByAlias);
+        long startTime = System.nanoTime();
+        int cachedObjectCount = 0;
+        for (Map<String, Object> cachedObjects : cachedObjectsByBatch) {
+            cachedObjectCount += cachedObjects.size();
+        }
+        int callCachedObjectCount = cachedObjectCount;
+        CompletableFuture<RootExecutionResultNode> serviceResult = serviceExecutor
+                .execute(context, queryTransformationResult, service, Operation.QUERY, serviceContext, underlyingServiceHydration.getTopLevelField(), true, serviceExecutionResult -> {
+                    for (int i = 0; i < batches.size(); i++) {
+                        String alias = batchFieldAlias(i);
+                        if (missingInputsByAlias.containsKey(alias)) {
+                            batchHydrationCache.putObjects(service.getName(), topLevelField, alias, syntheticField,
+                                    selectionSetShapes.get(i), serviceExecutionResult, nadelContext);
+                        }
+                    }
+                    return addCachedObjects.apply(serviceExecutionResult);
+                })
+                .whenComplete((resultNode, throwable) -> recordBatchCall(underlyingServiceHydration, resultNode, callCachedObjectCount, startTime));
+        return batchHydrationCalls(batches, queryTransformationResult, serviceResult);
+    }
+
+    private List<CompletableFuture<HydrationCall>> batchHydrationCalls(List<HydrationBatch> batches,
+                                                                       QueryTransformationResult queryTransformationResult,
+                                                                       CompletableFuture<RootExecutionResultNode> serviceResult) {
+        UnderlyingServiceHydration underlyingServiceHydration = batches.get(0).getUnderlyingServiceHydration();
+        // errors point to the field the service was asked for
+        String rootFieldName = underlyingServiceHydration.getSyntheticField() != null ? underlyingServiceHydration.getSyntheticField() : underlyingServiceHydration.getTopLevelField();
+        List<CompletableFuture<HydrationCall>> hydrationCalls = new ArrayList<>();
+        for (int i = 0; i < batches.size(); i++) {
+            int index = i;
+            int batchCount = batches.size();
+            NormalizedQueryField normalizedField = batches.get(i).hydrationInputs.get(0).getNormalizedField();
+            hydrationCalls.add(serviceResult.thenApply(resultNode -> new HydrationCall(queryTransformationResult,
+                    resultNodeOfBatchField(resultNode, index, batchCount, rootFieldName), normalizedField)));
+        }
+        return hydrationCalls;
+    }
+
+    private static String batchFieldAlias(int index) {
+        return "batch_hydration_" + index;
+    }
+
+    /*
+     * The part of a combined call that belongs to one selection shape.  Errors go with the alias their path starts
+     * with, which is replaced by the name of the field again, errors without one of the aliases go with the first one.
+     */
+    private RootExecutionResultNode resultNodeOfBatchField(RootExecutionResultNode rootResultNode, int index, int batchCount, String rootFieldName) {
+        String alias = batchFieldAlias(index);
+        ExecutionResultNode fieldResultNode = assertNotNull(findOneOrNull(rootResultNode.getChildren(), child -> alias.equals(child.getResultKey())));
+        Set<Object> aliases = new HashSet<>();
+        for (int i = 0; i < batchCount; i++) {
+            aliases.add(batchFieldAlias(i));
+        }
+        List<GraphQLError> errors = new ArrayList<>();
+        for (GraphQLError error : rootResultNode.getErrors()) {
+            List<Object> path = error.getPath();
+            Object errorAlias = path == null || path.isEmpty() ? null : path.get(0);
+            if (alias.equals(errorAlias)) {
+                List<Object> fieldPath = new ArrayList<>(path);
+                fieldPath.set(0, rootFieldName);
+                errors.add(ErrorUtil.withPath(error, fieldPath));
+            } else if (index == 0 && !aliases.contains(errorAlias)) {
+                errors.add(error);
+            }
+        }
+        return rootResultNode.transform(builder -> builder.children(singletonList(fieldResultNode)).errors(errors));
+    }
+
+    /**
+     * The distinct values that are sent in one call for hydrated fields with the same selection shape, and all the
+     * nodes they resolve
+     */
+    private static class HydrationBatch {
+        private final List<HydrationInputNode> hydrationInputs;
+        private final List<NodeZipper<ExecutionResultNode>> occurrences;
+
+        HydrationBatch(List<HydrationInputNode> hydrationInputs, List<NodeZipper<ExecutionResultNode>> occurrences) {
+            this.hydrationInputs = hydrationInputs;
+            this.occurrences = occurrences;
+        }
+
+        UnderlyingServiceHydration getUnderlyingServiceHydration() {
+            return hydrationInputs.get(0).getHydrationTransformation().getUnderlyingServiceHydration();
+        }
+    }
+
+    /**
+     * The values that are fetched from one top level field, by the selection shape of the hydrated fields.  The same
+     * value under different hydrated fields with the same shape is only sent once.
+     */
+    private static class TopLevelFieldValues {
+        private final Map<String, Map<HydrationMemo.Key, List<NodeZipper<ExecutionResultNode>>>> occurrencesByShape = new LinkedHashMap<>();
+        // null as long as no hydrated field limits the batch size
+        private Integer batchSize;
+
+        void add(String selectionShape, HydrationMemo.Key key, List<NodeZipper<ExecutionResultNode>> occurrences) {
+            occurrencesByShape.computeIfAbsent(selectionShape, shape -> new LinkedHashMap<>())
+                    .computeIfAbsent(key, k -> new ArrayList<>())
+                    .addAll(occurrences);
+        }
+
+        List<HydrationMemo.Key> keys() {
+            List<HydrationMemo.Key> keys = new ArrayList<>();
+            for (Map<HydrationMemo.Key, List<NodeZipper<ExecutionResultNode>>> occurrencesByValue : occurrencesByShape.values()) {
+                keys.addAll(occurrencesByValue.keySet());
+            }
+            return keys;
+        }
+
+        void limitBatchSize(Integer fieldBatchSize) {
+            if (fieldBatchSize != null && (batchSize == null || fieldBatchSize < batchSize)) {
+                batchSize = fieldBatchSize;
+            }
+        }
+
+        List<List<HydrationBatch>> toBatches() {
+            List<List<HydrationBatch>> batchesByShape = new ArrayList<>();
+            for (Map<HydrationMemo.Key, List<NodeZipper<ExecutionResultNode>>> occurrencesByValue : occurrencesByShape.values()) {
+                List<HydrationBatch> batches = new ArrayList<>();
+                List<HydrationInputNode> hydrationInputs = new ArrayList<>();
+                List<NodeZipper<ExecutionResultNode>> occurrences = new ArrayList<>();
+                for (List<NodeZipper<ExecutionResultNode>> valueOccurrences : occurrencesByValue.values()) {
+                    hydrationInputs.add((HydrationInputNode) valueOccurrences.get(0).getCurNode());
+                    occurrences.addAll(valueOccurrences);
+                    if (batchSize != null && hydrationInputs.size() == batchSize) {
+                        batches.add(new HydrationBatch(hydrationInputs, occurrences));
+                        hydrationInputs = new ArrayList<>();
+                        occurrences = new ArrayList<>();
+                    }
+                }
+                if (!hydrationInputs.isEmpty()) {
+                    batches.add(new HydrationBatch(hydrationInputs, occurrences));
+                }
+                batchesByShape.add(batches);
+            }
+            return batchesByShape;
         }
     }
 
@@ -168,32 +586,21 @@ public class HydrationInputResolver {
         return ((ExtendedFieldDefinition) fieldDefinition).getDefaultBatchSize();
     }
 
-    private List<NodeMultiZipper<ExecutionResultNode>> groupIntoCorrectBatchSizes(NodeMultiZipper<ExecutionResultNode> batch) {
-        HydrationInputNode node = (HydrationInputNode) batch.getZippers().get(0).getCurNode();
-
-        Integer batchSize = node.getHydrationTransformation().getUnderlyingServiceHydration().getBatchSize();
+    /*
+     * null if all values can be sent in one call
+     */
+    private Integer getBatchSize(UnderlyingServiceHydration underlyingServiceHydration) {
+        Integer batchSize = underlyingServiceHydration.getBatchSize();
         if (batchSize == null) {
-            batchSize = getDefaultBatchSize(node.getHydrationTransformation().getUnderlyingServiceHydration());
+            batchSize = getDefaultBatchSize(underlyingServiceHydration);
         }
         if (batchSize == null) {
-            return singletonList(batch);
-        }
-        List<NodeMultiZipper<ExecutionResultNode>> result = new ArrayList<>();
-        int counter = 0;
-        List<NodeZipper<ExecutionResultNode>> currentBatch = new ArrayList<>();
-        for (NodeZipper<ExecutionResultNode> zipper : batch.getZippers()) {
-            currentBatch.add(zipper);
-            counter++;
-            if (counter == batchSize) {
-                result.add(new NodeMultiZipper<>(batch.getCommonRoot(), currentBatch, RESULT_NODE_ADAPTER));
-                counter = 0;
-                currentBatch = new ArrayList<>();
-            }
+            return null;
         }
-        if (currentBatch.size() > 0) {
-            result.add(new NodeMultiZipper<>(batch.getCommonRoot(), currentBatch, RESULT_NODE_ADAPTER));
+        if (adaptiveBatchSizer != null) {
+            batchSize = adaptiveBatchSizer.getBatchSize(underlyingServiceHydration.getServiceName(), underlyingServiceHydration.getTopLevelField(), batchSize);
         }
-        return result;
+        return batchSize;
     }
 
 
@@ -215,24 +622,35 @@ public class HydrationInputResolver {
     }
 
 
-    private CompletableFuture<List<NodeZipper<ExecutionResultNode>>> replaceNodesInZipper(NodeMultiZipper<ExecutionResultNode> batch,
-                                                                                          CompletableFuture<List<ExecutionResultNode>> executionResultNodeCompletableFuture) {
-        return executionResultNodeCompletableFuture.thenApply(executionResultNodes -> {
-            List<NodeZipper<ExecutionResultNode>> newZippers = new ArrayList<>();
-            List<NodeZipper<ExecutionResultNode>> zippers = batch.getZippers();
-            for (int i = 0; i < executionResultNodes.size(); i++) {
-                NodeZipper<ExecutionResultNode> zipper = zippers.get(i);
-                NodeZipper<ExecutionResultNode> newZipper = zipper.withNewNode(executionResultNodes.get(i));
-                newZippers.add(newZipper);
-            }
-            return newZippers;
-        });
+    private CompletableFuture<List<NodeZipper<ExecutionResultNode>>> replaceNodesInZipper(ExecutionContext executionContext,
+                                                                                          List<NodeZipper<ExecutionResultNode>> zippers,
+                                                                                          CompletableFuture<HydrationCall> hydrationCall,
+                                                                                          boolean withErrors,
+                                                                                          ResultComplexityAggregator resultComplexityAggregator) {
+        List<HydrationInputNode> hydrationInputs = map(zippers, zipper -> (HydrationInputNode) zipper.getCurNode());
+        return hydrationStage
+                .thenApply(hydrationCall, call -> convertHydrationBatchResultIntoOverallResult(executionContext,
+                        hydrationInputs,
+                        call.getRootResultNode(),
+                        call.getQueryTransformationResult(),
+                        call.getNormalizedField(),
+                        resultComplexityAggregator,
+                        withErrors))
+                .whenComplete(this::possiblyLogException)
+                .thenApply(executionResultNodes -> {
+                    List<NodeZipper<ExecutionResultNode>> newZippers = new ArrayList<>();
+                    for (int i = 0; i < executionResultNodes.size(); i++) {
+                        NodeZipper<ExecutionResultNode> zipper = zippers.get(i);
+                        NodeZipper<ExecutionResultNode> newZipper = zipper.withNewNode(executionResultNodes.get(i));
+                        newZippers.add(newZipper);
+                    }
+                    return newZippers;
+                });
     }
 
-    private CompletableFuture<ExecutionResultNode> resolveSingleHydrationInput(ExecutionContext executionContext,
-                                                                               HydrationInputNode hydrationInputNode,
-                                                                               Map<Service, Object> serviceContexts,
-                                                                               ResultComplexityAggregator resultComplexityAggregator) {
+    private CompletableFuture<HydrationCall> executeSingleHydrationInput(ExecutionContext executionContext,
+                                                                         HydrationInputNode hydrationInputNode,
+                                                                         Map<Service, Object> serviceContexts) {
         HydrationTransformation hydrationTransformation = hydrationInputNode.getHydrationTransformation();
 
         Field originalField = hydrationTransformation.getOriginalField();
@@ -267,22 +685,10 @@ public class HydrationInputResolver {
                 );
 
 
-        CompletableFuture<RootExecutionResultNode> serviceResult = serviceExecutor
+        return serviceExecutor
                 .execute(executionContext, queryTransformationResult, service, operation,
-                        serviceContexts.get(service), true);
-
-        return serviceResult
-                .thenApply(resultNode -> convertSingleHydrationResultIntoOverallResult(executionContext.getExecutionId(),
-                        hydrationInputNode,
-                        hydrationTransformation,
-                        resultNode,
-                        hydrationInputNode.getNormalizedField(),
-                        queryTransformationResult,
-                        getNadelContext(executionContext),
-                        resultComplexityAggregator
-                ))
-                .whenComplete(this::possiblyLogException);
-
+                        serviceContexts.get(service), topLevelFieldName, true)
+                .thenApply(resultNode -> new HydrationCall(queryTransformationResult, resultNode, hydrationInputNode.getNormalizedField()));
     }
 
     private Field createSingleHydrationTopLevelField(HydrationInputNode hydrationInputNode,
@@ -292,7 +698,7 @@ public class HydrationInputResolver {
                                                      String syntheticFieldName,
                                                      Field originalField) {
         List<RemoteArgumentDefinition> arguments = underlyingServiceHydration.getArguments();
-        RemoteArgumentDefinition argumentFromSourceObject = findOneOrNull(arguments, argument -> argument.getRemoteArgumentSource().getSourceType() == RemoteArgumentSource.SourceType.OBJECT_FIELD);
+        RemoteArgumentDefinition argumentFromSourceObject = getArgumentFromSourceObject(underlyingServiceHydration);
         List<RemoteArgumentDefinition> extraArguments = filter(arguments, argument -> argument.getRemoteArgumentSource().getSourceType() == RemoteArgumentSource.SourceType.FIELD_ARGUMENT);
 
         Object value = hydrationInputNode.getCompletedValue();
@@ -315,7 +721,7 @@ public class HydrationInputResolver {
         Field topLevelField = newField(topLevelFieldName)
                 .selectionSet(selectionSet)
                 .arguments(allArguments)
-                .additionalData(NodeId.ID, UUID.randomUUID().toString())
+                .additionalData(NodeId.ID, NodeId.newId())
                 .build();
 
         if (syntheticFieldName == null) {
@@ -324,7 +730,7 @@ public class HydrationInputResolver {
 
         Field syntheticField = newField(syntheticFieldName)
                 .selectionSet(newSelectionSet().selection(topLevelField).build())
-                .additionalData(NodeId.ID, UUID.randomUUID().toString())
+                .additionalData(NodeId.ID, NodeId.newId())
                 .build();
         return syntheticField;
     }
@@ -336,7 +742,8 @@ public class HydrationInputResolver {
                                                                               NormalizedQueryField rootNormalizedField,
                                                                               QueryTransformationResult queryTransformationResult,
                                                                               NadelContext nadelContext,
-                                                                              ResultComplexityAggregator resultComplexityAggregator
+                                                                              ResultComplexityAggregator resultComplexityAggregator,
+                                                                              boolean withErrors
     ) {
 
         Map<String, FieldTransformation> transformationByResultField = queryTransformationResult.getFieldIdToTransformation();
@@ -363,24 +770,147 @@ public class HydrationInputResolver {
                         queryTransformationResult.getRemovedFieldMap());
         String serviceName = hydrationTransformation.getUnderlyingServiceHydration().getServiceName();
         resultComplexityAggregator.incrementServiceNodeCount(serviceName, firstTopLevelResultNode.getTotalNodeCount());
-        firstTopLevelResultNode = firstTopLevelResultNode.withNewErrors(rootResultNode.getErrors());
+        if (withErrors) {
+            firstTopLevelResultNode = firstTopLevelResultNode.withNewErrors(rootResultNode.getErrors());
+        }
         firstTopLevelResultNode = StrategyUtil.copyFieldInformation(hydrationInputNode, firstTopLevelResultNode);
 
         return changeFieldIdsInResultNode(firstTopLevelResultNode, NodeId.getId(hydrationTransformation.getOriginalField()));
     }
 
-    private CompletableFuture<List<ExecutionResultNode>> resolveHydrationInputBatch(ExecutionContext executionContext,
-                                                                                    List<HydrationInputNode> hydrationInputs,
-                                                                                    Map<Service, Object> serviceContexts,
-                                                                                    ResultComplexityAggregator resultComplexityAggregator) {
+    private CompletableFuture<HydrationCall> executeHydrationInputBatch(ExecutionContext executionContext,
+                                                                        List<HydrationInputNode> hydrationInputs,
+                                                                        Map<Service, Object> serviceContexts) {
+        UnderlyingServiceHydration underlyingServiceHydration = hydrationInputs.get(0).getHydrationTransformation().getUnderlyingServiceHydration();
+        Service service = getService(underlyingServiceHydration);
+        Object serviceContext = serviceContexts.get(service);
+
+        QueryTransformationResult queryTransformationResult = transformHydrationInputBatch(executionContext, hydrationInputs, service, serviceContext);
+        if (batchHydrationCache != null) {
+            return executeCachedHydrationInputBatch(executionContext, hydrationInputs, service, serviceContext, queryTransformationResult);
+        }
+        long startTime = System.nanoTime();
+        return serviceExecutor
+                .execute(executionContext, queryTransformationResult, service, Operation.QUERY, serviceContext, underlyingServiceHydration.getTopLevelField(), true)
+                .whenComplete((resultNode, throwable) -> recordBatchCall(underlyingServiceHydration, resultNode, 0, startTime))
+                .thenApply(resultNode -> new HydrationCall(queryTransformationResult, resultNode, hydrationInputs.get(0).getNormalizedField()));
+
+    }
+
+    /*
+     * The objects the service returned are the objects in the result apart from the cached ones that were added to it,
+     * a call that failed returned none
+     */
+    private void recordBatchCall(UnderlyingServiceHydration underlyingServiceHydration, RootExecutionResultNode resultNode, int cachedObjectCount, long startTime) {
+        if (adaptiveBatchSizer == null) {
+            return;
+        }
+        long latencyNanos = System.nanoTime() - startTime;
+        int objectCount = 0;
+        if (resultNode != null) {
+            for (ExecutionResultNode child : resultNode.getChildren()) {
+                ExecutionResultNode objects = child;
+                if (underlyingServiceHydration.getSyntheticField() != null && !child.getChildren().isEmpty()) {
+                    objects = child.getChildren().get(0);
+                }
+                if (objects instanceof ListExecutionResultNode) {
+                    objectCount += objects.getChildren().size();
+                }
+            }
+        }
+        adaptiveBatchSizer.recordCall(underlyingServiceHydration.getServiceName(), underlyingServiceHydration.getTopLevelField(),
+                Math.max(objectCount - cachedObjectCount, 0), latencyNanos);
+    }
+
+    /*
+     * Only the object identifiers that are not cached are sent to the service, the cached objects are added to its response
+     */
+    private CompletableFuture<HydrationCall> executeCachedHydrationInputBatch(ExecutionContext executionContext,
+                                                                              List<HydrationInputNode> hydrationInputs,
+                                                                              Service service,
+                                                                              Object serviceContext,
+                                                                              QueryTransformationResult allInputsTransformationResult) {
+        UnderlyingServiceHydration underlyingServiceHydration = hydrationInputs.get(0).getHydrationTransformation().getUnderlyingServiceHydration();
+        String topLevelField = underlyingServiceHydration.getTopLevelField();
+        String syntheticField = underlyingServiceHydration.getSyntheticField();
+        NadelContext nadelContext = getNadelContext(executionContext);
 
-        List<HydrationTransformation> hydrationTransformations = map(hydrationInputs, HydrationInputNode::getHydrationTransformation);
+        String rootFieldName = syntheticField != null ? syntheticField : topLevelField;
+        Field rootField = (Field) allInputsTransformationResult.getOperationDefinition().getSelectionSet().getSelections().get(0);
+        String selectionSetShape = batchHydrationCache.selectionSetShape(allInputsTransformationResult,
+                rootField,
+                syntheticField,
+                getArgumentFromSourceObject(underlyingServiceHydration).getName(),
+                executionContext.getVariables(),
+                nadelContext);
+        Map<String, Object> cachedObjects = batchHydrationCache.getObjects(service.getName(), topLevelField, selectionSetShape,
+                map(hydrationInputs, hydrationInput -> hydrationInput.getCompletedValue().toString()), nadelContext);
+
+        List<HydrationInputNode> missingInputs = filter(hydrationInputs, hydrationInput -> !cachedObjects.containsKey(hydrationInput.getCompletedValue().toString()));
+        if (missingInputs.isEmpty()) {
+            ServiceExecutionResult serviceExecutionResult = BatchHydrationCache.addObjects(new ServiceExecutionResult(new LinkedHashMap<>()),
+                    rootFieldName, syntheticField, topLevelField, cachedObjects.values());
+            RootExecutionResultNode resultNode = serviceExecutor.resultToResultNode(executionContext, allInputsTransformationResult,
+                    service, Operation.QUERY, serviceContext, true, serviceExecutionResult);
+            return completedFuture(new HydrationCall(allInputsTransformationResult, resultNode, hydrationInputs.get(0).getNormalizedField()));
+        }
 
+        QueryTransformationResult queryTransformationResult = cachedObjects.isEmpty() ? allInputsTransformationResult
+                : withBatchValues(allInputsTransformationResult, underlyingServiceHydration, singletonMap(rootFieldName, missingInputs));
+        long startTime = System.nanoTime();
+        return serviceExecutor
+                .execute(executionContext, queryTransformationResult, service, Operation.QUERY, serviceContext, underlyingServiceHydration.getTopLevelField(), true, serviceExecutionResult -> {
+                    batchHydrationCache.putObjects(service.getName(), topLevelField, rootFieldName, syntheticField, selectionSetShape, serviceExecutionResult, nadelContext);
+                    if (cachedObjects.isEmpty()) {
+                        return serviceExecutionResult;
+                    }
+                    return BatchHydrationCache.addObjects(serviceExecutionResult, rootFieldName, syntheticField, topLevelField, cachedObjects.values());
+                })
+                .whenComplete((resultNode, throwable) -> recordBatchCall(underlyingServiceHydration, resultNode, cachedObjects.size(), startTime))
+                .thenApply(resultNode -> new HydrationCall(queryTransformationResult, resultNode, hydrationInputs.get(0).getNormalizedField()));
+    }
 
-        HydrationTransformation hydrationTransformation = hydrationTransformations.get(0);
+    /*
+     * The transformed batch query only differs by the values of the batch argument and the fields left out, so it is
+     * changed in place instead of being transformed again
+     */
+    private QueryTransformationResult withBatchValues(QueryTransformationResult queryTransformationResult,
+                                                      UnderlyingServiceHydration underlyingServiceHydration,
+                                                      Map<String, List<HydrationInputNode>> hydrationInputsByRootField) {
+        String batchArgumentName = getArgumentFromSourceObject(underlyingServiceHydration).getName();
+        OperationDefinition operationDefinition = queryTransformationResult.getOperationDefinition();
+        SelectionSet.Builder newSelectionSet = newSelectionSet();
+        for (Field rootField : operationDefinition.getSelectionSet().getSelectionsOfType(Field.class)) {
+            List<HydrationInputNode> hydrationInputs = hydrationInputsByRootField.get(resultKeyForField(rootField));
+            if (hydrationInputs == null) {
+                continue;
+            }
+            ArrayValue batchValues = new ArrayValue(map(hydrationInputs, hydrationInput -> StringValue.newStringValue(hydrationInput.getCompletedValue().toString()).build()));
+            if (underlyingServiceHydration.getSyntheticField() == null) {
+                newSelectionSet.selection(withArgumentValue(rootField, batchArgumentName, batchValues));
+            } else {
+                Field topLevelField = withArgumentValue((Field) rootField.getSelectionSet().getSelections().get(0), batchArgumentName, batchValues);
+                newSelectionSet.selection(rootField.transform(builder -> builder.selectionSet(newSelectionSet().selection(topLevelField).build())));
+            }
+        }
+        return queryTransformationResult.withOperationDefinition(operationDefinition.transform(builder -> builder
+                .selectionSet(newSelectionSet.build())));
+    }
+
+    private static Field withArgumentValue(Field field, String argumentName, Value value) {
+        List<Argument> arguments = map(field.getArguments(), argument -> argument.getName().equals(argumentName)
+                ? argument.transform(builder -> builder.value(value))
+                : argument);
+        return field.transform(builder -> builder.arguments(arguments));
+    }
+
+    private QueryTransformationResult transformHydrationInputBatch(ExecutionContext executionContext,
+                                                                   List<HydrationInputNode> hydrationInputs,
+                                                                   Service service,
+                                                                   Object serviceContext) {
+        HydrationTransformation hydrationTransformation = hydrationInputs.get(0).getHydrationTransformation();
         Field originalField = hydrationTransformation.getOriginalField();
         UnderlyingServiceHydration underlyingServiceHydration = hydrationTransformation.getUnderlyingServiceHydration();
-        Service service = getService(underlyingServiceHydration);
 
         Field topLevelField = createBatchHydrationTopLevelField(executionContext,
                 hydrationInputs,
@@ -388,29 +918,25 @@ public class HydrationInputResolver {
                 underlyingServiceHydration);
         GraphQLCompositeType topLevelFieldType = (GraphQLCompositeType) unwrapAll(hydrationTransformation.getOriginalFieldType());
 
-        Operation operation = Operation.QUERY;
         String operationName = buildOperationName(service, executionContext);
 
         boolean isSyntheticHydration = underlyingServiceHydration.getSyntheticField() != null;
-        QueryTransformationResult queryTransformationResult = queryTransformer
+        return queryTransformer
                 .transformHydratedTopLevelField(
                         executionContext,
                         service.getUnderlyingSchema(),
-                        operationName, operation,
+                        operationName, Operation.QUERY,
                         topLevelField,
                         topLevelFieldType,
                         serviceExecutionHooks,
                         service,
-                        serviceContexts.get(service),
+                        serviceContext,
                         isSyntheticHydration
                 );
+    }
 
-
-        return serviceExecutor
-                .execute(executionContext, queryTransformationResult, service, operation, serviceContexts.get(service), true)
-                .thenApply(resultNode -> convertHydrationBatchResultIntoOverallResult(executionContext, hydrationInputs, resultNode, queryTransformationResult, resultComplexityAggregator))
-                .whenComplete(this::possiblyLogException);
-
+    private RemoteArgumentDefinition getArgumentFromSourceObject(UnderlyingServiceHydration underlyingServiceHydration) {
+        return findOneOrNull(underlyingServiceHydration.getArguments(), argument -> argument.getRemoteArgumentSource().getSourceType() == RemoteArgumentSource.SourceType.OBJECT_FIELD);
     }
 
     private Field createBatchHydrationTopLevelField(ExecutionContext executionContext,
@@ -421,7 +947,7 @@ public class HydrationInputResolver {
         String topLevelFieldName = underlyingServiceHydration.getTopLevelField();
         String syntheticFieldName = underlyingServiceHydration.getSyntheticField();
         List<RemoteArgumentDefinition> arguments = underlyingServiceHydration.getArguments();
-        RemoteArgumentDefinition argumentFromSourceObject = findOneOrNull(arguments, argument -> argument.getRemoteArgumentSource().getSourceType() == RemoteArgumentSource.SourceType.OBJECT_FIELD);
+        RemoteArgumentDefinition argumentFromSourceObject = getArgumentFromSourceObject(underlyingServiceHydration);
         List<RemoteArgumentDefinition> extraArguments = filter(arguments, argument -> argument.getRemoteArgumentSource().getSourceType() == RemoteArgumentSource.SourceType.FIELD_ARGUMENT);
 
         List<Value> values = new ArrayList<>();
@@ -442,7 +968,7 @@ public class HydrationInputResolver {
 
         Field topLevelField = newField(topLevelFieldName)
                 .selectionSet(originalField.getSelectionSet())
-                .additionalData(NodeId.ID, UUID.randomUUID().toString())
+                .additionalData(NodeId.ID, NodeId.newId())
                 .arguments(allArguments)
                 .build();
         topLevelField = addObjectIdentifier(getNadelContext(executionContext), topLevelField, underlyingServiceHydration.getObjectIdentifier());
@@ -453,7 +979,7 @@ public class HydrationInputResolver {
 
         Field syntheticField = newField(syntheticFieldName)
                 .selectionSet(newSelectionSet().selection(topLevelField).build())
-                .additionalData(NodeId.ID, UUID.randomUUID().toString())
+                .additionalData(NodeId.ID, NodeId.newId())
                 .build();
         return syntheticField;
     }
@@ -463,7 +989,9 @@ public class HydrationInputResolver {
                                                                                    List<HydrationInputNode> hydrationInputNodes,
                                                                                    RootExecutionResultNode rootResultNode,
                                                                                    QueryTransformationResult queryTransformationResult,
-                                                                                   ResultComplexityAggregator resultComplexityAggregator) {
+                                                                                   NormalizedQueryField normalizedField,
+                                                                                   ResultComplexityAggregator resultComplexityAggregator,
+                                                                                   boolean withErrors) {
         boolean isSyntheticHydration = hydrationInputNodes.get(0).getHydrationTransformation().getUnderlyingServiceHydration().getSyntheticField() != null;
 
         ExecutionResultNode root = rootResultNode.getChildren().get(0);
@@ -474,7 +1002,7 @@ public class HydrationInputResolver {
             // we only expect a null value here
             assertTrue(root.isNullValue());
             List<ExecutionResultNode> result = new ArrayList<>();
-            boolean first = true;
+            boolean first = withErrors;
             for (HydrationInputNode hydrationInputNode : hydrationInputNodes) {
                 ExecutionResultNode resultNode = createNullValue(hydrationInputNode);
                 if (first) {
@@ -493,7 +1021,7 @@ public class HydrationInputResolver {
         Map<String, FieldTransformation> transformationByResultField = queryTransformationResult.getFieldIdToTransformation();
         Map<String, String> typeRenameMappings = queryTransformationResult.getTypeRenameMappings();
 
-        boolean first = true;
+        boolean first = withErrors;
         for (HydrationInputNode hydrationInputNode : hydrationInputNodes) {
             ObjectExecutionResultNode matchingResolvedNode = findMatchingResolvedNode(executionContext, hydrationInputNode, resolvedNodes);
             ExecutionResultNode resultNode;
@@ -501,7 +1029,7 @@ public class HydrationInputResolver {
                 ExecutionResultNode overallResultNode = serviceResultNodesToOverallResult.convertChildren(
                         executionContext.getExecutionId(),
                         matchingResolvedNode,
-                        hydrationInputNode.getNormalizedField(),
+                        normalizedField,
                         overallSchema,
                         hydrationInputNode,
                         true,
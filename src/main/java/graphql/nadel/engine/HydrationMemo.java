@@ -0,0 +1,176 @@
+package graphql.nadel.engine;
+
+import graphql.Internal;
+import graphql.language.Field;
+import graphql.nadel.dsl.RemoteArgumentDefinition;
+import graphql.nadel.dsl.RemoteArgumentSource;
+import graphql.nadel.dsl.UnderlyingServiceHydration;
+import graphql.nadel.engine.transformation.HydrationTransformation;
+import graphql.nadel.normalized.NormalizedQueryField;
+import graphql.nadel.result.RootExecutionResultNode;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static graphql.language.AstPrinter.printAstCompact;
+import static graphql.nadel.dsl.NodeId.getId;
+
+/**
+ * Remembers the hydration calls made during one request, so that a hydration value that shows up more than once
+ * is only sent to the underlying service once.
+ *
+ * A call is keyed by the service, top level field and value, so the same value under different hydrated fields, for
+ * example the same user as assignee and reporter, is only fetched once.  Fields only share calls when they select the
+ * same: the arguments and the selection set of the hydrated field, the object identifier and where the arguments of
+ * the call come from are part of the key.  The result of a shared call is
+ * tagged with the field ids of every occurrence when it is converted.
+ */
+@Internal
+public class HydrationMemo {
+
+    private final Map<Key, CompletableFuture<HydrationCall>> calls = new ConcurrentHashMap<>();
+    private final Map<String, String> selectionShapeByFieldId = new ConcurrentHashMap<>();
+
+    /**
+     * Reserves the call of a key, hydrations that run at the same time on other threads get the reserved call
+     *
+     * @param key the key of a hydration value
+     *
+     * @return null if the caller reserved the key and has to {@link #complete(Key, CompletableFuture)} it, else the
+     * call that was made or is going to be made for the key
+     */
+    public CompletableFuture<HydrationCall> reserve(Key key) {
+        CompletableFuture<HydrationCall> reserved = new CompletableFuture<>();
+        CompletableFuture<HydrationCall> call = calls.computeIfAbsent(key, k -> reserved);
+        return call == reserved ? null : call;
+    }
+
+    /**
+     * @param key  a key reserved by the caller
+     * @param call the call made for the key
+     */
+    public void complete(Key key, CompletableFuture<HydrationCall> call) {
+        CompletableFuture<HydrationCall> reserved = calls.get(key);
+        call.whenComplete((hydrationCall, throwable) -> {
+            if (throwable != null) {
+                reserved.completeExceptionally(throwable);
+            } else {
+                reserved.complete(hydrationCall);
+            }
+        });
+    }
+
+    /**
+     * @param key       a key reserved by the caller
+     * @param throwable why the call for the key could not be made
+     */
+    public void fail(Key key, Throwable throwable) {
+        calls.get(key).completeExceptionally(throwable);
+    }
+
+    public Key key(HydrationInputNode hydrationInputNode) {
+        HydrationTransformation hydrationTransformation = hydrationInputNode.getHydrationTransformation();
+        UnderlyingServiceHydration underlyingServiceHydration = hydrationTransformation.getUnderlyingServiceHydration();
+        return new Key(underlyingServiceHydration.getServiceName(),
+                underlyingServiceHydration.getTopLevelField(),
+                selectionShape(hydrationTransformation),
+                hydrationInputNode.getCompletedValue());
+    }
+
+    /**
+     * @param hydrationTransformation the transformation of a hydrated field
+     *
+     * @return everything apart from the value that is sent for the hydrated field and that its result is converted
+     * with, without its name and field ids
+     */
+    public String selectionShape(HydrationTransformation hydrationTransformation) {
+        Field originalField = hydrationTransformation.getOriginalField();
+        return selectionShapeByFieldId.computeIfAbsent(getId(originalField), id -> {
+            UnderlyingServiceHydration underlyingServiceHydration = hydrationTransformation.getUnderlyingServiceHydration();
+            Field withoutName = Field.newField("_")
+                    .arguments(originalField.getArguments())
+                    .directives(originalField.getDirectives())
+                    .selectionSet(originalField.getSelectionSet())
+                    .build();
+            StringBuilder shape = new StringBuilder()
+                    .append(underlyingServiceHydration.getSyntheticField()).append(' ')
+                    .append(underlyingServiceHydration.getObjectIdentifier()).append(' ');
+            for (RemoteArgumentDefinition argument : underlyingServiceHydration.getArguments()) {
+                RemoteArgumentSource source = argument.getRemoteArgumentSource();
+                shape.append(argument.getName()).append(':').append(source.getSourceType());
+                // the value from the source object is part of the key, not which field of the object it comes from
+                if (source.getSourceType() != RemoteArgumentSource.SourceType.OBJECT_FIELD) {
+                    shape.append('.').append(source.getName());
+                }
+                shape.append(' ');
+            }
+            return shape.append(printAstCompact(withoutName)).toString();
+        });
+    }
+
+    /**
+     * The transformed query of a hydration call together with its result and the hydrated field it was made for
+     */
+    public static class HydrationCall {
+        private final QueryTransformationResult queryTransformationResult;
+        private final RootExecutionResultNode rootResultNode;
+        private final NormalizedQueryField normalizedField;
+
+        public HydrationCall(QueryTransformationResult queryTransformationResult, RootExecutionResultNode rootResultNode, NormalizedQueryField normalizedField) {
+            this.queryTransformationResult = queryTransformationResult;
+            this.rootResultNode = rootResultNode;
+            this.normalizedField = normalizedField;
+        }
+
+        public QueryTransformationResult getQueryTransformationResult() {
+            return queryTransformationResult;
+        }
+
+        public RootExecutionResultNode getRootResultNode() {
+            return rootResultNode;
+        }
+
+        /**
+         * @return the hydrated field the query was transformed for, the fields removed from the query are recorded for it
+         */
+        public NormalizedQueryField getNormalizedField() {
+            return normalizedField;
+        }
+    }
+
+    public static class Key {
+        private final String serviceName;
+        private final String topLevelField;
+        private final String selectionShape;
+        private final Object value;
+
+        private Key(String serviceName, String topLevelField, String selectionShape, Object value) {
+            this.serviceName = serviceName;
+            this.topLevelField = topLevelField;
+            this.selectionShape = selectionShape;
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return Objects.equals(serviceName, key.serviceName) &&
+                    Objects.equals(topLevelField, key.topLevelField) &&
+                    Objects.equals(selectionShape, key.selectionShape) &&
+                    Objects.equals(value, key.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(serviceName, topLevelField, selectionShape, value);
+        }
+    }
+}
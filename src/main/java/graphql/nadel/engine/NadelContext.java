@@ -20,17 +20,25 @@ public class NadelContext {
     private final String originalOperationName;
     private final String objectIdentifierAlias;
     private final NormalizedQueryFromAst normalizedOverallQuery;
+    private final QueryPlan queryPlan;
+    private final long requestStartNanos;
+    private final HydrationMemo hydrationMemo = new HydrationMemo();
+    private final FragmentTransformationMemo fragmentTransformationMemo = new FragmentTransformationMemo();
 
     private NadelContext(Object userSuppliedContext,
                          String underscoreTypeNameAlias,
                          String originalOperationName,
                          String objectIdentifierAlias,
-                         NormalizedQueryFromAst normalizedOverallQuery) {
+                         NormalizedQueryFromAst normalizedOverallQuery,
+                         QueryPlan queryPlan,
+                         long requestStartNanos) {
         this.userSuppliedContext = userSuppliedContext;
         this.underscoreTypeNameAlias = underscoreTypeNameAlias;
         this.originalOperationName = originalOperationName;
         this.objectIdentifierAlias = objectIdentifierAlias;
         this.normalizedOverallQuery = normalizedOverallQuery;
+        this.queryPlan = queryPlan;
+        this.requestStartNanos = requestStartNanos;
     }
 
     public Object getUserSuppliedContext() {
@@ -67,12 +75,39 @@ public class NadelContext {
         return normalizedOverallQuery;
     }
 
+    public QueryPlan getQueryPlan() {
+        return queryPlan;
+    }
+
+    /**
+     * @return the {@link System#nanoTime()} the request started at, the request deadline counts from here
+     */
+    public long getRequestStartNanos() {
+        return requestStartNanos;
+    }
+
+    public HydrationMemo getHydrationMemo() {
+        return hydrationMemo;
+    }
+
+    public FragmentTransformationMemo getFragmentTransformationMemo() {
+        return fragmentTransformationMemo;
+    }
+
     public static class Builder {
         private Object userSuppliedContext;
         private String originalOperationName;
         private String artificialFieldsUUID;
         private NormalizedQueryFromAst normalizedOverallQuery;
+        private QueryPlan queryPlan;
+        private Long requestStartNanos;
 
+        public Builder queryPlan(QueryPlan queryPlan) {
+            this.queryPlan = queryPlan;
+            this.normalizedOverallQuery = queryPlan.getNormalizedOverallQuery();
+            this.artificialFieldsUUID = queryPlan.getArtificialFieldsUUID();
+            return this;
+        }
 
         public Builder normalizedOverallQuery(NormalizedQueryFromAst normalizedQueryFromAst) {
             this.normalizedOverallQuery = normalizedQueryFromAst;
@@ -101,10 +136,16 @@ public class NadelContext {
             return this;
         }
 
+        public Builder requestStartNanos(long requestStartNanos) {
+            this.requestStartNanos = requestStartNanos;
+            return this;
+        }
+
 
         public NadelContext build() {
             String uuid = artificialFieldsUUID != null ? artificialFieldsUUID : UUID.randomUUID().toString().replaceAll("-", "_");
-            return new NadelContext(userSuppliedContext, mkUnderscoreTypeNameAlias(uuid), originalOperationName, createObjectIdentifierAlias(uuid), normalizedOverallQuery);
+            return new NadelContext(userSuppliedContext, mkUnderscoreTypeNameAlias(uuid), originalOperationName, createObjectIdentifierAlias(uuid), normalizedOverallQuery, queryPlan,
+                    requestStartNanos != null ? requestStartNanos : System.nanoTime());
         }
     }
 }
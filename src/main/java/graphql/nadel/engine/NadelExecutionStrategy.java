@@ -10,9 +10,14 @@ import graphql.execution.MergedField;
 import graphql.execution.nextgen.FieldSubSelection;
 import graphql.nadel.BenchmarkContext;
 import graphql.nadel.FieldInfo;
+import graphql.nadel.AdaptiveBatchSizing;
 import graphql.nadel.FieldInfos;
+import graphql.nadel.HydrationCache;
 import graphql.nadel.Operation;
+import graphql.nadel.ParallelListConversion;
 import graphql.nadel.Service;
+import graphql.nadel.ServiceCallPolicy;
+import graphql.nadel.StageExecutors;
 import graphql.nadel.engine.transformation.FieldTransformation;
 import graphql.nadel.hooks.CreateServiceContextParams;
 import graphql.nadel.hooks.ResultRewriteParams;
@@ -27,24 +32,28 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import static graphql.Assert.assertNotEmpty;
 import static graphql.Assert.assertNotNull;
 import static graphql.nadel.result.RootExecutionResultNode.newRootExecutionResultNode;
 import static graphql.nadel.util.FpKit.map;
 import static java.lang.String.format;
+import static java.util.Collections.emptyMap;
 import static java.util.Collections.singletonList;
 
 @Internal
 public class NadelExecutionStrategy {
 
     private final ExecutionStepInfoFactory executionStepInfoFactory = new ExecutionStepInfoFactory();
-    private final ServiceResultNodesToOverallResult serviceResultNodesToOverallResult = new ServiceResultNodesToOverallResult();
-    private final OverallQueryTransformer queryTransformer = new OverallQueryTransformer();
+    private final ServiceResultNodesToOverallResult serviceResultNodesToOverallResult;
+    private final OverallQueryTransformer queryTransformer;
 
 
     private final FieldInfos fieldInfos;
@@ -53,6 +62,9 @@ public class NadelExecutionStrategy {
     private final ServiceExecutor serviceExecutor;
     private final HydrationInputResolver hydrationInputResolver;
     private final ServiceExecutionHooks serviceExecutionHooks;
+    private final StageExecutor resultConversionStage;
+    private final StageExecutor hydrationStage;
+    private final boolean groupTopLevelFieldsByService;
 
     private static final Logger log = LoggerFactory.getLogger(NadelExecutionStrategy.class);
 
@@ -61,13 +73,35 @@ public class NadelExecutionStrategy {
                                   GraphQLSchema overallSchema,
                                   NadelInstrumentation instrumentation,
                                   ServiceExecutionHooks serviceExecutionHooks) {
+        this(services, fieldInfos, overallSchema, instrumentation, serviceExecutionHooks, null, null, null, StageExecutors.newStageExecutors().build(), null, false);
+    }
+
+    public NadelExecutionStrategy(List<Service> services,
+                                  FieldInfos fieldInfos,
+                                  GraphQLSchema overallSchema,
+                                  NadelInstrumentation instrumentation,
+                                  ServiceExecutionHooks serviceExecutionHooks,
+                                  HydrationCache hydrationCache,
+                                  AdaptiveBatchSizing adaptiveBatchSizing,
+                                  ParallelListConversion parallelListConversion,
+                                  StageExecutors stageExecutors,
+                                  ServiceCallPolicy serviceCallPolicy,
+                                  boolean groupTopLevelFieldsByService) {
         this.overallSchema = overallSchema;
         this.instrumentation = instrumentation;
         assertNotEmpty(services);
         this.fieldInfos = fieldInfos;
         this.serviceExecutionHooks = serviceExecutionHooks;
-        this.serviceExecutor = new ServiceExecutor(instrumentation);
-        this.hydrationInputResolver = new HydrationInputResolver(services, overallSchema, serviceExecutor, serviceExecutionHooks);
+        OverallTypeRenames overallTypeRenames = new OverallTypeRenames(overallSchema);
+        this.queryTransformer = new OverallQueryTransformer(overallTypeRenames);
+        this.groupTopLevelFieldsByService = groupTopLevelFieldsByService;
+        ParallelListConverter parallelListConverter = new ParallelListConverter(parallelListConversion);
+        this.serviceResultNodesToOverallResult = new ServiceResultNodesToOverallResult(parallelListConverter);
+        this.resultConversionStage = new StageExecutor(stageExecutors.getResultConversionExecutor());
+        this.hydrationStage = new StageExecutor(stageExecutors.getHydrationExecutor());
+        this.serviceExecutor = new ServiceExecutor(instrumentation, parallelListConverter, resultConversionStage,
+                new ServiceCallGuard(serviceCallPolicy));
+        this.hydrationInputResolver = new HydrationInputResolver(services, overallSchema, serviceExecutor, serviceExecutionHooks, hydrationCache, adaptiveBatchSizing, parallelListConverter, hydrationStage, overallTypeRenames);
     }
 
     public CompletableFuture<RootExecutionResultNode> execute(ExecutionContext executionContext, FieldSubSelection fieldSubSelection, ResultComplexityAggregator resultComplexityAggregator) {
@@ -82,8 +116,8 @@ public class NadelExecutionStrategy {
                     executeTopLevelFields(executionContext, nadelContext, operation, oneServiceExecutions, resultComplexityAggregator);
 
             CompletableFuture<RootExecutionResultNode> rootResult = mergeTrees(resultNodes);
-            return rootResult
-                    .thenCompose(
+            return hydrationStage
+                    .thenCompose(rootResult,
                             //
                             // all the nodes that are hydrated need to make new service calls to get their eventual value
                             //
@@ -135,77 +169,152 @@ public class NadelExecutionStrategy {
             ResultComplexityAggregator resultComplexityAggregator) {
 
         List<CompletableFuture<RootExecutionResultNode>> resultNodes = new ArrayList<>();
-        for (OneServiceExecution oneServiceExecution : oneServiceExecutions) {
-            Service service = oneServiceExecution.service;
-            ExecutionStepInfo esi = oneServiceExecution.stepInfo;
-            Object serviceContext = oneServiceExecution.serviceContext;
-
-            String operationName = buildOperationName(service, executionContext);
-            MergedField mergedField = esi.getField();
-
-            //
-            // take the original query and transform it into the underlying query needed for that top level field
-            //
-            GraphQLSchema underlyingSchema = service.getUnderlyingSchema();
-            QueryTransformationResult queryTransform = queryTransformer
-                    .transformMergedFields(executionContext, underlyingSchema, operationName, operation, singletonList(mergedField), serviceExecutionHooks, service, serviceContext);
-
-
-            Map<String, FieldTransformation> fieldIdToTransformation = queryTransform.getFieldIdToTransformation();
-            Map<String, String> typeRenameMappings = queryTransform.getTypeRenameMappings();
-
-            ExecutionContext newExecutionContext = buildServiceVariableOverrides(executionContext, queryTransform.getVariableValues());
-
-
-            CompletableFuture<RootExecutionResultNode> serviceCallResult = serviceExecutor
-                    .execute(newExecutionContext, queryTransform, service, operation, serviceContext, false);
-
-            CompletableFuture<RootExecutionResultNode> convertedResult = serviceCallResult
-                    .thenApply(resultNode -> {
-                        if (nadelContext.getUserSuppliedContext() instanceof BenchmarkContext) {
-                            BenchmarkContext benchmarkContext = (BenchmarkContext) nadelContext.getUserSuppliedContext();
-                            benchmarkContext.serviceResultNodesToOverallResult.executionId = newExecutionContext.getExecutionId();
-                            benchmarkContext.serviceResultNodesToOverallResult.resultNode = resultNode;
-                            benchmarkContext.serviceResultNodesToOverallResult.overallSchema = overallSchema;
-                            benchmarkContext.serviceResultNodesToOverallResult.correctRootNode = resultNode;
-                            benchmarkContext.serviceResultNodesToOverallResult.fieldIdToTransformation = fieldIdToTransformation;
-                            benchmarkContext.serviceResultNodesToOverallResult.typeRenameMappings = typeRenameMappings;
-                            benchmarkContext.serviceResultNodesToOverallResult.nadelContext = nadelContext;
-                            benchmarkContext.serviceResultNodesToOverallResult.transformationMetadata = queryTransform.getRemovedFieldMap();
-                        }
-                        return (RootExecutionResultNode) serviceResultNodesToOverallResult
-                                .convert(newExecutionContext.getExecutionId(),
-                                        resultNode,
-                                        overallSchema,
-                                        resultNode,
-                                        fieldIdToTransformation,
-                                        typeRenameMappings,
-                                        nadelContext,
-                                        queryTransform.getRemovedFieldMap());
-                    });
+        if (groupTopLevelFieldsByService) {
+            Map<Service, List<OneServiceExecution>> executionsByService = new LinkedHashMap<>();
+            for (OneServiceExecution oneServiceExecution : oneServiceExecutions) {
+                executionsByService.computeIfAbsent(oneServiceExecution.service, service -> new ArrayList<>()).add(oneServiceExecution);
+            }
+            for (List<OneServiceExecution> serviceExecutions : executionsByService.values()) {
+                resultNodes.addAll(executeServiceCall(executionContext, nadelContext, operation, serviceExecutions, resultComplexityAggregator));
+            }
+        } else {
+            for (OneServiceExecution oneServiceExecution : oneServiceExecutions) {
+                resultNodes.addAll(executeServiceCall(executionContext, nadelContext, operation, singletonList(oneServiceExecution), resultComplexityAggregator));
+            }
+        }
+        return resultNodes;
+    }
+
+    /*
+     * Makes one call for top level fields of the same service, the result is split back per top level field
+     * for the result rewrite hook.  The call is made with the service context of the first field.
+     */
+    private List<CompletableFuture<RootExecutionResultNode>> executeServiceCall(
+            ExecutionContext executionContext,
+            NadelContext nadelContext,
+            Operation operation,
+            List<OneServiceExecution> serviceExecutions,
+            ResultComplexityAggregator resultComplexityAggregator) {
 
-            //set the result node count for this service
-            convertedResult.thenAccept(rootExecutionResultNode -> resultComplexityAggregator.incrementServiceNodeCount(service.getName(), rootExecutionResultNode.getTotalNodeCount()));
+        OneServiceExecution firstExecution = serviceExecutions.get(0);
+        Service service = firstExecution.service;
+        Object serviceContext = firstExecution.serviceContext;
+
+        String operationName = buildOperationName(service, executionContext);
+        List<MergedField> mergedFields = map(serviceExecutions, oneServiceExecution -> oneServiceExecution.stepInfo.getField());
+        String resultKeys = String.join(",", map(mergedFields, MergedField::getResultKey));
+
+        //
+        // take the original query and transform it into the underlying query needed for these top level fields
+        //
+        GraphQLSchema underlyingSchema = service.getUnderlyingSchema();
+        QueryTransformationResult queryTransform = transformTopLevelFields(nadelContext, service, resultKeys, serviceContext, executionContext.getVariables(), () -> queryTransformer
+                .transformMergedFields(executionContext, underlyingSchema, operationName, operation, mergedFields, serviceExecutionHooks, service, serviceContext));
+
+
+        Map<String, FieldTransformation> fieldIdToTransformation = queryTransform.getFieldIdToTransformation();
+        Map<String, String> typeRenameMappings = queryTransform.getTypeRenameMappings();
+
+        ExecutionContext newExecutionContext = buildServiceVariableOverrides(executionContext, queryTransform.getVariableValues());
+        String topLevelFields = String.join(",", map(queryTransform.getTransformedMergedFields(), MergedField::getName));
+
+
+        CompletableFuture<RootExecutionResultNode> serviceCallResult = serviceExecutor
+                .execute(newExecutionContext, queryTransform, service, operation, serviceContext, topLevelFields, false);
+
+        CompletableFuture<RootExecutionResultNode> convertedResult = resultConversionStage
+                .thenApply(serviceCallResult, resultNode -> {
+                    if (nadelContext.getUserSuppliedContext() instanceof BenchmarkContext) {
+                        BenchmarkContext benchmarkContext = (BenchmarkContext) nadelContext.getUserSuppliedContext();
+                        benchmarkContext.serviceResultNodesToOverallResult.executionId = newExecutionContext.getExecutionId();
+                        benchmarkContext.serviceResultNodesToOverallResult.resultNode = resultNode;
+                        benchmarkContext.serviceResultNodesToOverallResult.overallSchema = overallSchema;
+                        benchmarkContext.serviceResultNodesToOverallResult.correctRootNode = resultNode;
+                        benchmarkContext.serviceResultNodesToOverallResult.fieldIdToTransformation = fieldIdToTransformation;
+                        benchmarkContext.serviceResultNodesToOverallResult.typeRenameMappings = typeRenameMappings;
+                        benchmarkContext.serviceResultNodesToOverallResult.nadelContext = nadelContext;
+                        benchmarkContext.serviceResultNodesToOverallResult.transformationMetadata = queryTransform.getRemovedFieldMap();
+                    }
+                    return (RootExecutionResultNode) serviceResultNodesToOverallResult
+                            .convert(newExecutionContext.getExecutionId(),
+                                    resultNode,
+                                    overallSchema,
+                                    resultNode,
+                                    fieldIdToTransformation,
+                                    typeRenameMappings,
+                                    nadelContext,
+                                    queryTransform.getRemovedFieldMap());
+                });
+
+        //set the result node count for this service
+        convertedResult.thenAccept(rootExecutionResultNode -> resultComplexityAggregator.incrementServiceNodeCount(service.getName(), rootExecutionResultNode.getTotalNodeCount()));
 
-            CompletableFuture<RootExecutionResultNode> serviceResult = convertedResult
-                    .thenCompose(rootResultNode -> {
+        List<CompletableFuture<RootExecutionResultNode>> resultNodes = new ArrayList<>();
+        for (int i = 0; i < serviceExecutions.size(); i++) {
+            OneServiceExecution oneServiceExecution = serviceExecutions.get(i);
+            int index = i;
+            CompletableFuture<RootExecutionResultNode> serviceResult = resultConversionStage
+                    .thenCompose(convertedResult, rootResultNode -> {
+                        RootExecutionResultNode fieldResultNode = serviceExecutions.size() == 1 ? rootResultNode : resultNodeOfTopLevelField(rootResultNode, mergedFields, queryTransform.getTransformedMergedFields(), index);
                         ResultRewriteParams resultRewriteParams = ResultRewriteParams.newParameters()
                                 .from(executionContext)
                                 .service(service)
-                                .serviceContext(serviceContext)
-                                .executionStepInfo(esi)
-                                .resultNode(rootResultNode)
+                                .serviceContext(oneServiceExecution.serviceContext)
+                                .executionStepInfo(oneServiceExecution.stepInfo)
+                                .resultNode(fieldResultNode)
                                 .build();
                         return serviceExecutionHooks.resultRewrite(resultRewriteParams);
                     });
-
-
             resultNodes.add(serviceResult);
-
         }
         return resultNodes;
     }
 
+    /*
+     * The part of a result of several top level fields that belongs to one of them.  The errors of the service have
+     * paths with the result keys of the transformed fields, which are in the same order as the fields.  Errors that
+     * have no path to one of the fields and the extensions go with the first field, so they are still reported once.
+     */
+    private RootExecutionResultNode resultNodeOfTopLevelField(RootExecutionResultNode rootResultNode,
+                                                              List<MergedField> mergedFields,
+                                                              List<MergedField> transformedMergedFields,
+                                                              int index) {
+        String resultKey = mergedFields.get(index).getResultKey();
+        String underlyingResultKey = transformedMergedFields.get(index).getResultKey();
+        Set<String> underlyingResultKeys = new HashSet<>(map(transformedMergedFields, MergedField::getResultKey));
+
+        List<ExecutionResultNode> children = new ArrayList<>();
+        for (ExecutionResultNode child : rootResultNode.getChildren()) {
+            if (resultKey.equals(child.getResultKey())) {
+                children.add(child);
+            }
+        }
+        List<GraphQLError> errors = new ArrayList<>();
+        for (GraphQLError error : rootResultNode.getErrors()) {
+            List<Object> path = error.getPath();
+            Object errorResultKey = path == null || path.isEmpty() ? null : path.get(0);
+            if (underlyingResultKey.equals(errorResultKey) || (index == 0 && !underlyingResultKeys.contains(errorResultKey))) {
+                errors.add(error);
+            }
+        }
+        Map<String, Object> extensions = index == 0 ? rootResultNode.getExtensions() : emptyMap();
+        return rootResultNode.transform(builder -> builder.children(children).errors(errors).extensions(extensions));
+    }
+
+
+    private QueryTransformationResult transformTopLevelFields(NadelContext nadelContext,
+                                                              Service service,
+                                                              String resultKeys,
+                                                              Object serviceContext,
+                                                              Map<String, Object> variables,
+                                                              Supplier<QueryTransformationResult> transform) {
+        QueryPlan queryPlan = nadelContext.getQueryPlan();
+        if (queryPlan == null || !queryPlan.isShared()) {
+            return transform.get();
+        }
+        Object hooksKey = serviceExecutionHooks.queryPlanCacheKey(serviceContext, nadelContext.getUserSuppliedContext());
+        return queryPlan.getTransformation(service, resultKeys, hooksKey, variables, transform);
+    }
 
     @SuppressWarnings("unused")
     private <T> void possiblyLogException(T result, Throwable exception) {
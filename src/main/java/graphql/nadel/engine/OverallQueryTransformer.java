@@ -17,17 +17,17 @@ import graphql.language.VariableReference;
 import graphql.nadel.Operation;
 import graphql.nadel.Service;
 import graphql.nadel.dsl.TypeMappingDefinition;
+import graphql.nadel.engine.FragmentTransformationMemo.TransformedFragment;
 import graphql.nadel.engine.transformation.FieldTransformation;
-import graphql.nadel.engine.transformation.OverallTypeInformation;
-import graphql.nadel.engine.transformation.RecordOverallTypeInformation;
 import graphql.nadel.engine.transformation.TransformationMetadata;
 import graphql.nadel.hooks.ServiceExecutionHooks;
+import graphql.nadel.normalized.NormalizedQueryFactory;
+import graphql.nadel.normalized.NormalizedQueryFromAst;
 import graphql.nadel.util.FpKit;
 import graphql.schema.GraphQLCompositeType;
 import graphql.schema.GraphQLObjectType;
 import graphql.schema.GraphQLOutputType;
 import graphql.schema.GraphQLSchema;
-import graphql.schema.GraphQLType;
 import graphql.schema.idl.TypeInfo;
 import graphql.util.TraversalControl;
 import graphql.util.TraverserContext;
@@ -44,11 +44,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import static graphql.Assert.assertNotNull;
+import static graphql.Assert.assertTrue;
 import static graphql.language.OperationDefinition.newOperationDefinition;
 import static graphql.language.SelectionSet.newSelectionSet;
 import static graphql.nadel.engine.UnderlyingTypeContext.newUnderlyingTypeContext;
 import static graphql.nadel.util.FpKit.map;
-import static graphql.nadel.util.Util.getTypeMappingDefinitionFor;
 import static graphql.util.FpKit.groupingByUniqueKey;
 
 @Internal
@@ -56,7 +57,15 @@ public class OverallQueryTransformer {
 
     private static final Logger log = LoggerFactory.getLogger(OverallQueryTransformer.class);
 
-    private final RecordOverallTypeInformation recordOverallTypeInformation = new RecordOverallTypeInformation();
+    private final NormalizedQueryFactory normalizedQueryFactory = new NormalizedQueryFactory();
+    private final OverallTypeRenames overallTypeRenames;
+
+    /**
+     * @param overallTypeRenames the type renames of the overall schema the queries are transformed from
+     */
+    public OverallQueryTransformer(OverallTypeRenames overallTypeRenames) {
+        this.overallTypeRenames = assertNotNull(overallTypeRenames);
+    }
 
 
     QueryTransformationResult transformHydratedTopLevelField(
@@ -70,6 +79,33 @@ public class OverallQueryTransformer {
             Service service,
             Object serviceContext,
             boolean isSynthetic
+    ) {
+        return transformHydratedTopLevelFields(executionContext,
+                underlyingSchema,
+                operationName,
+                operation,
+                Collections.singletonList(rootField),
+                Collections.singletonList(topLevelFieldTypeOverall),
+                serviceExecutionHooks,
+                service,
+                serviceContext,
+                isSynthetic);
+    }
+
+    /**
+     * Transforms several hydration calls into one query, with one (aliased) root field per call.
+     */
+    QueryTransformationResult transformHydratedTopLevelFields(
+            ExecutionContext executionContext,
+            GraphQLSchema underlyingSchema,
+            String operationName,
+            Operation operation,
+            List<Field> rootFields,
+            List<GraphQLCompositeType> topLevelFieldTypesOverall,
+            ServiceExecutionHooks serviceExecutionHooks,
+            Service service,
+            Object serviceContext,
+            boolean isSynthetic
     ) {
         long startTime = System.currentTimeMillis();
         Set<String> referencedFragmentNames = new LinkedHashSet<>();
@@ -82,13 +118,6 @@ public class OverallQueryTransformer {
 
         NadelContext nadelContext = executionContext.getContext();
 
-        SelectionSet selectionSet = rootField.getSelectionSet();
-        Field topLevelField = rootField;
-        if (isSynthetic) {
-            topLevelField = (Field) selectionSet.getSelections().get(0);
-            selectionSet = topLevelField.getSelectionSet();
-        }
-
         Map<String, VariableDefinition> variableDefinitionMap = FpKit.getByName(executionContext.getOperationDefinition().getVariableDefinitions(), VariableDefinition::getName);
         NodeVisitorStub nodeVisitorStub = new NodeVisitorStub() {
             @Override
@@ -98,36 +127,49 @@ public class OverallQueryTransformer {
                 return super.visitVariableReference(variableReference, context);
             }
         };
-
         NodeTraverser nodeTraverser = new NodeTraverser();
-        nodeTraverser.depthFirst(nodeVisitorStub, topLevelField);
 
+        List<Field> transformedRootFields = new ArrayList<>();
+        for (int i = 0; i < rootFields.size(); i++) {
+            Field rootField = rootFields.get(i);
+            GraphQLCompositeType topLevelFieldTypeOverall = topLevelFieldTypesOverall.get(i);
 
-        SelectionSet topLevelFieldSelectionSet = transformNode(
-                executionContext,
-                underlyingSchema,
-                selectionSet,
-                topLevelFieldTypeOverall,
-                fieldIdToTransformation,
-                typeRenameMappings,
-                referencedFragmentNames,
-                referencedVariables,
-                nadelContext,
-                serviceExecutionHooks,
-                variableValues,
-                service,
-                serviceContext,
-                removedFieldMap
-        );
+            SelectionSet selectionSet = rootField.getSelectionSet();
+            Field topLevelField = rootField;
+            if (isSynthetic) {
+                topLevelField = (Field) selectionSet.getSelections().get(0);
+                selectionSet = topLevelField.getSelectionSet();
+            }
 
-        Field transformedRootField = topLevelField.transform(builder -> builder.selectionSet(topLevelFieldSelectionSet));
+            nodeTraverser.depthFirst(nodeVisitorStub, topLevelField);
+
+            SelectionSet topLevelFieldSelectionSet = transformNode(
+                    executionContext,
+                    underlyingSchema,
+                    selectionSet,
+                    topLevelFieldTypeOverall,
+                    fieldIdToTransformation,
+                    typeRenameMappings,
+                    referencedFragmentNames,
+                    referencedVariables,
+                    nadelContext,
+                    serviceExecutionHooks,
+                    variableValues,
+                    service,
+                    serviceContext,
+                    removedFieldMap
+            );
+
+            Field transformedRootField = topLevelField.transform(builder -> builder.selectionSet(topLevelFieldSelectionSet));
 
 
-        transformedRootField = ArtificialFieldUtils.maybeAddUnderscoreTypeName(nadelContext, transformedRootField, topLevelFieldTypeOverall);
+            transformedRootField = ArtificialFieldUtils.maybeAddUnderscoreTypeName(nadelContext, transformedRootField, topLevelFieldTypeOverall);
 
-        if (isSynthetic) {
-            Field tempTransformedRootLevelField = transformedRootField;
-            transformedRootField = rootField.transform(builder -> builder.selectionSet(newSelectionSet().selection(tempTransformedRootLevelField).build()));
+            if (isSynthetic) {
+                Field tempTransformedRootLevelField = transformedRootField;
+                transformedRootField = rootField.transform(builder -> builder.selectionSet(newSelectionSet().selection(tempTransformedRootLevelField).build()));
+            }
+            transformedRootFields.add(transformedRootField);
         }
 
         List<VariableDefinition> variableDefinitions = buildReferencedVariableDefinitions(referencedVariables, executionContext.getGraphQLSchema(), typeRenameMappings);
@@ -146,7 +188,7 @@ public class OverallQueryTransformer {
                 serviceContext,
                 removedFieldMap);
 
-        SelectionSet newOperationSelectionSet = newSelectionSet().selection(transformedRootField).build();
+        SelectionSet newOperationSelectionSet = newSelectionSet(transformedRootFields).build();
         OperationDefinition operationDefinition = newOperationDefinition()
                 .name(operationName)
                 .operation(operation.getAstOperation())
@@ -155,20 +197,23 @@ public class OverallQueryTransformer {
                 .build();
 
         Document newDocument = newDocument(operationDefinition, transformedFragments);
+        NormalizedQueryFromAst normalizedUnderlyingQuery = normalizedQueryFactory.createNormalizedQuery(underlyingSchema, newDocument, null, variableValues);
 
-        MergedField transformedMergedField = MergedField.newMergedField(transformedRootField).build();
+        List<MergedField> transformedMergedFields = map(transformedRootFields, transformedRootField -> MergedField.newMergedField(transformedRootField).build());
         long elapsedTime = System.currentTimeMillis() - startTime;
-        log.debug("OverallQueryTransformer.transformHydratedTopLevelField time: {}, executionId: {}", elapsedTime, executionContext.getExecutionId());
+        log.debug("OverallQueryTransformer.transformHydratedTopLevelFields time: {}, executionId: {}", elapsedTime, executionContext.getExecutionId());
+        removedFieldMap.indexFieldMetadata();
         return new QueryTransformationResult(
                 newDocument,
                 operationDefinition,
-                Collections.singletonList(transformedMergedField),
+                transformedMergedFields,
                 typeRenameMappings,
                 referencedVariableNames,
                 fieldIdToTransformation,
                 transformedFragments,
                 variableValues,
-                removedFieldMap);
+                removedFieldMap,
+                normalizedUnderlyingQuery);
 
     }
 
@@ -257,9 +302,11 @@ public class OverallQueryTransformer {
                 removedFieldMap);
 
         Document newDocument = newDocument(operationDefinition, transformedFragments);
+        NormalizedQueryFromAst normalizedUnderlyingQuery = normalizedQueryFactory.createNormalizedQuery(underlyingSchema, newDocument, null, variableValues);
 
         long elapsedTime = System.currentTimeMillis() - startTime;
         log.debug("OverallQueryTransformer.transformMergedFields time: {}, executionId: {}", elapsedTime, executionContext.getExecutionId());
+        removedFieldMap.indexFieldMetadata();
         return new QueryTransformationResult(
                 newDocument,
                 operationDefinition,
@@ -269,7 +316,8 @@ public class OverallQueryTransformer {
                 fieldIdToTransformation,
                 transformedFragments,
                 variableValues,
-                removedFieldMap);
+                removedFieldMap,
+                normalizedUnderlyingQuery);
     }
 
     private Document newDocument(OperationDefinition operationDefinition, Map<String, FragmentDefinition> transformedFragments) {
@@ -295,25 +343,54 @@ public class OverallQueryTransformer {
                                                                Object serviceContext,
                                                                TransformationMetadata removedFieldMap) {
 
+        NadelContext nadelContext = executionContext.getContext();
+        FragmentTransformationMemo fragmentTransformationMemo = nadelContext.getFragmentTransformationMemo();
         Set<String> fragmentsToTransform = new LinkedHashSet<>(referencedFragmentNames);
         Set<FragmentDefinition> transformedFragments = new LinkedHashSet<>();
         while (!fragmentsToTransform.isEmpty()) {
             String fragmentName = fragmentsToTransform.iterator().next();
+            FragmentDefinition fragment = fragments.get(fragmentName);
             Set<String> newReferencedFragments = new LinkedHashSet<>();
-            FragmentDefinition transformedFragment = transformFragmentDefinition(
-                    executionContext,
-                    underlyingSchema,
-                    fragments.get(fragmentName),
-                    transformationByResultField,
-                    typeRenameMappings,
-                    newReferencedFragments,
-                    referencedVariables,
-                    serviceExecutionHooks,
-                    variableValues,
-                    service,
-                    serviceContext,
-                    removedFieldMap
-            );
+            // fragments are shared between the top level fields and hydration calls of a request, so a fragment is only
+            // transformed once per service and the result is added to every query that references it
+            TransformedFragment memoized = fragmentTransformationMemo.get(service, serviceContext, fragment, removedFieldMap.getMetadataByFieldId(), () -> {
+                TransformedFragment transformed = new TransformedFragment(variableValues);
+                FragmentDefinition fragmentDefinition = transformFragmentDefinition(
+                        executionContext,
+                        underlyingSchema,
+                        fragment,
+                        transformed.getFieldIdToTransformation(),
+                        transformed.getTypeRenameMappings(),
+                        transformed.getReferencedFragmentNames(),
+                        transformed.getReferencedVariables(),
+                        serviceExecutionHooks,
+                        transformed.getVariableValues(),
+                        service,
+                        serviceContext,
+                        transformed.getTransformationMetadata()
+                );
+                return transformed.done(fragmentDefinition, variableValues);
+            });
+            FragmentDefinition transformedFragment;
+            if (memoized != null) {
+                memoized.addTo(transformationByResultField, typeRenameMappings, newReferencedFragments, referencedVariables, variableValues, removedFieldMap);
+                transformedFragment = memoized.getFragmentDefinition();
+            } else {
+                transformedFragment = transformFragmentDefinition(
+                        executionContext,
+                        underlyingSchema,
+                        fragment,
+                        transformationByResultField,
+                        typeRenameMappings,
+                        newReferencedFragments,
+                        referencedVariables,
+                        serviceExecutionHooks,
+                        variableValues,
+                        service,
+                        serviceContext,
+                        removedFieldMap
+                );
+            }
             transformedFragments.add(transformedFragment);
             fragmentsToTransform.addAll(newReferencedFragments);
             fragmentsToTransform.remove(fragmentName);
@@ -336,12 +413,6 @@ public class OverallQueryTransformer {
     ) {
         NadelContext nadelContext = executionContext.getContext();
 
-        OverallTypeInformation<FragmentDefinition> overallTypeInformation = recordOverallTypeInformation.recordOverallTypes(
-                fragmentDefinitionWithoutTypeInfo,
-                executionContext.getGraphQLSchema(),
-                null);
-
-
         Transformer transformer = new Transformer(
                 executionContext,
                 underlyingSchema,
@@ -351,7 +422,7 @@ public class OverallQueryTransformer {
                 referencedVariables,
                 nadelContext,
                 serviceExecutionHooks,
-                overallTypeInformation,
+                getOverallTypeRenames(executionContext.getGraphQLSchema()),
                 variableValues,
                 service,
                 serviceContext,
@@ -379,8 +450,7 @@ public class OverallQueryTransformer {
         for (VariableDefinition vd : referencedVariables.values()) {
             TypeInfo typeInfo = TypeInfo.typeInfo(vd.getType());
 
-            GraphQLType type = graphQLSchema.getType(typeInfo.getName());
-            TypeMappingDefinition mappingDefinition = getTypeMappingDefinitionFor(type);
+            TypeMappingDefinition mappingDefinition = getOverallTypeRenames(graphQLSchema).getTypeMappingDefinition(typeInfo.getName());
             if (mappingDefinition != null) {
                 typeRenameMappings.put(mappingDefinition.getUnderlyingName(), mappingDefinition.getOverallName());
                 String newName = mappingDefinition.getUnderlyingName();
@@ -406,12 +476,6 @@ public class OverallQueryTransformer {
                                              Service service,
                                              Object serviceContext,
                                              TransformationMetadata removedFieldMap) {
-        OverallTypeInformation<T> overallTypeInformation = recordOverallTypeInformation.recordOverallTypes(
-                nodeWithoutTypeInfo,
-                executionContext.getGraphQLSchema(),
-                parentTypeOverall);
-
-
         Transformer transformer = new Transformer(
                 executionContext,
                 underlyingSchema,
@@ -421,18 +485,19 @@ public class OverallQueryTransformer {
                 referencedVariables,
                 nadelContext,
                 serviceExecutionHooks,
-                overallTypeInformation,
+                getOverallTypeRenames(executionContext.getGraphQLSchema()),
                 variableValues,
                 service,
                 serviceContext,
                 removedFieldMap
         );
         Map<Class<?>, Object> rootVars = new LinkedHashMap<>();
-        String underlyingParentName = getUnderlyingTypeNameAndRecordMapping(parentTypeOverall, typeRenameMappings);
+        String underlyingParentName = getUnderlyingTypeNameAndRecordMapping(getOverallTypeRenames(executionContext.getGraphQLSchema()), parentTypeOverall, typeRenameMappings);
         GraphQLOutputType underlyingSchemaParent = (GraphQLOutputType) underlyingSchema.getType(underlyingParentName);
         rootVars.put(UnderlyingTypeContext.class, newUnderlyingTypeContext()
                 .outputTypeUnderlying(underlyingSchemaParent)
                 .build());
+        rootVars.put(GraphQLOutputType.class, parentTypeOverall);
         TreeTransformer<Node> treeTransformer = new TreeTransformer<>(AstNodeAdapter.AST_NODE_ADAPTER);
         Node newNode = treeTransformer.transform(nodeWithoutTypeInfo, new TraverserVisitorStub<Node>() {
                     @Override
@@ -447,8 +512,8 @@ public class OverallQueryTransformer {
         return (T) newNode;
     }
 
-    private String getUnderlyingTypeNameAndRecordMapping(GraphQLCompositeType typeOverall, Map<String, String> typeRenameMappings) {
-        TypeMappingDefinition mappingDefinition = getTypeMappingDefinitionFor(typeOverall);
+    private String getUnderlyingTypeNameAndRecordMapping(OverallTypeRenames overallTypeRenames, GraphQLCompositeType typeOverall, Map<String, String> typeRenameMappings) {
+        TypeMappingDefinition mappingDefinition = overallTypeRenames.getTypeMappingDefinition(typeOverall.getName());
         if (mappingDefinition == null) {
             return typeOverall.getName();
         }
@@ -456,5 +521,10 @@ public class OverallQueryTransformer {
         return mappingDefinition.getUnderlyingName();
     }
 
+    private OverallTypeRenames getOverallTypeRenames(GraphQLSchema overallSchema) {
+        assertTrue(overallTypeRenames.getOverallSchema() == overallSchema, () -> "The type renames must be worked out from the schema of the execution");
+        return overallTypeRenames;
+    }
+
 
 }
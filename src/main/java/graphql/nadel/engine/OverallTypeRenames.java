@@ -0,0 +1,105 @@
+package graphql.nadel.engine;
+
+import graphql.Internal;
+import graphql.nadel.dsl.TypeMappingDefinition;
+import graphql.schema.GraphQLInterfaceType;
+import graphql.schema.GraphQLNamedType;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLUnionType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static graphql.nadel.util.Util.getTypeMappingDefinitionFor;
+
+/**
+ * The type renames of the overall schema, worked out once when Nadel is built so that transforming a query does not
+ * walk the type definitions for them.  Only the renames of types are held here: the field definitions, field
+ * transformations and argument values are still taken from the schemas while a query is transformed.
+ *
+ * For every overall type this holds its own rename, if any, and the renames that have to be recorded when a field of
+ * that type is transformed: its own plus those of the implementations of an interface or the members of a union, as the
+ * underlying result can come back as any of them.
+ */
+@Internal
+public class OverallTypeRenames {
+
+    private final GraphQLSchema overallSchema;
+    private final Map<String, TypeMappingDefinition> typeMappingByOverallName = new HashMap<>();
+    private final Map<String, List<TypeMappingDefinition>> typeMappingsToRecordByOverallName = new HashMap<>();
+
+    public OverallTypeRenames(GraphQLSchema overallSchema) {
+        this.overallSchema = overallSchema;
+        for (GraphQLNamedType type : overallSchema.getAllTypesAsList()) {
+            TypeMappingDefinition typeMappingDefinition = getTypeMappingDefinitionFor(type);
+            if (typeMappingDefinition != null) {
+                typeMappingByOverallName.put(type.getName(), typeMappingDefinition);
+            }
+        }
+        for (GraphQLNamedType type : overallSchema.getAllTypesAsList()) {
+            List<TypeMappingDefinition> typeMappingsToRecord = new ArrayList<>();
+            addTypeMapping(type, typeMappingsToRecord);
+            if (type instanceof GraphQLInterfaceType) {
+                for (GraphQLObjectType implementation : overallSchema.getImplementations((GraphQLInterfaceType) type)) {
+                    addTypeMapping(implementation, typeMappingsToRecord);
+                }
+            }
+            if (type instanceof GraphQLUnionType) {
+                for (GraphQLNamedType member : ((GraphQLUnionType) type).getTypes()) {
+                    addTypeMapping(member, typeMappingsToRecord);
+                }
+            }
+            if (!typeMappingsToRecord.isEmpty()) {
+                typeMappingsToRecordByOverallName.put(type.getName(), Collections.unmodifiableList(typeMappingsToRecord));
+            }
+        }
+    }
+
+    public GraphQLSchema getOverallSchema() {
+        return overallSchema;
+    }
+
+    private void addTypeMapping(GraphQLNamedType type, List<TypeMappingDefinition> typeMappings) {
+        TypeMappingDefinition typeMappingDefinition = typeMappingByOverallName.get(type.getName());
+        if (typeMappingDefinition != null) {
+            typeMappings.add(typeMappingDefinition);
+        }
+    }
+
+    /**
+     * @param overallTypeName the name of a type of the overall schema
+     *
+     * @return the rename of the type or null if it has the same name in the underlying schema
+     */
+    public TypeMappingDefinition getTypeMappingDefinition(String overallTypeName) {
+        return typeMappingByOverallName.get(overallTypeName);
+    }
+
+    /**
+     * @param overallTypeName the name of a type of the overall schema
+     *
+     * @return the renames of the type and of the types it can be resolved to
+     */
+    public List<TypeMappingDefinition> getTypeMappingDefinitionsToRecord(String overallTypeName) {
+        return typeMappingsToRecordByOverallName.getOrDefault(overallTypeName, Collections.emptyList());
+    }
+
+    /**
+     * Records the renames of a type and of the types it can be resolved to
+     *
+     * @param overallTypeName    the name of a type of the overall schema
+     * @param typeRenameMappings the type renames of a query, underlying name to overall name
+     *
+     * @return the rename of the type itself or null
+     */
+    public TypeMappingDefinition recordTypeRenames(String overallTypeName, Map<String, String> typeRenameMappings) {
+        for (TypeMappingDefinition typeMappingDefinition : getTypeMappingDefinitionsToRecord(overallTypeName)) {
+            typeRenameMappings.put(typeMappingDefinition.getUnderlyingName(), typeMappingDefinition.getOverallName());
+        }
+        return typeMappingByOverallName.get(overallTypeName);
+    }
+}
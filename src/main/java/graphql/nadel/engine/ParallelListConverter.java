@@ -0,0 +1,141 @@
+package graphql.nadel.engine;
+
+import graphql.Internal;
+import graphql.nadel.ParallelListConversion;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Converts the elements of a list in chunks, on the executor of the {@link ParallelListConversion} when the list is
+ * large enough, see there for how the work is shared.
+ */
+@Internal
+public class ParallelListConverter {
+
+    public static final ParallelListConverter SEQUENTIAL = new ParallelListConverter(null);
+
+    private static final ThreadLocal<Boolean> IN_CHUNK = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private final ParallelListConversion settings;
+
+    public ParallelListConverter(ParallelListConversion settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Converts a chunk of list elements, each chunk gets its own call so the conversion can keep state per chunk.
+     *
+     * @param <T> the type of the converted elements
+     */
+    public interface ChunkConversion<T> {
+        /**
+         * @param from the index of the first element of the chunk
+         * @param to   the index after the last element of the chunk
+         *
+         * @return the converted elements
+         */
+        List<T> convert(int from, int to);
+    }
+
+    /**
+     * @param size       the number of list elements
+     * @param conversion converts a chunk of elements
+     * @param <T>        the type of the converted elements
+     *
+     * @return the converted elements of all chunks in list order
+     */
+    public <T> List<T> convert(int size, ChunkConversion<T> conversion) {
+        if (!isParallel(size)) {
+            return conversion.convert(0, size);
+        }
+        int chunkSize = settings.getChunkSize();
+        int chunkCount = (size + chunkSize - 1) / chunkSize;
+
+        List<List<T>> chunks = new ArrayList<>(chunkCount);
+        for (int i = 0; i < chunkCount; i++) {
+            chunks.add(null);
+        }
+        AtomicInteger nextChunk = new AtomicInteger();
+        CountDownLatch chunksDone = new CountDownLatch(chunkCount);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Runnable worker = () -> {
+            boolean wasInChunk = IN_CHUNK.get();
+            IN_CHUNK.set(Boolean.TRUE);
+            try {
+                int chunk;
+                while ((chunk = nextChunk.getAndIncrement()) < chunkCount) {
+                    try {
+                        if (failure.get() == null) {
+                            int from = chunk * chunkSize;
+                            List<T> converted = conversion.convert(from, Math.min(from + chunkSize, size));
+                            // the latch makes the element visible to the calling thread
+                            chunks.set(chunk, converted);
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        chunksDone.countDown();
+                    }
+                }
+            } finally {
+                IN_CHUNK.set(wasInChunk);
+            }
+        };
+
+        // tasks that find no chunk left end right away, the calling thread takes whatever was not started
+        try {
+            for (int i = 1; i < chunkCount; i++) {
+                settings.getExecutor().execute(worker);
+            }
+        } catch (RejectedExecutionException ignored) {
+            // the calling thread converts the chunks nobody else takes
+        }
+        worker.run();
+        awaitUninterruptibly(chunksDone);
+
+        Throwable e = failure.get();
+        if (e instanceof RuntimeException) {
+            throw (RuntimeException) e;
+        } else if (e instanceof Error) {
+            throw (Error) e;
+        } else if (e != null) {
+            throw new RuntimeException(e);
+        }
+
+        List<T> result = new ArrayList<>(size);
+        for (List<T> chunk : chunks) {
+            result.addAll(chunk);
+        }
+        return result;
+    }
+
+    /**
+     * @param size the number of list elements
+     *
+     * @return true if a list of this size is converted on more than one thread
+     */
+    public boolean isParallel(int size) {
+        return settings != null && size >= settings.getMinListSize() && size > settings.getChunkSize() && !IN_CHUNK.get();
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -3,14 +3,16 @@ package graphql.nadel.engine;
 import graphql.Internal;
 import graphql.execution.ExecutionPath;
 
-import java.util.List;
-
+/**
+ * Maps the path of an underlying result node onto the overall result.
+ *
+ * {@link ExecutionPath} is a linked list of segments that share their parent, so the mapped path is built by
+ * replacing or appending the last segments only, instead of copying the whole path for every node.
+ */
 @Internal
 public class PathMapper {
 
     public ExecutionPath mapPath(ExecutionPath executionPath, String resultKey, UnapplyEnvironment environment) {
-        List<Object> fieldSegments = patchLastFieldName(executionPath, resultKey);
-
         if (environment.isHydrationTransformation) {
             //
             // Normally the parent path is all ok and hence there is nothing to add
@@ -18,22 +20,29 @@ public class PathMapper {
             // so for example
             //
             // /issue/reporter might lead to /userById and hence we need to collapse the top level hydrated field INTO the target field
-            List<Object> tmp = environment.parentNode.getExecutionPath().toList();
-            tmp.add(fieldSegments.get(fieldSegments.size() - 1));
-            fieldSegments = tmp;
+            ExecutionPath parentPath = environment.parentNode.getExecutionPath();
+            if (executionPath.isListSegment()) {
+                return parentPath.segment(executionPath.getSegmentIndex());
+            }
+            return parentPath.segment(resultKey);
         }
-        return ExecutionPath.fromList(fieldSegments);
+        return patchLastFieldName(executionPath, resultKey);
     }
 
-    private List<Object> patchLastFieldName(ExecutionPath executionPath, String resultKey) {
-        List<Object> fieldSegments = executionPath.toList();
-        for (int i = fieldSegments.size() - 1; i >= 0; i--) {
-            Object segment = fieldSegments.get(i);
-            if (segment instanceof String) {
-                fieldSegments.set(i, resultKey);
-                break;
+    private ExecutionPath patchLastFieldName(ExecutionPath executionPath, String resultKey) {
+        if (executionPath.isRootPath()) {
+            return executionPath;
+        }
+        if (executionPath.isNamedSegment()) {
+            if (executionPath.getSegmentName().equals(resultKey)) {
+                return executionPath;
             }
+            return executionPath.replaceSegment(resultKey);
+        }
+        ExecutionPath patchedParent = patchLastFieldName(executionPath.getParent(), resultKey);
+        if (patchedParent == executionPath.getParent()) {
+            return executionPath;
         }
-        return fieldSegments;
+        return patchedParent.segment(executionPath.getSegmentIndex());
     }
 }
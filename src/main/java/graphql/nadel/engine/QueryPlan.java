@@ -0,0 +1,112 @@
+package graphql.nadel.engine;
+
+import graphql.Internal;
+import graphql.nadel.Service;
+import graphql.nadel.normalized.NormalizedQueryFromAst;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * A query plan holds the parts of an execution that only depend on the overall document (and the variables
+ * used in skip / include conditions), namely the normalized overall query and the per service query transformations.
+ *
+ * A plan that came out of {@link QueryPlanCache} is shared between requests, otherwise it is only used for one request
+ * and nothing is recorded in it.
+ */
+@Internal
+public class QueryPlan {
+
+    private final NormalizedQueryFromAst normalizedOverallQuery;
+    private final String artificialFieldsUUID;
+    private final Map<String, Object> conditionalVariableValues;
+    private final boolean shared;
+    private final Map<List<Object>, CachedTransformation> transformations = new ConcurrentHashMap<>();
+
+    QueryPlan(NormalizedQueryFromAst normalizedOverallQuery,
+              String artificialFieldsUUID,
+              Map<String, Object> conditionalVariableValues,
+              boolean shared) {
+        this.normalizedOverallQuery = normalizedOverallQuery;
+        this.artificialFieldsUUID = artificialFieldsUUID;
+        this.conditionalVariableValues = conditionalVariableValues;
+        this.shared = shared;
+    }
+
+    public NormalizedQueryFromAst getNormalizedOverallQuery() {
+        return normalizedOverallQuery;
+    }
+
+    public String getArtificialFieldsUUID() {
+        return artificialFieldsUUID;
+    }
+
+    public boolean isShared() {
+        return shared;
+    }
+
+    boolean matchesConditionalVariables(Map<String, Object> variables) {
+        for (Map.Entry<String, Object> entry : conditionalVariableValues.entrySet()) {
+            if (!Objects.equals(entry.getValue(), variables.get(entry.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the transformation of the top level fields sent to the given service in one call, transforming it if this plan has not
+     * seen it before for the same hooks key.  The variable values of a reused transformation are re-bound to the variables of the current request.
+     *
+     * @param service          the service the top level field belongs to
+     * @param resultKeys       the result keys of the top level fields, comma separated
+     * @param hooksKey         the key from {@link graphql.nadel.hooks.ServiceExecutionHooks#queryPlanCacheKey(Object, Object)}
+     * @param requestVariables the variables of the current request
+     * @param transform        the actual transformation
+     *
+     * @return a query transformation result bound to the current request variables
+     */
+    public QueryTransformationResult getTransformation(Service service,
+                                                       String resultKeys,
+                                                       Object hooksKey,
+                                                       Map<String, Object> requestVariables,
+                                                       Supplier<QueryTransformationResult> transform) {
+        if (!shared) {
+            return transform.get();
+        }
+        List<Object> key = Arrays.asList(service.getName(), resultKeys, hooksKey);
+        CachedTransformation cached = transformations.get(key);
+        if (cached != null) {
+            return cached.bindTo(requestVariables);
+        }
+        QueryTransformationResult result = transform.get();
+        transformations.putIfAbsent(key, new CachedTransformation(result, requestVariables));
+        return result;
+    }
+
+    private static class CachedTransformation {
+        private final QueryTransformationResult result;
+        // the values the hooks put in during the transformation, they are not request variables
+        private final Map<String, Object> hookVariableValues = new LinkedHashMap<>();
+
+        CachedTransformation(QueryTransformationResult result, Map<String, Object> requestVariables) {
+            this.result = result;
+            result.getVariableValues().forEach((name, value) -> {
+                if (!requestVariables.containsKey(name) || requestVariables.get(name) != value) {
+                    hookVariableValues.put(name, value);
+                }
+            });
+        }
+
+        QueryTransformationResult bindTo(Map<String, Object> requestVariables) {
+            Map<String, Object> variableValues = new LinkedHashMap<>(requestVariables);
+            variableValues.putAll(hookVariableValues);
+            return result.withVariableValues(variableValues);
+        }
+    }
+}
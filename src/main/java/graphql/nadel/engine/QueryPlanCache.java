@@ -0,0 +1,135 @@
+package graphql.nadel.engine;
+
+import graphql.Internal;
+import graphql.language.Argument;
+import graphql.language.Directive;
+import graphql.language.Document;
+import graphql.language.Node;
+import graphql.language.NodeTraverser;
+import graphql.language.NodeVisitorStub;
+import graphql.language.VariableReference;
+import graphql.nadel.normalized.NormalizedQueryFromAst;
+import graphql.util.TraversalControl;
+import graphql.util.TraverserContext;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static java.util.Collections.emptyMap;
+
+/**
+ * A bounded LRU cache of {@link QueryPlan}s.
+ *
+ * Plans are keyed by the identity of the overall {@link Document} plus the operation name, so a plan is only
+ * reused when the very same document object is executed again, which is what a caching
+ * {@link graphql.execution.preparsed.PreparsedDocumentProvider} gives you.  The values of variables used
+ * in skip / include conditions change the shape of the query, so a plan is replaced if they differ.
+ */
+@Internal
+public class QueryPlanCache {
+
+    public static final QueryPlanCache NO_CACHE = new QueryPlanCache(0);
+
+    private final int maxSize;
+    private final Map<PlanKey, QueryPlan> plans;
+
+    public QueryPlanCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.plans = new LinkedHashMap<PlanKey, QueryPlan>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<PlanKey, QueryPlan> eldest) {
+                return size() > QueryPlanCache.this.maxSize;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    public QueryPlan getQueryPlan(Document document,
+                                  String operationName,
+                                  Map<String, Object> variables,
+                                  String artificialFieldsUUID,
+                                  Supplier<NormalizedQueryFromAst> normalizedQuery) {
+        String uuid = artificialFieldsUUID != null ? artificialFieldsUUID : newArtificialFieldsUUID();
+        if (!isEnabled()) {
+            return new QueryPlan(normalizedQuery.get(), uuid, emptyMap(), false);
+        }
+        PlanKey key = new PlanKey(document, operationName, artificialFieldsUUID);
+        QueryPlan queryPlan;
+        synchronized (plans) {
+            queryPlan = plans.get(key);
+        }
+        if (queryPlan != null && queryPlan.matchesConditionalVariables(variables)) {
+            return queryPlan;
+        }
+        queryPlan = new QueryPlan(normalizedQuery.get(), uuid, conditionalVariableValues(document, variables), true);
+        synchronized (plans) {
+            plans.put(key, queryPlan);
+        }
+        return queryPlan;
+    }
+
+    public int size() {
+        synchronized (plans) {
+            return plans.size();
+        }
+    }
+
+    private static String newArtificialFieldsUUID() {
+        return UUID.randomUUID().toString().replaceAll("-", "_");
+    }
+
+    private static Map<String, Object> conditionalVariableValues(Document document, Map<String, Object> variables) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        new NodeTraverser().depthFirst(new NodeVisitorStub() {
+            @Override
+            public TraversalControl visitDirective(Directive directive, TraverserContext<Node> context) {
+                if (directive.getName().equals("skip") || directive.getName().equals("include")) {
+                    Argument argument = directive.getArgument("if");
+                    if (argument != null && argument.getValue() instanceof VariableReference) {
+                        String name = ((VariableReference) argument.getValue()).getName();
+                        result.put(name, variables.get(name));
+                    }
+                }
+                return TraversalControl.ABORT;
+            }
+        }, document);
+        return result;
+    }
+
+    private static class PlanKey {
+        private final Document document;
+        private final String operationName;
+        private final String artificialFieldsUUID;
+
+        PlanKey(Document document, String operationName, String artificialFieldsUUID) {
+            this.document = document;
+            this.operationName = operationName;
+            this.artificialFieldsUUID = artificialFieldsUUID;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            PlanKey planKey = (PlanKey) o;
+            return document == planKey.document &&
+                    Objects.equals(operationName, planKey.operationName) &&
+                    Objects.equals(artificialFieldsUUID, planKey.artificialFieldsUUID);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(document), operationName, artificialFieldsUUID);
+        }
+    }
+}
@@ -3,13 +3,26 @@ package graphql.nadel.engine;
 import graphql.Internal;
 import graphql.execution.MergedField;
 import graphql.language.Document;
+import graphql.language.Field;
 import graphql.language.FragmentDefinition;
+import graphql.language.FragmentSpread;
+import graphql.language.Node;
 import graphql.language.OperationDefinition;
+import graphql.language.VariableReference;
+import graphql.nadel.dsl.NodeId;
 import graphql.nadel.engine.transformation.FieldTransformation;
 import graphql.nadel.engine.transformation.TransformationMetadata;
+import graphql.nadel.normalized.NormalizedQueryFromAst;
 
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+
+import static graphql.nadel.util.FpKit.filter;
+import static graphql.nadel.util.FpKit.getByName;
+import static graphql.nadel.util.FpKit.map;
 
 @Internal
 public class QueryTransformationResult {
@@ -34,6 +47,9 @@ public class QueryTransformationResult {
 
     private final TransformationMetadata removedFieldMap;
 
+    // the transformed document normalized against the underlying schema, used when the raw result is converted into a tree
+    private final NormalizedQueryFromAst normalizedUnderlyingQuery;
+
     public QueryTransformationResult(Document document,
                                      OperationDefinition operationDefinition,
                                      List<MergedField> transformedMergedFields,
@@ -42,7 +58,8 @@ public class QueryTransformationResult {
                                      Map<String, FieldTransformation> fieldIdToTransformation,
                                      Map<String, FragmentDefinition> transformedFragments,
                                      Map<String, Object> variableValues,
-                                     TransformationMetadata removedFieldMap) {
+                                     TransformationMetadata removedFieldMap,
+                                     NormalizedQueryFromAst normalizedUnderlyingQuery) {
         this.document = document;
         this.operationDefinition = operationDefinition;
         this.transformedMergedFields = transformedMergedFields;
@@ -52,6 +69,7 @@ public class QueryTransformationResult {
         this.typeRenameMappings = typeRenameMappings;
         this.variableValues = variableValues;
         this.removedFieldMap = removedFieldMap;
+        this.normalizedUnderlyingQuery = normalizedUnderlyingQuery;
     }
 
     public Document getDocument() {
@@ -89,5 +107,82 @@ public class QueryTransformationResult {
     public TransformationMetadata getRemovedFieldMap() {
         return removedFieldMap;
     }
-}
 
+    public NormalizedQueryFromAst getNormalizedUnderlyingQuery() {
+        return normalizedUnderlyingQuery;
+    }
+
+    public QueryTransformationResult withVariableValues(Map<String, Object> variableValues) {
+        return new QueryTransformationResult(
+                document,
+                operationDefinition,
+                transformedMergedFields,
+                typeRenameMappings,
+                referencedVariables,
+                fieldIdToTransformation,
+                transformedFragments,
+                variableValues,
+                removedFieldMap,
+                normalizedUnderlyingQuery);
+    }
+
+    /**
+     * @param operationDefinition the operation with different argument values or without some of the top level fields,
+     *                            the fields it still has and their ids must stay the same
+     *
+     * @return the same transformation result for the new operation, without the fragments and variables it no longer uses
+     */
+    public QueryTransformationResult withOperationDefinition(OperationDefinition operationDefinition) {
+        Set<String> fragmentNames = new LinkedHashSet<>();
+        Set<String> variableNames = new LinkedHashSet<>();
+        collectReferences(operationDefinition.getSelectionSet(), fragmentNames, variableNames);
+
+        OperationDefinition newOperationDefinition = operationDefinition.transform(builder -> builder
+                .variableDefinitions(filter(operationDefinition.getVariableDefinitions(), variableDefinition -> variableNames.contains(variableDefinition.getName()))));
+        Map<String, FragmentDefinition> newFragments = new LinkedHashMap<>();
+        transformedFragments.forEach((name, fragmentDefinition) -> {
+            if (fragmentNames.contains(name)) {
+                newFragments.put(name, fragmentDefinition);
+            }
+        });
+        Document.Builder newDocument = Document.newDocument().definition(newOperationDefinition);
+        newFragments.values().forEach(newDocument::definition);
+
+        Map<String, Field> topLevelFieldsById = getByName(operationDefinition.getSelectionSet().getSelectionsOfType(Field.class), NodeId::getId);
+        List<MergedField> newMergedFields = map(transformedMergedFields, mergedField -> MergedField.newMergedField(
+                map(mergedField.getFields(), field -> topLevelFieldsById.getOrDefault(NodeId.getId(field), field))).build());
+        return new QueryTransformationResult(
+                newDocument.build(),
+                newOperationDefinition,
+                newMergedFields,
+                typeRenameMappings,
+                filter(referencedVariables, variableNames::contains),
+                fieldIdToTransformation,
+                newFragments,
+                variableValues,
+                removedFieldMap,
+                normalizedUnderlyingQuery);
+    }
+
+    /**
+     * Adds the fragments and variables a node uses, including the ones used by those fragments
+     *
+     * @param node          the node
+     * @param fragmentNames the names of the fragments
+     * @param variableNames the names of the variables
+     */
+    public void collectReferences(Node<?> node, Set<String> fragmentNames, Set<String> variableNames) {
+        if (node instanceof FragmentSpread) {
+            String fragmentName = ((FragmentSpread) node).getName();
+            FragmentDefinition fragmentDefinition = transformedFragments.get(fragmentName);
+            if (fragmentNames.add(fragmentName) && fragmentDefinition != null) {
+                collectReferences(fragmentDefinition, fragmentNames, variableNames);
+            }
+        } else if (node instanceof VariableReference) {
+            variableNames.add(((VariableReference) node).getName());
+        }
+        for (Node<?> child : node.getChildren()) {
+            collectReferences(child, fragmentNames, variableNames);
+        }
+    }
+}
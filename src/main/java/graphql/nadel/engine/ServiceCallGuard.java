@@ -0,0 +1,204 @@
+package graphql.nadel.engine;
+
+import graphql.Internal;
+import graphql.nadel.ServiceCallPolicy;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static java.lang.String.format;
+
+/**
+ * Puts timeouts on the calls to the underlying services and hedges slow queries, see {@link ServiceCallPolicy}.
+ */
+@Internal
+public class ServiceCallGuard {
+
+    public static final ServiceCallGuard NONE = new ServiceCallGuard(null);
+
+    private final ServiceCallPolicy policy;
+    private final Map<String, LatencyWindow> latencyWindows = new ConcurrentHashMap<>();
+
+    public ServiceCallGuard(ServiceCallPolicy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * @param serviceName       the service that is called
+     * @param topLevelField     the top level field that is called
+     * @param hydrationCall     whether this is a hydration call
+     * @param requestStartNanos when the request started
+     *
+     * @return the time the call gets, zero or less if the request deadline has passed, or null if there is no limit
+     */
+    public Duration getTimeout(String serviceName, String topLevelField, boolean hydrationCall, long requestStartNanos) {
+        if (policy == null) {
+            return null;
+        }
+        Duration timeout = hydrationCall ? policy.getHydrationTimeouts().get(key(serviceName, topLevelField)) : null;
+        if (timeout == null) {
+            timeout = policy.getServiceTimeouts().get(serviceName);
+        }
+        if (timeout == null) {
+            timeout = policy.getDefaultTimeout();
+        }
+        if (policy.getRequestDeadline() != null) {
+            Duration remaining = policy.getRequestDeadline().minusNanos(System.nanoTime() - requestStartNanos);
+            if (timeout == null || remaining.compareTo(timeout) < 0) {
+                timeout = remaining;
+            }
+        }
+        return timeout;
+    }
+
+    /**
+     * @param serviceName   the service that is called
+     * @param topLevelField the top level field that is called
+     * @param hedge         whether the call may be sent a second time
+     * @param timeout       the time the call gets or null
+     * @param call          makes the call with the time it has left, which is less than the timeout for a hedged
+     *                      attempt, or null if there is no limit
+     * @param discard       gets the results that come too late to be used
+     * @param <T>           the type of the result
+     *
+     * @return the result of the first call that answered, or a {@link TimeoutException} if none did in time
+     */
+    public <T> CompletableFuture<T> call(String serviceName,
+                                         String topLevelField,
+                                         boolean hedge,
+                                         Duration timeout,
+                                         Function<Duration, CompletableFuture<T>> call,
+                                         Consumer<T> discard) {
+        if (policy == null) {
+            return call.apply(timeout);
+        }
+        if (timeout != null && (timeout.isNegative() || timeout.isZero())) {
+            CompletableFuture<T> timedOut = new CompletableFuture<>();
+            timedOut.completeExceptionally(new TimeoutException(format("The request deadline passed before service '%s' was called", serviceName)));
+            return timedOut;
+        }
+        LatencyWindow latencyWindow = latencyWindows.computeIfAbsent(key(serviceName, topLevelField), key -> new LatencyWindow(policy.getHedgeWindowSize()));
+        long startNanos = System.nanoTime();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger pendingAttempts = new AtomicInteger(1);
+        attempt(call, timeout, result, pendingAttempts, latencyWindow, discard);
+
+        ScheduledExecutorService scheduler = getScheduler();
+        if (timeout != null) {
+            ScheduledFuture<?> timeoutTask = scheduler.schedule(
+                    () -> result.completeExceptionally(new TimeoutException(format("The call to service '%s' timed out after %d ms", serviceName, timeout.toMillis()))),
+                    timeout.toNanos(), TimeUnit.NANOSECONDS);
+            result.whenComplete((value, throwable) -> timeoutTask.cancel(false));
+        }
+        long hedgeDelayNanos = hedge && policy.getHedgePercentile() > 0 ? latencyWindow.percentile(policy.getHedgePercentile(), policy.getHedgeMinSamples()) : -1;
+        if (hedgeDelayNanos >= 0 && (timeout == null || hedgeDelayNanos < timeout.toNanos()) && !result.isDone()) {
+            ScheduledFuture<?> hedgeTask = scheduler.schedule(() -> {
+                // counted before the check, so a failure of the first attempt can't fail the result once this has
+                // decided to send the second one
+                pendingAttempts.incrementAndGet();
+                if (!result.isDone()) {
+                    Duration remaining = timeout == null ? null : timeout.minusNanos(System.nanoTime() - startNanos);
+                    attempt(call, remaining, result, pendingAttempts, latencyWindow, discard);
+                }
+            }, hedgeDelayNanos, TimeUnit.NANOSECONDS);
+            result.whenComplete((value, throwable) -> hedgeTask.cancel(false));
+        }
+        return result;
+    }
+
+    /*
+     * The first answer completes the result, a failure only does when no other attempt is still running
+     */
+    private <T> void attempt(Function<Duration, CompletableFuture<T>> call,
+                             Duration timeout,
+                             CompletableFuture<T> result,
+                             AtomicInteger pendingAttempts,
+                             LatencyWindow latencyWindow,
+                             Consumer<T> discard) {
+        long startNanos = System.nanoTime();
+        CompletableFuture<T> attempt;
+        try {
+            attempt = call.apply(timeout);
+        } catch (RuntimeException e) {
+            attempt = new CompletableFuture<>();
+            attempt.completeExceptionally(e);
+        }
+        attempt.whenComplete((value, throwable) -> {
+            if (throwable == null) {
+                latencyWindow.record(System.nanoTime() - startNanos);
+                if (!result.complete(value)) {
+                    discard.accept(value);
+                }
+            } else if (pendingAttempts.decrementAndGet() == 0) {
+                result.completeExceptionally(throwable);
+            }
+        });
+    }
+
+    private ScheduledExecutorService getScheduler() {
+        ScheduledExecutorService scheduler = policy.getScheduler();
+        return scheduler != null ? scheduler : SharedScheduler.INSTANCE;
+    }
+
+    private static String key(String serviceName, String topLevelField) {
+        // names can't contain a '.'
+        return serviceName + "." + topLevelField;
+    }
+
+    private static class SharedScheduler {
+        private static final ScheduledExecutorService INSTANCE = create();
+
+        private static ScheduledExecutorService create() {
+            ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "nadel-service-call-scheduler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.setRemoveOnCancelPolicy(true);
+            return scheduler;
+        }
+    }
+
+    /*
+     * The latest latencies of a service and top level field
+     */
+    private static class LatencyWindow {
+        private final long[] samples;
+        private int next;
+        private int sampleCount;
+
+        LatencyWindow(int windowSize) {
+            this.samples = new long[windowSize];
+        }
+
+        synchronized void record(long latencyNanos) {
+            samples[next] = latencyNanos;
+            next = (next + 1) % samples.length;
+            sampleCount = Math.min(sampleCount + 1, samples.length);
+        }
+
+        /*
+         * Returns -1 while there are fewer than minSamples latencies
+         */
+        synchronized long percentile(double percentile, int minSamples) {
+            if (sampleCount < minSamples) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(samples, sampleCount);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(index, 0)];
+        }
+    }
+}
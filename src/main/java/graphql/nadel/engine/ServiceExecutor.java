@@ -9,15 +9,17 @@ import graphql.execution.ExecutionContext;
 import graphql.execution.ExecutionStepInfo;
 import graphql.execution.MergedField;
 import graphql.language.FragmentDefinition;
+import graphql.language.OperationDefinition;
 import graphql.nadel.BenchmarkContext;
 import graphql.nadel.Operation;
 import graphql.nadel.Service;
 import graphql.nadel.ServiceExecution;
 import graphql.nadel.ServiceExecutionParameters;
 import graphql.nadel.ServiceExecutionResult;
+import graphql.nadel.StreamingServiceExecution;
+import graphql.nadel.StreamingServiceExecutionResult;
 import graphql.nadel.instrumentation.NadelInstrumentation;
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationServiceExecutionParameters;
-import graphql.nadel.normalized.NormalizedQueryFactory;
 import graphql.nadel.normalized.NormalizedQueryFromAst;
 import graphql.nadel.result.ElapsedTime;
 import graphql.nadel.result.RootExecutionResultNode;
@@ -27,12 +29,17 @@ import graphql.schema.GraphQLSchema;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.BiFunction;
+import java.util.function.UnaryOperator;
 
 import static graphql.nadel.ServiceExecutionParameters.newServiceExecutionParameters;
 import static graphql.nadel.engine.StrategyUtil.createRootExecutionStepInfo;
@@ -46,53 +53,166 @@ public class ServiceExecutor {
     private final Logger log = LoggerFactory.getLogger(ServiceExecutor.class);
     private final Logger logNotSafe = LogKit.getNotPrivacySafeLogger(ServiceExecutor.class);
 
-    private final ServiceResultToResultNodes resultToResultNode = new ServiceResultToResultNodes();
+    private final ServiceResultToResultNodes resultToResultNode;
 
     private final NadelInstrumentation instrumentation;
 
+    private final StageExecutor resultConversionStage;
+
+    private final ServiceCallGuard serviceCallGuard;
+
     public ServiceExecutor(NadelInstrumentation instrumentation) {
+        this(instrumentation, ParallelListConverter.SEQUENTIAL, StageExecutor.SAME_THREAD, ServiceCallGuard.NONE);
+    }
+
+    /**
+     * @param instrumentation       the instrumentation
+     * @param parallelListConverter converts the lists of service results
+     * @param resultConversionStage runs the conversion of service results into result nodes and everything after it
+     * @param serviceCallGuard      puts timeouts on the service calls and hedges them
+     */
+    public ServiceExecutor(NadelInstrumentation instrumentation,
+                           ParallelListConverter parallelListConverter,
+                           StageExecutor resultConversionStage,
+                           ServiceCallGuard serviceCallGuard) {
         this.instrumentation = instrumentation;
+        this.resultToResultNode = new ServiceResultToResultNodes(parallelListConverter);
+        this.resultConversionStage = resultConversionStage;
+        this.serviceCallGuard = serviceCallGuard;
     }
 
 
+    /**
+     * @param executionContext       the overall execution context
+     * @param queryTransformerResult the query to send
+     * @param service                the service to call
+     * @param operation              the operation of the query
+     * @param serviceContext         the service context
+     * @param topLevelField          the top level field the timeout of a hydration call and the latencies for hedging are
+     *                               kept for, the underlying field names joined by ',' for a call of several top level fields
+     * @param isHydrationCall        whether this is a hydration call
+     *
+     * @return the result nodes of the service result
+     */
     public CompletableFuture<RootExecutionResultNode> execute(ExecutionContext executionContext,
                                                               QueryTransformationResult queryTransformerResult,
                                                               Service service,
                                                               Operation operation,
                                                               Object serviceContext,
+                                                              String topLevelField,
                                                               boolean isHydrationCall) {
+        return execute(executionContext, queryTransformerResult, service, operation, serviceContext, topLevelField, isHydrationCall, null);
+    }
+
+    /**
+     * Calls the service like {@link #execute(ExecutionContext, QueryTransformationResult, Service, Operation, Object, String, boolean)},
+     * but the result of the service goes through the given function before it is turned into result nodes.
+     *
+     * @param executionContext       the overall execution context
+     * @param queryTransformerResult the query to send
+     * @param service                the service to call
+     * @param operation              the operation of the query
+     * @param serviceContext         the service context
+     * @param topLevelField          the top level field the timeout of a hydration call and the latencies for hedging are
+     *                               kept for, the underlying field names joined by ',' for a call of several top level fields
+     * @param isHydrationCall        whether this is a hydration call
+     * @param resultMapper           looks at or changes the service result, a streamed result is read into maps first
+     *
+     * @return the result nodes of the (changed) service result
+     */
+    public CompletableFuture<RootExecutionResultNode> execute(ExecutionContext executionContext,
+                                                              QueryTransformationResult queryTransformerResult,
+                                                              Service service,
+                                                              Operation operation,
+                                                              Object serviceContext,
+                                                              String topLevelField,
+                                                              boolean isHydrationCall,
+                                                              UnaryOperator<ServiceExecutionResult> resultMapper) {
 
         List<MergedField> transformedMergedFields = queryTransformerResult.getTransformedMergedFields();
 
         ServiceExecution serviceExecution = service.getServiceExecution();
         GraphQLSchema underlyingSchema = service.getUnderlyingSchema();
 
-        ServiceExecutionParameters serviceExecutionParameters = buildServiceExecutionParameters(executionContext, queryTransformerResult, serviceContext, isHydrationCall);
+        NadelContext nadelContext = (NadelContext) executionContext.getContext();
+        Duration timeout = serviceCallGuard.getTimeout(service.getName(), topLevelField, isHydrationCall, nadelContext.getRequestStartNanos());
+
+        ServiceExecutionParameters serviceExecutionParameters = buildServiceExecutionParameters(executionContext, queryTransformerResult, serviceContext, isHydrationCall, timeout);
         ExecutionContext executionContextForService = buildServiceExecutionContext(executionContext, underlyingSchema, serviceExecutionParameters);
 
         ExecutionStepInfo underlyingRootStepInfo = createRootExecutionStepInfo(service.getUnderlyingSchema(), operation);
 
-        NormalizedQueryFactory normalizedQueryFactory = new NormalizedQueryFactory();
-        NormalizedQueryFromAst normalizedQuery = normalizedQueryFactory.createNormalizedQuery(underlyingSchema, serviceExecutionParameters.getQuery(),
-                null,
-                serviceExecutionParameters.getVariables());
 
-        CompletableFuture<Data> result = executeImpl(service, serviceExecution, serviceExecutionParameters, underlyingRootStepInfo, executionContext);
-        return result
-                .thenApply(data -> serviceExecutionResultToResultNode(executionContextForService, underlyingRootStepInfo, transformedMergedFields, data, normalizedQuery));
+        CompletableFuture<Data> result = executeImpl(service, serviceExecution, serviceExecutionParameters, underlyingRootStepInfo, executionContext, topLevelField);
+        return resultConversionStage
+                .thenApply(result, data -> serviceExecutionResultToResultNode(service, executionContextForService, underlyingRootStepInfo, transformedMergedFields, data, queryTransformerResult, resultMapper));
+    }
+
+    /**
+     * Turns a result into result nodes without calling the service, for results that were put together from a cache.
+     *
+     * @param executionContext       the overall execution context
+     * @param queryTransformerResult the query the result is for
+     * @param service                the service the result is from
+     * @param operation              the operation of the query
+     * @param serviceContext         the service context
+     * @param isHydrationCall        whether this is a hydration call
+     * @param serviceExecutionResult the result
+     *
+     * @return the result nodes
+     */
+    public RootExecutionResultNode resultToResultNode(ExecutionContext executionContext,
+                                                      QueryTransformationResult queryTransformerResult,
+                                                      Service service,
+                                                      Operation operation,
+                                                      Object serviceContext,
+                                                      boolean isHydrationCall,
+                                                      ServiceExecutionResult serviceExecutionResult) {
+        ServiceExecutionParameters serviceExecutionParameters = buildServiceExecutionParameters(executionContext, queryTransformerResult, serviceContext, isHydrationCall, null);
+        ExecutionContext executionContextForService = buildServiceExecutionContext(executionContext, service.getUnderlyingSchema(), serviceExecutionParameters);
+        ExecutionStepInfo underlyingRootStepInfo = createRootExecutionStepInfo(service.getUnderlyingSchema(), operation);
+        ElapsedTime elapsedTime = ElapsedTime.newElapsedTime().start().stop().build();
+        Data data = Data.newData().set(ElapsedTime.class, elapsedTime).set(ServiceExecutionResult.class, serviceExecutionResult).build();
+        return serviceExecutionResultToResultNode(service, executionContextForService, underlyingRootStepInfo,
+                queryTransformerResult.getTransformedMergedFields(), data, queryTransformerResult, null);
     }
 
 
-    private CompletableFuture<Data> executeImpl(Service service, ServiceExecution serviceExecution, ServiceExecutionParameters serviceExecutionParameters, ExecutionStepInfo executionStepInfo, ExecutionContext executionContext) {
+    private CompletableFuture<Data> executeImpl(Service service,
+                                                ServiceExecution serviceExecution,
+                                                ServiceExecutionParameters serviceExecutionParameters,
+                                                ExecutionStepInfo executionStepInfo,
+                                                ExecutionContext executionContext,
+                                                String topLevelField) {
 
         NadelInstrumentationServiceExecutionParameters instrumentationParams = new NadelInstrumentationServiceExecutionParameters(service, executionContext, executionContext.getInstrumentationState());
-        serviceExecution = instrumentation.instrumentServiceExecution(serviceExecution, instrumentationParams);
+        ServiceExecution instrumentedServiceExecution = instrumentation.instrumentServiceExecution(serviceExecution, instrumentationParams);
+        // mutations are never sent twice
+        boolean hedge = serviceExecutionParameters.getOperation() == OperationDefinition.Operation.QUERY;
+        Duration timeout = serviceExecutionParameters.getTimeout();
 
         try {
             log.debug("service {} invocation started - executionId '{}'", service.getName(), executionContext.getExecutionId());
             ElapsedTime.Builder elapsedTimeBuilder = ElapsedTime.newElapsedTime().start();
-            CompletableFuture<ServiceExecutionResult> executeReturnValue = serviceExecution.execute(serviceExecutionParameters);
-            Assert.assertNotNull(executeReturnValue, () -> "service execution returned null");
+            if (instrumentedServiceExecution instanceof StreamingServiceExecution) {
+                CompletableFuture<StreamingServiceExecutionResult> executeReturnValue = serviceCallGuard.call(service.getName(), topLevelField, hedge, timeout, attemptTimeout -> {
+                    CompletableFuture<StreamingServiceExecutionResult> call = ((StreamingServiceExecution) instrumentedServiceExecution).executeStreaming(withTimeout(serviceExecutionParameters, attemptTimeout));
+                    return Assert.assertNotNull(call, () -> "service execution returned null");
+                }, this::closeUnusedResult);
+
+                CompletableFuture<Data> result = executeReturnValue
+                        .thenApply((streamingServiceExecutionResult) -> {
+                            ElapsedTime elapsedTime = elapsedTimeBuilder.stop().build();
+                            return Data.newData().set(ElapsedTime.class, elapsedTime).set(StreamingServiceExecutionResult.class, streamingServiceExecutionResult).build();
+                        });
+                log.debug("service {} invocation finished  - executionId '{}' ", service.getName(), executionContext.getExecutionId());
+                return result.handle(handleServiceException(service, executionContext, executionStepInfo));
+            }
+            CompletableFuture<ServiceExecutionResult> executeReturnValue = serviceCallGuard.call(service.getName(), topLevelField, hedge, timeout, attemptTimeout -> {
+                CompletableFuture<ServiceExecutionResult> call = instrumentedServiceExecution.execute(withTimeout(serviceExecutionParameters, attemptTimeout));
+                return Assert.assertNotNull(call, () -> "service execution returned null");
+            }, unusedResult -> {
+            });
 
             CompletableFuture<Data> result = executeReturnValue
                     .thenApply((serviceExecutionResult) -> {
@@ -109,6 +229,21 @@ public class ServiceExecutor {
         }
     }
 
+    private ServiceExecutionParameters withTimeout(ServiceExecutionParameters serviceExecutionParameters, Duration timeout) {
+        if (Objects.equals(serviceExecutionParameters.getTimeout(), timeout)) {
+            return serviceExecutionParameters;
+        }
+        return serviceExecutionParameters.transform(builder -> builder.timeout(timeout));
+    }
+
+    private void closeUnusedResult(StreamingServiceExecutionResult unusedResult) {
+        try {
+            unusedResult.getParser().close();
+        } catch (IOException e) {
+            log.debug("closing an unused streamed service result failed", e);
+        }
+    }
+
     private BiFunction<Data, Throwable, Data> handleServiceException(Service service, ExecutionContext executionContext, ExecutionStepInfo executionStepInfo) {
         return (data, throwable) -> {
             if (throwable != null) {
@@ -144,7 +279,11 @@ public class ServiceExecutor {
     }
 
 
-    private ServiceExecutionParameters buildServiceExecutionParameters(ExecutionContext executionContext, QueryTransformationResult queryTransformerResult, Object serviceContext, boolean isHydrationCall) {
+    private ServiceExecutionParameters buildServiceExecutionParameters(ExecutionContext executionContext,
+                                                                       QueryTransformationResult queryTransformerResult,
+                                                                       Object serviceContext,
+                                                                       boolean isHydrationCall,
+                                                                       Duration timeout) {
 
         // only pass down variables that are referenced in the transformed query
         Map<String, Object> variables = buildReferencedVariables(executionContext, queryTransformerResult);
@@ -165,6 +304,7 @@ public class ServiceExecutor {
                 .cacheControl(executionContext.getCacheControl())
                 .serviceContext(serviceContext)
                 .hydrationCall(isHydrationCall)
+                .timeout(timeout)
                 .build();
     }
 
@@ -188,14 +328,40 @@ public class ServiceExecutor {
     }
 
     private RootExecutionResultNode serviceExecutionResultToResultNode(
+            Service service,
             ExecutionContext executionContextForService,
             ExecutionStepInfo underlyingRootStepInfo,
             List<MergedField> transformedMergedFields,
-            Data data, NormalizedQueryFromAst normalizedQuery) {
+            Data data,
+            QueryTransformationResult queryTransformerResult,
+            UnaryOperator<ServiceExecutionResult> resultMapper) {
+        NormalizedQueryFromAst normalizedQuery = queryTransformerResult.getNormalizedUnderlyingQuery();
         ServiceExecutionResult serviceExecutionResult = data.get(ServiceExecutionResult.class);
         ElapsedTime elapsedTime = data.get(ElapsedTime.class);
         NadelContext nadelContext = executionContextForService.getContext();
 
+        StreamingServiceExecutionResult streamingServiceExecutionResult = data.get(StreamingServiceExecutionResult.class);
+        if (streamingServiceExecutionResult != null && resultMapper != null) {
+            try {
+                serviceExecutionResult = streamingServiceExecutionResult.toServiceExecutionResult();
+            } catch (UncheckedIOException e) {
+                serviceExecutionResult = mkExceptionResult(service, executionContextForService, underlyingRootStepInfo, e.getCause());
+            }
+        } else if (streamingServiceExecutionResult != null) {
+            try {
+                return new StreamingServiceResultToResultNodes(resultToResultNode).resultToResultNode(executionContextForService,
+                        streamingServiceExecutionResult,
+                        elapsedTime,
+                        normalizedQuery);
+            } catch (IOException e) {
+                serviceExecutionResult = mkExceptionResult(service, executionContextForService, underlyingRootStepInfo, e);
+            }
+        }
+
+        if (resultMapper != null) {
+            serviceExecutionResult = resultMapper.apply(serviceExecutionResult);
+        }
+
         if (nadelContext.getUserSuppliedContext() instanceof BenchmarkContext) {
             BenchmarkContext.ServiceResultToResultNodesArgs serviceResultToResultNodesArgs = ((BenchmarkContext) nadelContext.getUserSuppliedContext()).serviceResultToResultNodesArgs;
             serviceResultToResultNodesArgs.executionContextForService = executionContextForService;
@@ -204,6 +370,7 @@ public class ServiceExecutor {
             serviceResultToResultNodesArgs.serviceExecutionResult = serviceExecutionResult;
             serviceResultToResultNodesArgs.elapsedTime = elapsedTime;
             serviceResultToResultNodesArgs.normalizedQuery = normalizedQuery;
+            serviceResultToResultNodesArgs.queryTransformationResult = queryTransformerResult;
         }
         return resultToResultNode.resultToResultNode(executionContextForService,
                 underlyingRootStepInfo,
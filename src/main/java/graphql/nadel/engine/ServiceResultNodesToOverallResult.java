@@ -9,6 +9,7 @@ import graphql.language.AbstractNode;
 import graphql.nadel.Tuples;
 import graphql.nadel.TuplesTwo;
 import graphql.nadel.dsl.NodeId;
+import graphql.nadel.engine.transformation.FieldMetadataIndex;
 import graphql.nadel.engine.transformation.FieldRenameTransformation;
 import graphql.nadel.engine.transformation.FieldTransformation;
 import graphql.nadel.engine.transformation.HydrationTransformation;
@@ -19,6 +20,7 @@ import graphql.nadel.normalized.NormalizedQueryField;
 import graphql.nadel.normalized.NormalizedQueryFromAst;
 import graphql.nadel.result.ExecutionResultNode;
 import graphql.nadel.result.LeafExecutionResultNode;
+import graphql.nadel.result.ListExecutionResultNode;
 import graphql.nadel.result.ObjectExecutionResultNode;
 import graphql.nadel.result.RootExecutionResultNode;
 import graphql.schema.GraphQLSchema;
@@ -36,7 +38,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
 
 import static graphql.Assert.assertNotNull;
 import static graphql.Assert.assertShouldNeverHappen;
@@ -59,6 +60,15 @@ public class ServiceResultNodesToOverallResult {
 
     private static final Logger log = LoggerFactory.getLogger(ServiceResultNodesToOverallResult.class);
 
+    private final ParallelListConverter parallelListConverter;
+
+    public ServiceResultNodesToOverallResult() {
+        this(ParallelListConverter.SEQUENTIAL);
+    }
+
+    public ServiceResultNodesToOverallResult(ParallelListConverter parallelListConverter) {
+        this.parallelListConverter = parallelListConverter;
+    }
 
     @SuppressWarnings("UnnecessaryLocalVariable")
     public ExecutionResultNode convert(ExecutionId executionId,
@@ -98,23 +108,134 @@ public class ServiceResultNodesToOverallResult {
                                             boolean onlyChildren,
                                             NadelContext nadelContext,
                                             TransformationMetadata transformationMetadata) {
-        final AtomicInteger nodeCount = new AtomicInteger();
+        NodeCount nodeCount = new NodeCount();
+        // only used for nodes without transformations, the parent node is set for every node
+        UnapplyEnvironment untransformedEnvironment = new UnapplyEnvironment(null, isHydrationTransformation, batched, typeRenameMappings, overallSchema);
 
         HandleResult handleResult = convertSingleNode(root, null/*not for root*/, executionId, root, normalizedRootField, overallSchema, isHydrationTransformation, batched, fieldIdToTransformation, typeRenameMappings, onlyChildren, nadelContext, transformationMetadata, nodeCount);
         assertNotNull(handleResult, () -> "can't delete root");
 
         ExecutionResultNode changedNode = handleResult.changedNode;
-        List<ExecutionResultNode> newChildren = new ArrayList<>();
-        for (ExecutionResultNode child : changedNode.getChildren()) {
-            // pass in the correct root node as parent, not root
-            HandleResult handleResultChild = convertRecursively(child, correctRootNode, executionId, root, normalizedRootField, overallSchema, isHydrationTransformation, batched, fieldIdToTransformation, typeRenameMappings, onlyChildren, nadelContext, transformationMetadata, nodeCount);
-            if (handleResultChild == null) {
-                continue;
+        // pass in the correct root node as parent, not root
+        List<ExecutionResultNode> newChildren = convertChildren(changedNode, correctRootNode, executionId, root, normalizedRootField, overallSchema, isHydrationTransformation, batched, fieldIdToTransformation, typeRenameMappings, onlyChildren, nadelContext, transformationMetadata, nodeCount, untransformedEnvironment);
+        if (newChildren == changedNode.getChildren()) {
+            return changedNode.withNodeCount(nodeCount.value);
+        }
+        return changedNode.transform(builder -> builder.ownedChildren(newChildren).totalNodeCount(nodeCount.value));
+    }
+
+    /*
+     * Returns the converted children of the node, or the very same list if no child changed
+     */
+    private List<ExecutionResultNode> convertChildren(ExecutionResultNode node,
+                                                      ExecutionResultNode parentNode,
+                                                      ExecutionId executionId,
+                                                      ExecutionResultNode root,
+                                                      NormalizedQueryField normalizedRootField,
+                                                      GraphQLSchema overallSchema,
+                                                      boolean isHydrationTransformation,
+                                                      boolean batched,
+                                                      Map<String, FieldTransformation> fieldIdToTransformation,
+                                                      Map<String, String> typeRenameMappings,
+                                                      boolean onlyChildren,
+                                                      NadelContext nadelContext,
+                                                      TransformationMetadata transformationMetadata,
+                                                      NodeCount nodeCount,
+                                                      UnapplyEnvironment untransformedEnvironment) {
+        List<ExecutionResultNode> children = node.getChildren();
+        if (node instanceof ListExecutionResultNode && parallelListConverter.isParallel(children.size())) {
+            return convertListChildrenInParallel(children, parentNode, executionId, root, normalizedRootField, overallSchema, isHydrationTransformation, batched, fieldIdToTransformation, typeRenameMappings, onlyChildren, nadelContext, transformationMetadata, nodeCount);
+        }
+        return convertChildren(children, 0, children.size(), parentNode, executionId, root, normalizedRootField, overallSchema, isHydrationTransformation, batched, fieldIdToTransformation, typeRenameMappings, onlyChildren, nadelContext, transformationMetadata, nodeCount, untransformedEnvironment);
+    }
+
+    /*
+     * Every chunk of the list counts its nodes and maps untransformed nodes with its own state, the children of
+     * list elements are converted on the thread of the chunk.
+     */
+    private List<ExecutionResultNode> convertListChildrenInParallel(List<ExecutionResultNode> children,
+                                                                    ExecutionResultNode parentNode,
+                                                                    ExecutionId executionId,
+                                                                    ExecutionResultNode root,
+                                                                    NormalizedQueryField normalizedRootField,
+                                                                    GraphQLSchema overallSchema,
+                                                                    boolean isHydrationTransformation,
+                                                                    boolean batched,
+                                                                    Map<String, FieldTransformation> fieldIdToTransformation,
+                                                                    Map<String, String> typeRenameMappings,
+                                                                    boolean onlyChildren,
+                                                                    NadelContext nadelContext,
+                                                                    TransformationMetadata transformationMetadata,
+                                                                    NodeCount nodeCount) {
+        AtomicInteger chunkNodeCount = new AtomicInteger();
+        List<ExecutionResultNode> newChildren = parallelListConverter.convert(children.size(), (from, to) -> {
+            NodeCount nodeCountOfChunk = new NodeCount();
+            UnapplyEnvironment untransformedEnvironment = new UnapplyEnvironment(null, isHydrationTransformation, batched, typeRenameMappings, overallSchema);
+            List<ExecutionResultNode> converted = convertChildren(children, from, to, parentNode, executionId, root, normalizedRootField, overallSchema, isHydrationTransformation, batched, fieldIdToTransformation, typeRenameMappings, onlyChildren, nadelContext, transformationMetadata, nodeCountOfChunk, untransformedEnvironment);
+            chunkNodeCount.addAndGet(nodeCountOfChunk.value);
+            return converted;
+        });
+        nodeCount.value += chunkNodeCount.get();
+        if (newChildren.size() != children.size()) {
+            return newChildren;
+        }
+        for (int i = 0; i < children.size(); i++) {
+            if (newChildren.get(i) != children.get(i)) {
+                return newChildren;
             }
-            newChildren.add(handleResultChild.changedNode);
-            newChildren.addAll(handleResult.siblings);
         }
-        return changedNode.transform(builder -> builder.children(newChildren).totalNodeCount(nodeCount.get()));
+        return children;
+    }
+
+    /*
+     * Converts the children from index from to index to, the returned list is a view of the children if none of them changed
+     */
+    private List<ExecutionResultNode> convertChildren(List<ExecutionResultNode> children,
+                                                      int from,
+                                                      int to,
+                                                      ExecutionResultNode parentNode,
+                                                      ExecutionId executionId,
+                                                      ExecutionResultNode root,
+                                                      NormalizedQueryField normalizedRootField,
+                                                      GraphQLSchema overallSchema,
+                                                      boolean isHydrationTransformation,
+                                                      boolean batched,
+                                                      Map<String, FieldTransformation> fieldIdToTransformation,
+                                                      Map<String, String> typeRenameMappings,
+                                                      boolean onlyChildren,
+                                                      NadelContext nadelContext,
+                                                      TransformationMetadata transformationMetadata,
+                                                      NodeCount nodeCount,
+                                                      UnapplyEnvironment untransformedEnvironment) {
+        List<ExecutionResultNode> newChildren = null;
+        for (int i = from; i < to; i++) {
+            ExecutionResultNode child = children.get(i);
+            ExecutionResultNode convertedChild;
+            List<ExecutionResultNode> siblings;
+            if (isUntransformedNode(child, transformationMetadata)) {
+                convertedChild = convertUntransformedNode(child, parentNode, executionId, root, normalizedRootField, overallSchema, isHydrationTransformation, batched, fieldIdToTransformation, typeRenameMappings, onlyChildren, nadelContext, transformationMetadata, nodeCount, untransformedEnvironment);
+                siblings = emptyList();
+            } else {
+                HandleResult handleResultChild = convertRecursively(child, parentNode, executionId, root, normalizedRootField, overallSchema, isHydrationTransformation, batched, fieldIdToTransformation, typeRenameMappings, onlyChildren, nadelContext, transformationMetadata, nodeCount, untransformedEnvironment);
+                convertedChild = handleResultChild == null ? null : handleResultChild.changedNode;
+                // additional siblings are not descended, just added
+                siblings = handleResultChild == null ? emptyList() : handleResultChild.siblings;
+            }
+            if (newChildren == null && (convertedChild != child || !siblings.isEmpty())) {
+                newChildren = new ArrayList<>(to - from + siblings.size());
+                newChildren.addAll(children.subList(from, i));
+            }
+            if (newChildren != null) {
+                if (convertedChild != null) {
+                    newChildren.add(convertedChild);
+                }
+                newChildren.addAll(siblings);
+            }
+        }
+        if (newChildren != null) {
+            return newChildren;
+        }
+        return from == 0 && to == children.size() ? children : children.subList(from, to);
     }
 
     private HandleResult convertRecursively(ExecutionResultNode node,
@@ -130,7 +251,8 @@ public class ServiceResultNodesToOverallResult {
                                             boolean onlyChildren,
                                             NadelContext nadelContext,
                                             TransformationMetadata transformationMetadata,
-                                            AtomicInteger nodeCount) {
+                                            NodeCount nodeCount,
+                                            UnapplyEnvironment untransformedEnvironment) {
         HandleResult handleResult = convertSingleNode(node, parentNode, executionId, root, normalizedRootField, overallSchema, isHydrationTransformation, batched, fieldIdToTransformation, typeRenameMappings, onlyChildren, nadelContext, transformationMetadata, nodeCount);
         if (handleResult == null) {
             return null;
@@ -139,20 +261,72 @@ public class ServiceResultNodesToOverallResult {
             return handleResult;
         }
         ExecutionResultNode changedNode = handleResult.changedNode;
-        List<ExecutionResultNode> newChildren = new ArrayList<>();
-        for (ExecutionResultNode child : changedNode.getChildren()) {
-            HandleResult handleResultChild = convertRecursively(child, changedNode, executionId, root, normalizedRootField, overallSchema, isHydrationTransformation, batched, fieldIdToTransformation, typeRenameMappings, onlyChildren, nadelContext, transformationMetadata, nodeCount);
-            if (handleResultChild == null) {
-                continue;
-            }
-            newChildren.add(handleResultChild.changedNode);
-            // additional siblings are not descended, just added
-            newChildren.addAll(handleResultChild.siblings);
+        List<ExecutionResultNode> newChildren = convertChildren(changedNode, changedNode, executionId, root, normalizedRootField, overallSchema, isHydrationTransformation, batched, fieldIdToTransformation, typeRenameMappings, onlyChildren, nadelContext, transformationMetadata, nodeCount, untransformedEnvironment);
+        if (newChildren != changedNode.getChildren()) {
+            handleResult.changedNode = changedNode.transform(builder -> builder.ownedChildren(newChildren));
         }
-        handleResult.changedNode = changedNode.withNewChildren(newChildren);
         return handleResult;
     }
 
+    /*
+     * The fast path for nodes without transformations, which is nearly all of them in large responses: the node is
+     * mapped onto the overall schema and only rebuilt again if one of its children changed.  Subtrees where nothing
+     * changes are shared with the service result.
+     */
+    private ExecutionResultNode convertUntransformedNode(ExecutionResultNode node,
+                                                         ExecutionResultNode parentNode,
+                                                         ExecutionId executionId,
+                                                         ExecutionResultNode root,
+                                                         NormalizedQueryField normalizedRootField,
+                                                         GraphQLSchema overallSchema,
+                                                         boolean isHydrationTransformation,
+                                                         boolean batched,
+                                                         Map<String, FieldTransformation> fieldIdToTransformation,
+                                                         Map<String, String> typeRenameMappings,
+                                                         boolean onlyChildren,
+                                                         NadelContext nadelContext,
+                                                         TransformationMetadata transformationMetadata,
+                                                         NodeCount nodeCount,
+                                                         UnapplyEnvironment untransformedEnvironment) {
+        if (node instanceof LeafExecutionResultNode && ArtificialFieldUtils.isArtificialField(nadelContext, node.getAlias())) {
+            return null;
+        }
+        nodeCount.value++;
+
+        untransformedEnvironment.parentNode = parentNode;
+        ExecutionResultNode mappedNode = mapNode(node, untransformedEnvironment);
+        if (mappedNode instanceof ObjectExecutionResultNode && transformationMetadata.hasRemovedFields()) {
+            mappedNode = addDeletedChildren((ObjectExecutionResultNode) mappedNode, null, nadelContext, transformationMetadata);
+        }
+        if (mappedNode.getChildren().isEmpty()) {
+            return mappedNode;
+        }
+        List<ExecutionResultNode> newChildren = convertChildren(mappedNode, mappedNode, executionId, root, normalizedRootField, overallSchema, isHydrationTransformation, batched, fieldIdToTransformation, typeRenameMappings, onlyChildren, nadelContext, transformationMetadata, nodeCount, untransformedEnvironment);
+        if (newChildren == mappedNode.getChildren()) {
+            return mappedNode;
+        }
+        return mappedNode.transform(builder -> builder.ownedChildren(newChildren));
+    }
+
+    /*
+     * Same as getTransformationsAndNotTransformedFields(...) finding no transformations, without allocating anything
+     */
+    private boolean isUntransformedNode(ExecutionResultNode node, TransformationMetadata transformationMetadata) {
+        if (node instanceof RootExecutionResultNode) {
+            return false;
+        }
+        if (node.getExecutionPath().isListSegment()) {
+            return true;
+        }
+        FieldMetadataIndex fieldMetadataIndex = transformationMetadata.getFieldMetadataIndex();
+        for (String fieldId : node.getFieldIds()) {
+            if (fieldMetadataIndex.isRootOfTransformation(fieldId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private HandleResult convertSingleNode(ExecutionResultNode node,
                                            ExecutionResultNode parentNode,
                                            ExecutionId executionId,
@@ -166,8 +340,8 @@ public class ServiceResultNodesToOverallResult {
                                            boolean onlyChildren,
                                            NadelContext nadelContext,
                                            TransformationMetadata transformationMetadata,
-                                           AtomicInteger nodeCount) {
-        nodeCount.incrementAndGet();
+                                           NodeCount nodeCount) {
+        nodeCount.value++;
 
         if (onlyChildren && node == root) {
             if (root instanceof ObjectExecutionResultNode) {
@@ -185,7 +359,7 @@ public class ServiceResultNodesToOverallResult {
         if (node instanceof LeafExecutionResultNode) {
             LeafExecutionResultNode leaf = (LeafExecutionResultNode) node;
             if (ArtificialFieldUtils.isArtificialField(nadelContext, leaf.getAlias())) {
-                nodeCount.decrementAndGet();
+                nodeCount.value--;
                 return null;
             }
         }
@@ -224,12 +398,16 @@ public class ServiceResultNodesToOverallResult {
             normalizedQueryField = getNormalizedQueryFieldForResultNode(resultNode, nadelContext.getNormalizedOverallQuery());
         }
         List<NormalizedFieldAndError> removedFields = transformationMetadata.getRemovedFieldsForParent(normalizedQueryField);
+        if (removedFields.isEmpty()) {
+            return resultNode;
+        }
+        List<ExecutionResultNode> newChildren = new ArrayList<>(resultNode.getChildren().size() + removedFields.size());
+        newChildren.addAll(resultNode.getChildren());
         for (NormalizedFieldAndError normalizedFieldAndError : removedFields) {
             MergedField mergedField = nadelContext.getNormalizedOverallQuery().getMergedFieldByNormalizedFields().get(normalizedFieldAndError.getNormalizedField());
-            LeafExecutionResultNode newChild = createRemovedFieldResult(resultNode, mergedField, normalizedFieldAndError.getNormalizedField(), normalizedFieldAndError.getError());
-            resultNode = resultNode.transform(b -> b.addChild(newChild));
+            newChildren.add(createRemovedFieldResult(resultNode, mergedField, normalizedFieldAndError.getNormalizedField(), normalizedFieldAndError.getError()));
         }
-        return resultNode;
+        return resultNode.transform(builder -> builder.ownedChildren(newChildren));
     }
 
     private LeafExecutionResultNode createRemovedFieldResult(ExecutionResultNode parent,
@@ -383,7 +561,7 @@ public class ServiceResultNodesToOverallResult {
         Map<AbstractNode, Set<String>> transformationIdsByTransformationDefinition = new LinkedHashMap<>();
         List<String> fieldIds = executionResultNode.getFieldIds();
         for (String fieldId : fieldIds) {
-            List<String> transformationIds = FieldMetadataUtil.getRootOfTransformationIds(fieldId, transformationMetadata.getMetadataByFieldId());
+            List<String> transformationIds = transformationMetadata.getFieldMetadataIndex().getRootOfTransformationIds(fieldId);
             for (String transformationId : transformationIds) {
                 FieldTransformation fieldTransformation = assertNotNull(fieldIdToTransformation.get(transformationId));
                 AbstractNode definition = fieldTransformation.getDefinition();
@@ -427,15 +605,26 @@ public class ServiceResultNodesToOverallResult {
 
 
     private List<String> getFieldIdsWithoutTransformationId(ExecutionResultNode node, TransformationMetadata transformationMetadata) {
-        return node.getFieldIds().stream().filter(fieldId -> FieldMetadataUtil.getTransformationIds(fieldId, transformationMetadata.getMetadataByFieldId()).size() == 0).collect(Collectors.toList());
+        FieldMetadataIndex fieldMetadataIndex = transformationMetadata.getFieldMetadataIndex();
+        List<String> result = new ArrayList<>(node.getFieldIds().size());
+        for (String fieldId : node.getFieldIds()) {
+            if (fieldMetadataIndex.getTransformationIds(fieldId).isEmpty()) {
+                result.add(fieldId);
+            }
+        }
+        return result;
     }
 
     private List<String> getFieldIdsWithTransformationIds(ExecutionResultNode
                                                                   node, Set<String> transformationIds, TransformationMetadata transformationMetadata) {
-        return node.getFieldIds().stream().filter(fieldId -> {
-            List<String> transformationIdsForField = FieldMetadataUtil.getTransformationIds(fieldId, transformationMetadata.getMetadataByFieldId());
-            return transformationIdsForField.containsAll(transformationIds);
-        }).collect(Collectors.toList());
+        FieldMetadataIndex fieldMetadataIndex = transformationMetadata.getFieldMetadataIndex();
+        List<String> result = new ArrayList<>(node.getFieldIds().size());
+        for (String fieldId : node.getFieldIds()) {
+            if (fieldMetadataIndex.getTransformationIds(fieldId).containsAll(transformationIds)) {
+                result.add(fieldId);
+            }
+        }
+        return result;
     }
 
     private ExecutionResultNode mapNode(ExecutionResultNode node, UnapplyEnvironment environment) {
@@ -459,7 +648,7 @@ public class ServiceResultNodesToOverallResult {
                 continue;
             }
 
-            List<String> rootTransformationIds = FieldMetadataUtil.getRootOfTransformationIds(fieldId, transformationMetadata.getMetadataByFieldId());
+            List<String> rootTransformationIds = transformationMetadata.getFieldMetadataIndex().getRootOfTransformationIds(fieldId);
             if (rootTransformationIds.size() == 0) {
                 notTransformedFields.add(fieldId);
                 continue;
@@ -484,17 +673,17 @@ public class ServiceResultNodesToOverallResult {
     private NormalizedQueryField getNormalizedQueryFieldForResultNode(ObjectExecutionResultNode resultNode,
                                                                       NormalizedQueryFromAst normalizedQueryFromAst) {
         String id = resultNode.getFieldIds().get(0);
-        List<NormalizedQueryField> normalizedFields = assertNotNull(normalizedQueryFromAst.getNormalizedFieldsByFieldId(id));
-
-        for (NormalizedQueryField normalizedField : normalizedFields) {
-            if (resultNode.getObjectType() == normalizedField.getObjectType() &&
-                    resultNode.getFieldDefinition() == normalizedField.getFieldDefinition()) {
-                return normalizedField;
-            }
+        NormalizedQueryField normalizedField = normalizedQueryFromAst.getNormalizedField(id, resultNode.getObjectType(), resultNode.getFieldDefinition());
+        if (normalizedField != null) {
+            return normalizedField;
         }
         return assertShouldNeverHappen("Can't find normalized query field");
     }
 
+    private static class NodeCount {
+        private int value;
+    }
+
     public static class HandleResult {
         ExecutionResultNode changedNode;
         List<ExecutionResultNode> siblings = emptyList();
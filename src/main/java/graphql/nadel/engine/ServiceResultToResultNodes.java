@@ -34,6 +34,7 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
 
 import static graphql.Assert.assertNotNull;
 import static graphql.Assert.assertTrue;
@@ -46,6 +47,15 @@ public class ServiceResultToResultNodes {
 
     private static final Logger log = LoggerFactory.getLogger(ServiceResultToResultNodes.class);
 
+    private final ParallelListConverter parallelListConverter;
+
+    public ServiceResultToResultNodes() {
+        this(ParallelListConverter.SEQUENTIAL);
+    }
+
+    public ServiceResultToResultNodes(ParallelListConverter parallelListConverter) {
+        this.parallelListConverter = parallelListConverter;
+    }
 
     public RootExecutionResultNode resultToResultNode(ExecutionContext executionContext,
                                                       ExecutionStepInfo executionStepInfo,
@@ -86,7 +96,7 @@ public class ServiceResultToResultNodes {
             ExecutionResultNode executionResultNode = fetchAndAnalyzeField(executionContext, source, topLevelField, normalizedQueryFromAst, path, fieldIds, elapsedTime);
             children.add(executionResultNode);
         }
-        return (RootExecutionResultNode) rootNode.withNewChildren(children);
+        return rootNode.transform(builder -> builder.ownedChildren(children));
     }
 
 
@@ -120,14 +130,14 @@ public class ServiceResultToResultNodes {
         return analyzeFetchedValueImpl(executionContext, fetchedValue, normalizedQueryField, normalizedQueryFromAst, normalizedQueryField.getFieldDefinition().getType(), executionPath, fieldIds, elapsedTime);
     }
 
-    private ExecutionResultNode analyzeFetchedValueImpl(ExecutionContext executionContext,
-                                                        Object toAnalyze,
-                                                        NormalizedQueryField normalizedQueryField,
-                                                        NormalizedQueryFromAst normalizedQueryFromAst,
-                                                        GraphQLOutputType curType,
-                                                        ExecutionPath executionPath,
-                                                        List<String> fieldIds,
-                                                        ElapsedTime elapsedTime) {
+    ExecutionResultNode analyzeFetchedValueImpl(ExecutionContext executionContext,
+                                                Object toAnalyze,
+                                                NormalizedQueryField normalizedQueryField,
+                                                NormalizedQueryFromAst normalizedQueryFromAst,
+                                                GraphQLOutputType curType,
+                                                ExecutionPath executionPath,
+                                                List<String> fieldIds,
+                                                ElapsedTime elapsedTime) {
 
         boolean isNonNull = GraphQLTypeUtil.isNonNull(curType);
         if (toAnalyze == null && isNonNull) {
@@ -176,7 +186,7 @@ public class ServiceResultToResultNodes {
                 .objectType(normalizedField.getObjectType())
                 .fieldDefinition(normalizedField.getFieldDefinition())
                 .completedValue(completedValue)
-                .children(nodeChildren)
+                .ownedChildren(nodeChildren)
                 .elapsedTime(elapsedTime)
                 .build();
 
@@ -250,13 +260,16 @@ public class ServiceResultToResultNodes {
                                                ExecutionPath executionPath,
                                                List<String> fieldIds,
                                                ElapsedTime elapsedTime) {
-        List<ExecutionResultNode> children = new ArrayList<>();
-        int index = 0;
-        for (Object item : iterableValues) {
-            ExecutionPath indexedPath = executionPath.segment(index);
-            children.add(analyzeFetchedValueImpl(executionContext, item, normalizedQueryField, normalizedQueryFromAst, (GraphQLOutputType) GraphQLTypeUtil.unwrapOne(currentType), indexedPath, fieldIds, elapsedTime));
-            index++;
-        }
+        GraphQLOutputType elementType = (GraphQLOutputType) GraphQLTypeUtil.unwrapOne(currentType);
+        List<Object> values = iterableValues instanceof RandomAccess ? iterableValues : new ArrayList<>(iterableValues);
+        List<ExecutionResultNode> children = parallelListConverter.convert(values.size(), (from, to) -> {
+            List<ExecutionResultNode> chunk = new ArrayList<>(to - from);
+            for (int index = from; index < to; index++) {
+                ExecutionPath indexedPath = executionPath.segment(index);
+                chunk.add(analyzeFetchedValueImpl(executionContext, values.get(index), normalizedQueryField, normalizedQueryFromAst, elementType, indexedPath, fieldIds, elapsedTime));
+            }
+            return chunk;
+        });
         return ListExecutionResultNode.newListExecutionResultNode()
                 .executionPath(executionPath)
                 .alias(normalizedQueryField.getAlias())
@@ -265,7 +278,7 @@ public class ServiceResultToResultNodes {
                 .completedValue(fetchedValue)
                 .fieldIds(fieldIds)
                 .elapsedTime(elapsedTime)
-                .children(children)
+                .ownedChildren(children)
                 .build();
     }
 
@@ -0,0 +1,31 @@
+package graphql.nadel.engine;
+
+import graphql.Internal;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Continues a future on the executor of a stage, or on the completing thread if the stage has no executor.
+ */
+@Internal
+public class StageExecutor {
+
+    public static final StageExecutor SAME_THREAD = new StageExecutor(null);
+
+    private final Executor executor;
+
+    public StageExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    public <T, U> CompletableFuture<U> thenApply(CompletableFuture<T> future, Function<? super T, ? extends U> fn) {
+        return executor == null ? future.thenApply(fn) : future.thenApplyAsync(fn, executor);
+    }
+
+    public <T, U> CompletableFuture<U> thenCompose(CompletableFuture<T> future, Function<? super T, ? extends CompletionStage<U>> fn) {
+        return executor == null ? future.thenCompose(fn) : future.thenComposeAsync(fn, executor);
+    }
+}
@@ -0,0 +1,240 @@
+package graphql.nadel.engine;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import graphql.GraphQLError;
+import graphql.Internal;
+import graphql.execution.ExecutionContext;
+import graphql.execution.ExecutionPath;
+import graphql.nadel.StreamingServiceExecutionResult;
+import graphql.nadel.normalized.NormalizedQueryField;
+import graphql.nadel.normalized.NormalizedQueryFromAst;
+import graphql.nadel.result.ElapsedTime;
+import graphql.nadel.result.ExecutionResultNode;
+import graphql.nadel.result.ListExecutionResultNode;
+import graphql.nadel.result.RootExecutionResultNode;
+import graphql.nadel.util.ErrorUtil;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLOutputType;
+import graphql.schema.GraphQLType;
+import graphql.schema.GraphQLTypeUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static graphql.nadel.result.ObjectExecutionResultNode.newObjectExecutionResultNode;
+import static graphql.nadel.util.JsonParserKit.nextFieldOrEnd;
+import static graphql.nadel.util.JsonParserKit.readValue;
+import static graphql.schema.GraphQLTypeUtil.isList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+
+/**
+ * Builds the result nodes of a service call while reading its JSON response, guided by the normalized underlying query.
+ *
+ * Objects of a concrete type and lists are read token by token, everything else (leaves, objects of an interface or
+ * union type and values of an unexpected shape) is read into plain values and handed to {@link ServiceResultToResultNodes}.
+ * Entries the query did not ask for are skipped.  Since the raw response is never built, object and list nodes
+ * have no completed value.
+ */
+@Internal
+public class StreamingServiceResultToResultNodes {
+
+    private static final Logger log = LoggerFactory.getLogger(StreamingServiceResultToResultNodes.class);
+
+    private final ServiceResultToResultNodes serviceResultToResultNodes;
+
+    public StreamingServiceResultToResultNodes(ServiceResultToResultNodes serviceResultToResultNodes) {
+        this.serviceResultToResultNodes = serviceResultToResultNodes;
+    }
+
+    @SuppressWarnings("unchecked")
+    public RootExecutionResultNode resultToResultNode(ExecutionContext executionContext,
+                                                      StreamingServiceExecutionResult streamingServiceExecutionResult,
+                                                      ElapsedTime elapsedTimeForServiceCall,
+                                                      NormalizedQueryFromAst normalizedQueryFromAst) throws IOException {
+        long startTime = System.currentTimeMillis();
+
+        List<NormalizedQueryField> topLevelFields = normalizedQueryFromAst.getTopLevelFields();
+        List<ExecutionResultNode> children = null;
+        List<Map<String, Object>> rawErrors = emptyList();
+        Map<String, Object> extensions = emptyMap();
+
+        try (JsonParser parser = streamingServiceExecutionResult.getParser()) {
+            if (parser.currentToken() == null) {
+                parser.nextToken();
+            }
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                throw new IOException("A graphql response must be a JSON object");
+            }
+            while (nextFieldOrEnd(parser) == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if (name.equals("data") && token == JsonToken.START_OBJECT) {
+                    children = readObject(executionContext, parser, topLevelFields, normalizedQueryFromAst, ExecutionPath.rootPath(), elapsedTimeForServiceCall);
+                } else if (name.equals("errors") && token == JsonToken.START_ARRAY) {
+                    rawErrors = (List<Map<String, Object>>) readValue(parser);
+                } else if (name.equals("extensions") && token == JsonToken.START_OBJECT) {
+                    extensions = (Map<String, Object>) readValue(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        if (children == null) {
+            children = nullValues(executionContext, topLevelFields, normalizedQueryFromAst, ExecutionPath.rootPath(), elapsedTimeForServiceCall);
+        }
+
+        List<GraphQLError> errors = ErrorUtil.createGraphQlErrorsFromRawErrors(rawErrors);
+        RootExecutionResultNode rootExecutionResultNode = RootExecutionResultNode.newRootExecutionResultNode()
+                .errors(errors)
+                .extensions(extensions)
+                .elapsedTime(elapsedTimeForServiceCall)
+                .children(children)
+                .build();
+        long elapsedTime = System.currentTimeMillis() - startTime;
+        log.debug("StreamingServiceResultToResultNodes time: {} ms, executionId: {}", elapsedTime, executionContext.getExecutionId());
+        return rootExecutionResultNode;
+    }
+
+    private List<ExecutionResultNode> readObject(ExecutionContext executionContext,
+                                                 JsonParser parser,
+                                                 List<NormalizedQueryField> fields,
+                                                 NormalizedQueryFromAst normalizedQueryFromAst,
+                                                 ExecutionPath executionPath,
+                                                 ElapsedTime elapsedTime) throws IOException {
+        Map<String, NormalizedQueryField> fieldsByResultKey = new HashMap<>();
+        for (NormalizedQueryField field : fields) {
+            fieldsByResultKey.put(field.getResultKey(), field);
+        }
+
+        Map<String, ExecutionResultNode> nodesByResultKey = new HashMap<>();
+        while (nextFieldOrEnd(parser) == JsonToken.FIELD_NAME) {
+            String resultKey = parser.getCurrentName();
+            parser.nextToken();
+            NormalizedQueryField field = fieldsByResultKey.get(resultKey);
+            if (field == null) {
+                parser.skipChildren();
+                continue;
+            }
+            ExecutionResultNode node = readValueOfField(executionContext,
+                    parser,
+                    field,
+                    normalizedQueryFromAst,
+                    field.getFieldDefinition().getType(),
+                    executionPath.segment(resultKey),
+                    normalizedQueryFromAst.getFieldIds(field),
+                    elapsedTime);
+            nodesByResultKey.put(resultKey, node);
+        }
+
+        // the children are in query order, not in the order of the response
+        List<ExecutionResultNode> children = new ArrayList<>(fields.size());
+        for (NormalizedQueryField field : fields) {
+            ExecutionResultNode node = nodesByResultKey.get(field.getResultKey());
+            if (node == null) {
+                node = nullValue(executionContext, field, normalizedQueryFromAst, executionPath, elapsedTime);
+            }
+            children.add(node);
+        }
+        return children;
+    }
+
+    private ExecutionResultNode readValueOfField(ExecutionContext executionContext,
+                                                 JsonParser parser,
+                                                 NormalizedQueryField normalizedQueryField,
+                                                 NormalizedQueryFromAst normalizedQueryFromAst,
+                                                 GraphQLOutputType curType,
+                                                 ExecutionPath executionPath,
+                                                 List<String> fieldIds,
+                                                 ElapsedTime elapsedTime) throws IOException {
+        JsonToken token = parser.currentToken();
+        GraphQLType unwrappedType = GraphQLTypeUtil.unwrapNonNull(curType);
+        if (token == JsonToken.START_ARRAY && isList(unwrappedType)) {
+            return readList(executionContext, parser, normalizedQueryField, normalizedQueryFromAst, unwrappedType, executionPath, fieldIds, elapsedTime);
+        }
+        if (token == JsonToken.START_OBJECT && unwrappedType instanceof GraphQLObjectType) {
+            GraphQLObjectType objectType = (GraphQLObjectType) unwrappedType;
+            List<NormalizedQueryField> childFields = new ArrayList<>(normalizedQueryField.getChildren().size());
+            for (NormalizedQueryField child : normalizedQueryField.getChildren()) {
+                if (child.getObjectType() == objectType) {
+                    childFields.add(child);
+                }
+            }
+            List<ExecutionResultNode> children = readObject(executionContext, parser, childFields, normalizedQueryFromAst, executionPath, elapsedTime);
+            return newObjectExecutionResultNode()
+                    .executionPath(executionPath)
+                    .alias(normalizedQueryField.getAlias())
+                    .fieldIds(fieldIds)
+                    .objectType(normalizedQueryField.getObjectType())
+                    .fieldDefinition(normalizedQueryField.getFieldDefinition())
+                    .ownedChildren(children)
+                    .elapsedTime(elapsedTime)
+                    .build();
+        }
+        Object value = readValue(parser);
+        return serviceResultToResultNodes.analyzeFetchedValueImpl(executionContext, value, normalizedQueryField, normalizedQueryFromAst, curType, executionPath, fieldIds, elapsedTime);
+    }
+
+    private ExecutionResultNode readList(ExecutionContext executionContext,
+                                         JsonParser parser,
+                                         NormalizedQueryField normalizedQueryField,
+                                         NormalizedQueryFromAst normalizedQueryFromAst,
+                                         GraphQLType listType,
+                                         ExecutionPath executionPath,
+                                         List<String> fieldIds,
+                                         ElapsedTime elapsedTime) throws IOException {
+        GraphQLOutputType itemType = (GraphQLOutputType) GraphQLTypeUtil.unwrapOne(listType);
+        List<ExecutionResultNode> children = new ArrayList<>();
+        int index = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null) {
+                throw new IOException("Unexpected end of JSON input");
+            }
+            children.add(readValueOfField(executionContext, parser, normalizedQueryField, normalizedQueryFromAst, itemType, executionPath.segment(index), fieldIds, elapsedTime));
+            index++;
+        }
+        return ListExecutionResultNode.newListExecutionResultNode()
+                .executionPath(executionPath)
+                .alias(normalizedQueryField.getAlias())
+                .fieldDefinition(normalizedQueryField.getFieldDefinition())
+                .objectType(normalizedQueryField.getObjectType())
+                .fieldIds(fieldIds)
+                .elapsedTime(elapsedTime)
+                .ownedChildren(children)
+                .build();
+    }
+
+    private List<ExecutionResultNode> nullValues(ExecutionContext executionContext,
+                                                 List<NormalizedQueryField> fields,
+                                                 NormalizedQueryFromAst normalizedQueryFromAst,
+                                                 ExecutionPath executionPath,
+                                                 ElapsedTime elapsedTime) {
+        List<ExecutionResultNode> result = new ArrayList<>(fields.size());
+        for (NormalizedQueryField field : fields) {
+            result.add(nullValue(executionContext, field, normalizedQueryFromAst, executionPath, elapsedTime));
+        }
+        return result;
+    }
+
+    private ExecutionResultNode nullValue(ExecutionContext executionContext,
+                                          NormalizedQueryField field,
+                                          NormalizedQueryFromAst normalizedQueryFromAst,
+                                          ExecutionPath parentPath,
+                                          ElapsedTime elapsedTime) {
+        return serviceResultToResultNodes.analyzeFetchedValueImpl(executionContext,
+                null,
+                field,
+                normalizedQueryFromAst,
+                field.getFieldDefinition().getType(),
+                parentPath.segment(field.getResultKey()),
+                normalizedQueryFromAst.getFieldIds(field),
+                elapsedTime);
+    }
+}
@@ -28,7 +28,6 @@ import graphql.nadel.engine.transformation.FieldRenameTransformation;
 import graphql.nadel.engine.transformation.FieldTransformation;
 import graphql.nadel.engine.transformation.HydrationTransformation;
 import graphql.nadel.engine.transformation.OverallTypeInfo;
-import graphql.nadel.engine.transformation.OverallTypeInformation;
 import graphql.nadel.engine.transformation.TransformationMetadata;
 import graphql.nadel.hooks.NewVariableValue;
 import graphql.nadel.hooks.ServiceExecutionHooks;
@@ -42,13 +41,11 @@ import graphql.schema.GraphQLFieldsContainer;
 import graphql.schema.GraphQLInputObjectField;
 import graphql.schema.GraphQLInputObjectType;
 import graphql.schema.GraphQLInputValueDefinition;
-import graphql.schema.GraphQLInterfaceType;
 import graphql.schema.GraphQLNamedOutputType;
 import graphql.schema.GraphQLOutputType;
 import graphql.schema.GraphQLSchema;
 import graphql.schema.GraphQLType;
 import graphql.schema.GraphQLTypeUtil;
-import graphql.schema.GraphQLUnionType;
 import graphql.schema.GraphQLUnmodifiedType;
 import graphql.util.TraversalControl;
 import graphql.util.TraverserContext;
@@ -59,17 +56,23 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
+import static graphql.Assert.assertNotNull;
 import static graphql.Assert.assertShouldNeverHappen;
 import static graphql.Assert.assertTrue;
 import static graphql.introspection.Introspection.TypeNameMetaFieldDef;
 import static graphql.language.TypeName.newTypeName;
 import static graphql.nadel.dsl.NodeId.getId;
 import static graphql.nadel.engine.UnderlyingTypeContext.newUnderlyingTypeContext;
-import static graphql.nadel.util.Util.getTypeMappingDefinitionFor;
+import static graphql.nadel.engine.transformation.FieldUtils.isNewField;
 import static graphql.schema.GraphQLTypeUtil.unwrapAll;
 import static graphql.util.TreeTransformerUtil.changeNode;
+import static java.util.Collections.emptyMap;
 
-
+/**
+ * Transforms a query into the query of an underlying service.  The overall types are tracked in the traverser
+ * context vars ({@link GraphQLOutputType}, {@link GraphQLFieldDefinition}, {@link GraphQLArgument} and
+ * {@link GraphQLInputValueDefinition}) next to the {@link UnderlyingTypeContext} in the same pass.
+ */
 @Internal
 public class Transformer extends NodeVisitorStub {
 
@@ -84,7 +87,7 @@ public class Transformer extends NodeVisitorStub {
     final NadelContext nadelContext;
     private final Map<String, VariableDefinition> variableDefinitions;
     final ServiceExecutionHooks serviceExecutionHooks;
-    private OverallTypeInformation<?> overallTypeInformation;
+    private final OverallTypeRenames overallTypeRenames;
     private TransformationMetadata transformationMetadata;
     private Service service;
     private Object serviceContext;
@@ -99,7 +102,7 @@ public class Transformer extends NodeVisitorStub {
                        Map<String, VariableDefinition> referencedVariables,
                        NadelContext nadelContext,
                        ServiceExecutionHooks serviceExecutionHooks,
-                       OverallTypeInformation overallTypeInformation,
+                       OverallTypeRenames overallTypeRenames,
                        Map<String, Object> variableValues,
                        Service service,
                        Object serviceContext,
@@ -113,7 +116,7 @@ public class Transformer extends NodeVisitorStub {
         this.referencedVariables = referencedVariables;
         this.nadelContext = nadelContext;
         this.serviceExecutionHooks = serviceExecutionHooks;
-        this.overallTypeInformation = overallTypeInformation;
+        this.overallTypeRenames = overallTypeRenames;
         this.transformationMetadata = transformationMetadata;
         OperationDefinition operationDefinition = executionContext.getOperationDefinition();
         this.variableDefinitions = FpKit.getByName(operationDefinition.getVariableDefinitions(), VariableDefinition::getName);
@@ -131,6 +134,11 @@ public class Transformer extends NodeVisitorStub {
 
     @Override
     public TraversalControl visitObjectField(ObjectField node, TraverserContext<Node> context) {
+        GraphQLInputValueDefinition inputValueDefinitionOverall = context.getVarFromParents(GraphQLInputValueDefinition.class);
+        GraphQLUnmodifiedType unmodifiedTypeOverall = unwrapAll(inputValueDefinitionOverall.getType());
+        if (unmodifiedTypeOverall instanceof GraphQLInputObjectType) {
+            context.setVar(GraphQLInputValueDefinition.class, ((GraphQLInputObjectType) unmodifiedTypeOverall).getField(node.getName()));
+        }
 
         UnderlyingTypeContext underlyingTypeContext = context.getVarFromParents(UnderlyingTypeContext.class);
         GraphQLUnmodifiedType unmodifiedType = unwrapAll(underlyingTypeContext.getInputValueDefinitionUnderlying().getType());
@@ -147,6 +155,10 @@ public class Transformer extends NodeVisitorStub {
 
     @Override
     public TraversalControl visitArgument(Argument argument, TraverserContext<Node> context) {
+        GraphQLFieldDefinition fieldDefinitionOverall = context.getVarFromParents(GraphQLFieldDefinition.class);
+        GraphQLArgument argumentOverall = fieldDefinitionOverall.getArgument(argument.getName());
+        context.setVar(GraphQLArgument.class, argumentOverall);
+        context.setVar(GraphQLInputValueDefinition.class, argumentOverall);
 
         UnderlyingTypeContext underlyingTypeContext = context.getVarFromParents(UnderlyingTypeContext.class);
 
@@ -168,13 +180,11 @@ public class Transformer extends NodeVisitorStub {
         UnderlyingTypeContext typeContext = context.getVarFromParents(UnderlyingTypeContext.class);
         GraphQLInputValueDefinition inputValueDefinition = typeContext.getInputValueDefinitionUnderlying();
 
-        OverallTypeInfo overallTypeInfo = overallTypeInformation.getOverallTypeInfo(getId(value));
-
         HooksVisitArgumentValueEnvironmentImpl hooksVisitArgumentValueEnvironment = new HooksVisitArgumentValueEnvironmentImpl(
                 inputValueDefinition,
-                overallTypeInfo.getGraphQLInputValueDefinition(),
+                context.getVarFromParents(GraphQLInputValueDefinition.class),
                 typeContext.getArgumentDefinitionUnderlying(),
-                overallTypeInfo.getGraphQLArgument(),
+                context.getVarFromParents(GraphQLArgument.class),
                 context,
                 value,
                 variableValues,
@@ -198,12 +208,13 @@ public class Transformer extends NodeVisitorStub {
         }
 
         UnderlyingTypeContext typeContext = context.getVarFromParents(UnderlyingTypeContext.class);
-        OverallTypeInfo overallTypeInfo = overallTypeInformation.getOverallTypeInfo(getId(field));
-        // this means we have a new field which was added by a transformation and we don't have overall type info about it
-        if (overallTypeInfo == null) {
+        // this means we have a new field which was added by a transformation and we don't have overall type info about it,
+        // the fields below it keep the overall type of the field that was transformed
+        if (isNewField(field)) {
             updateTypeContext(context, typeContext.getOutputTypeUnderlying());
             return TraversalControl.CONTINUE;
         }
+        OverallTypeInfo overallTypeInfo = recordOverallTypeInfo(field, context);
 
         GraphQLFieldDefinition fieldDefinitionOverall = overallTypeInfo.getFieldDefinition();
         GraphQLNamedOutputType fieldTypeOverall = (GraphQLNamedOutputType) GraphQLTypeUtil.unwrapAll(fieldDefinitionOverall.getType());
@@ -218,7 +229,7 @@ public class Transformer extends NodeVisitorStub {
             return TreeTransformerUtil.deleteNode(context);
         }
 
-        extractAndRecordTypeMappingDefinition(fieldTypeOverall.getName());
+        overallTypeRenames.recordTypeRenames(fieldTypeOverall.getName(), typeRenameMappings);
         FieldTransformation transformation = createTransformation(fieldDefinitionOverall);
         if (transformation != null) {
             //
@@ -248,6 +259,14 @@ public class Transformer extends NodeVisitorStub {
         return TraversalControl.CONTINUE;
     }
 
+    private OverallTypeInfo recordOverallTypeInfo(Field field, TraverserContext<Node> context) {
+        GraphQLFieldsContainer fieldsContainer = (GraphQLFieldsContainer) unwrapAll(context.getVarFromParents(GraphQLOutputType.class));
+        GraphQLFieldDefinition fieldDefinition = assertNotNull(fieldsContainer.getFieldDefinition(field.getName()), () -> String.format("field %s not found for type %s", field.getName(), fieldsContainer.getName()));
+        context.setVar(GraphQLFieldDefinition.class, fieldDefinition);
+        context.setVar(GraphQLOutputType.class, fieldDefinition.getType());
+        return new OverallTypeInfo(fieldsContainer, fieldDefinition, null, null);
+    }
+
     private void updateTypeContext(TraverserContext<Node> context, GraphQLOutputType currentOutputTypeUnderlying) {
         updateTypeContext(context, currentOutputTypeUnderlying, null);
     }
@@ -261,7 +280,9 @@ public class Transformer extends NodeVisitorStub {
         GraphQLOutputType newOutputTypeUnderlying = fieldDefinitionUnderlying.getType();
 
 
-        Map<String, Object> argumentValues = valuesResolver.getArgumentValues(underlyingSchema.getCodeRegistry(), fieldDefinitionUnderlying.getArguments(), newField.getArguments(), executionContext.getVariables());
+        // the argument values are only read when the arguments of this field are visited
+        Map<String, Object> argumentValues = newField.getArguments().isEmpty() ? emptyMap()
+                : valuesResolver.getArgumentValues(underlyingSchema.getCodeRegistry(), fieldDefinitionUnderlying.getArguments(), newField.getArguments(), executionContext.getVariables());
         UnderlyingTypeContext.Builder newTypeContext = newUnderlyingTypeContext()
                 .field(newField)
                 .outputTypeUnderlying(newOutputTypeUnderlying)
@@ -302,6 +323,7 @@ public class Transformer extends NodeVisitorStub {
         if (typeCondition == null) {
             return TraversalControl.CONTINUE;
         }
+        context.setVar(GraphQLOutputType.class, (GraphQLOutputType) assertNotNull(executionContext.getGraphQLSchema().getType(typeCondition.getName())));
 
         TypeMappingDefinition typeMappingDefinition = typeTransformationForFragment(executionContext, typeCondition);
         String underlyingTypeName = typeCondition.getName();
@@ -331,6 +353,7 @@ public class Transformer extends NodeVisitorStub {
     @Override
     public TraversalControl visitFragmentDefinition(FragmentDefinition fragment, TraverserContext<Node> context) {
         TypeName typeName = fragment.getTypeCondition();
+        context.setVar(GraphQLOutputType.class, (GraphQLOutputType) assertNotNull(executionContext.getGraphQLSchema().getType(typeName.getName())));
         TypeMappingDefinition typeMappingDefinition = typeTransformationForFragment(executionContext, typeName);
         String underlyingTypeName = typeName.getName();
         if (typeMappingDefinition != null) {
@@ -372,37 +395,9 @@ public class Transformer extends NodeVisitorStub {
     private TypeMappingDefinition typeTransformationForFragment(ExecutionContext executionContext, TypeName typeNameOverall) {
         GraphQLType type = executionContext.getGraphQLSchema().getType(typeNameOverall.getName());
         assertTrue(type instanceof GraphQLFieldsContainer, () -> String.format("Expected type '%s' to be an field container type", typeNameOverall));
-        return extractAndRecordTypeMappingDefinition(executionContext.getGraphQLSchema(), type);
-    }
-
-
-    @SuppressWarnings("ConstantConditions")
-    private TypeMappingDefinition extractAndRecordTypeMappingDefinition(String typeNameOverall) {
-        GraphQLType type = executionContext.getGraphQLSchema().getType(typeNameOverall);
-        return extractAndRecordTypeMappingDefinition(executionContext.getGraphQLSchema(), type);
+        return overallTypeRenames.recordTypeRenames(typeNameOverall.getName(), typeRenameMappings);
     }
 
-    @SuppressWarnings("UnnecessaryLocalVariable")
-    private TypeMappingDefinition extractAndRecordTypeMappingDefinition(GraphQLSchema graphQLSchema, GraphQLType type) {
-
-        TypeMappingDefinition typeMappingDefinition = getTypeMappingDefinitionFor(type);
-        recordTypeRename(typeMappingDefinition);
-
-        if (type instanceof GraphQLInterfaceType) {
-            GraphQLInterfaceType interfaceType = (GraphQLInterfaceType) type;
-
-            graphQLSchema.getImplementations(interfaceType).forEach(objectType -> {
-                extractAndRecordTypeMappingDefinition(graphQLSchema, objectType);
-            });
-        }
-        if (type instanceof GraphQLUnionType) {
-            GraphQLUnionType unionType = (GraphQLUnionType) type;
-            unionType.getTypes().forEach(typeMember -> {
-                extractAndRecordTypeMappingDefinition(graphQLSchema, typeMember);
-            });
-        }
-        return typeMappingDefinition;
-    }
 
     private graphql.nadel.dsl.FieldTransformation transformationDefinitionForField(FieldDefinition definition) {
         if (definition instanceof ExtendedFieldDefinition) {
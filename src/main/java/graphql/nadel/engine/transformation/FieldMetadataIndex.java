@@ -0,0 +1,86 @@
+package graphql.nadel.engine.transformation;
+
+import graphql.Internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * An immutable view of the field metadata of a transformed query, built once the transformation is done so the
+ * conversion of the results can look up the transformations of a field id without allocating anything.
+ */
+@Internal
+public class FieldMetadataIndex {
+
+    private static final Entry NO_METADATA = new Entry(emptyList(), emptyList());
+
+    private final Map<String, Entry> entriesByFieldId;
+
+    private FieldMetadataIndex(Map<String, Entry> entriesByFieldId) {
+        this.entriesByFieldId = entriesByFieldId;
+    }
+
+    public static FieldMetadataIndex build(Map<String, List<FieldMetadata>> metadataByFieldId) {
+        Map<String, Entry> entriesByFieldId = new HashMap<>(Math.max(16, metadataByFieldId.size() * 2));
+        for (Map.Entry<String, List<FieldMetadata>> metadataEntry : metadataByFieldId.entrySet()) {
+            List<FieldMetadata> fieldMetadata = metadataEntry.getValue();
+            if (fieldMetadata.isEmpty()) {
+                continue;
+            }
+            List<String> transformationIds = new ArrayList<>(fieldMetadata.size());
+            List<String> rootOfTransformationIds = new ArrayList<>(1);
+            for (FieldMetadata metadata : fieldMetadata) {
+                transformationIds.add(metadata.getTransformationId());
+                if (metadata.isRootOfTransformation()) {
+                    rootOfTransformationIds.add(metadata.getTransformationId());
+                }
+            }
+            entriesByFieldId.put(metadataEntry.getKey(), new Entry(
+                    Collections.unmodifiableList(transformationIds),
+                    rootOfTransformationIds.isEmpty() ? emptyList() : Collections.unmodifiableList(rootOfTransformationIds)));
+        }
+        return new FieldMetadataIndex(entriesByFieldId);
+    }
+
+    /**
+     * @param fieldId the id of a field in the transformed query
+     *
+     * @return the ids of all transformations the field is part of
+     */
+    public List<String> getTransformationIds(String fieldId) {
+        return entry(fieldId).transformationIds;
+    }
+
+    /**
+     * @param fieldId the id of a field in the transformed query
+     *
+     * @return the ids of the transformations the field is the root of
+     */
+    public List<String> getRootOfTransformationIds(String fieldId) {
+        return entry(fieldId).rootOfTransformationIds;
+    }
+
+    public boolean isRootOfTransformation(String fieldId) {
+        return !entry(fieldId).rootOfTransformationIds.isEmpty();
+    }
+
+    private Entry entry(String fieldId) {
+        Entry entry = entriesByFieldId.get(fieldId);
+        return entry != null ? entry : NO_METADATA;
+    }
+
+    private static class Entry {
+        private final List<String> transformationIds;
+        private final List<String> rootOfTransformationIds;
+
+        Entry(List<String> transformationIds, List<String> rootOfTransformationIds) {
+            this.transformationIds = transformationIds;
+            this.rootOfTransformationIds = rootOfTransformationIds;
+        }
+    }
+}
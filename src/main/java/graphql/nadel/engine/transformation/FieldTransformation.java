@@ -20,14 +20,13 @@ import java.util.stream.Collectors;
 
 import static graphql.Assert.assertShouldNeverHappen;
 import static graphql.Assert.assertTrue;
-import static java.util.UUID.randomUUID;
 
 @Internal
 public abstract class FieldTransformation {
 
 
     private ApplyEnvironment environment;
-    private String transformationId = getClass().getSimpleName() + "-" + randomUUID().toString();
+    private String transformationId = getClass().getSimpleName() + "-" + NodeId.newId();
 
     public abstract ApplyResult apply(ApplyEnvironment environment);
 
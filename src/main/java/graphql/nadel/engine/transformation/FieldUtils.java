@@ -20,7 +20,6 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 import java.util.function.Function;
 
 import static graphql.Assert.assertNotNull;
@@ -31,6 +30,8 @@ import static graphql.nadel.util.FpKit.map;
 @Internal
 public final class FieldUtils {
 
+    private static final String NEW_FIELD_ID_PREFIX = "new-field_";
+
     /**
      * This returns the aliased result name if a field is alised other its the field name
      *
@@ -42,6 +43,15 @@ public final class FieldUtils {
         return field.getAlias() != null ? field.getAlias() : field.getName();
     }
 
+    /**
+     * @param field a field of a query that is transformed
+     *
+     * @return true if the field was added by {@link #pathToFields} and is not part of the overall query
+     */
+    public static boolean isNewField(Field field) {
+        return NodeId.getId(field).startsWith(NEW_FIELD_ID_PREFIX);
+    }
+
     public static Field pathToFields(List<String> path,
                                      Field copyFieldMetadataFrom,
                                      String transformationId,
@@ -61,7 +71,7 @@ public final class FieldUtils {
         Field curField = null;
         for (int ix = path.size() - 1; ix >= 0; ix--) {
             Field.Builder newField = Field.newField();
-            String fieldId = "new-field_" + path.get(ix) + "_" + UUID.randomUUID().toString();
+            String fieldId = NEW_FIELD_ID_PREFIX + path.get(ix) + NodeId.newId();
             newField.additionalData(NodeId.ID, fieldId);
             FieldMetadataUtil.setFieldMetadata(fieldId, transformationId, additionalIds, ix == 0 && firstRootOfTransformation, metadataByFieldId);
             if (ix == path.size() - 1 && lastSelectionSet != null) {
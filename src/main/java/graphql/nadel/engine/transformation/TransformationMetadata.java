@@ -16,6 +16,8 @@ public class TransformationMetadata {
 
     private final Map<String, List<FieldMetadata>> metadataByFieldId = new LinkedHashMap<>();
 
+    private volatile FieldMetadataIndex fieldMetadataIndex;
+
     public static class NormalizedFieldAndError {
         private final NormalizedQueryField normalizedField;
         private final GraphQLError error;
@@ -40,6 +42,20 @@ public class TransformationMetadata {
         }
     }
 
+    /**
+     * Adds the removed fields and field metadata of another transformation
+     *
+     * @param other the metadata to add
+     */
+    public void addAll(TransformationMetadata other) {
+        removedFields.addAll(other.removedFields);
+        other.metadataByFieldId.forEach((fieldId, metadata) -> metadataByFieldId.computeIfAbsent(fieldId, id -> new ArrayList<>()).addAll(metadata));
+    }
+
+    public boolean hasRemovedFields() {
+        return !removedFields.isEmpty();
+    }
+
     public List<NormalizedFieldAndError> getRemovedFieldsForParent(NormalizedQueryField parent) {
         List<NormalizedFieldAndError> result = new ArrayList<>();
         for (NormalizedFieldAndError fieldAndError : removedFields) {
@@ -54,5 +70,20 @@ public class TransformationMetadata {
         return metadataByFieldId;
     }
 
-}
+    /**
+     * Builds the index of the field metadata, called when the transformation of the query is done and no more
+     * metadata is added
+     */
+    public void indexFieldMetadata() {
+        fieldMetadataIndex = FieldMetadataIndex.build(metadataByFieldId);
+    }
 
+    public FieldMetadataIndex getFieldMetadataIndex() {
+        FieldMetadataIndex index = fieldMetadataIndex;
+        if (index == null) {
+            index = FieldMetadataIndex.build(metadataByFieldId);
+            fieldMetadataIndex = index;
+        }
+        return index;
+    }
+}
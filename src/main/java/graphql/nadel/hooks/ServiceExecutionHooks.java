@@ -36,6 +36,25 @@ public interface ServiceExecutionHooks {
         return Optional.empty();
     }
 
+    /**
+     * Called when query plans are cached, see {@code Nadel.Builder#queryPlanCacheSize(int)}.  The transformed query of a
+     * service is only shared between requests with equal keys, and {@link #isFieldAllowed} and
+     * {@link #visitArgumentValueInQuery} are not called again for a shared query.  So the key has to cover everything
+     * apart from the query that these hooks depend on.
+     *
+     * By default it is the service context, so a service context made per request means that nothing is shared.  Override
+     * it when the hooks depend on the user supplied context, or to share queries between requests with different service
+     * contexts, for example by returning the permissions the hooks check.
+     *
+     * @param serviceContext      the service context of the call
+     * @param userSuppliedContext the context of the request
+     *
+     * @return the key, which needs equals and hashCode
+     */
+    default Object queryPlanCacheKey(Object serviceContext, Object userSuppliedContext) {
+        return serviceContext;
+    }
+
     /**
      * Called to allow a service to post process the service result in some fashion.
      *
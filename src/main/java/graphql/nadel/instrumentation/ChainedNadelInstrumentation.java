@@ -11,6 +11,7 @@ import graphql.nadel.ServiceExecution;
 import graphql.nadel.instrumentation.parameters.NadelInstrumentRootExecutionResultParameters;
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationCreateStateParameters;
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationExecuteOperationParameters;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationPreparsedDocumentCacheParameters;
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationQueryExecutionParameters;
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationServiceExecutionParameters;
 import graphql.nadel.instrumentation.parameters.NadelNadelInstrumentationQueryValidationParameters;
@@ -144,6 +145,13 @@ public class ChainedNadelInstrumentation implements NadelInstrumentation {
         return rootExecutionResultNode;
     }
 
+    @Override
+    public void preparsedDocumentCacheEvent(NadelInstrumentationPreparsedDocumentCacheParameters parameters) {
+        for (NadelInstrumentation instrumentation : instrumentations) {
+            instrumentation.preparsedDocumentCacheEvent(parameters);
+        }
+    }
+
     private static class ChainedInstrumentationState implements InstrumentationState {
         private final Map<NadelInstrumentation, InstrumentationState> instrumentationStates;
 
@@ -11,6 +11,7 @@ import graphql.nadel.ServiceExecution;
 import graphql.nadel.instrumentation.parameters.NadelInstrumentRootExecutionResultParameters;
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationCreateStateParameters;
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationExecuteOperationParameters;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationPreparsedDocumentCacheParameters;
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationQueryExecutionParameters;
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationServiceExecutionParameters;
 import graphql.nadel.instrumentation.parameters.NadelNadelInstrumentationQueryValidationParameters;
@@ -145,4 +146,13 @@ public interface NadelInstrumentation {
         return rootExecutionResultNode;
     }
 
+    /**
+     * This is called for every hit, miss and eviction of the document cache of
+     * {@link graphql.nadel.Nadel.Builder#preparsedDocumentCacheSize(long)}, for example to count them.
+     *
+     * @param parameters the parameters to this step
+     */
+    default void preparsedDocumentCacheEvent(NadelInstrumentationPreparsedDocumentCacheParameters parameters) {
+    }
+
 }
@@ -0,0 +1,33 @@
+package graphql.nadel.instrumentation.parameters;
+
+import graphql.ExecutionInput;
+import graphql.PublicApi;
+import graphql.nadel.DefaultPreparsedDocumentProvider.CacheEvent;
+
+/**
+ * Parameters sent to {@link graphql.nadel.instrumentation.NadelInstrumentation} methods.  The cache is shared by all
+ * requests, so unlike the other parameters these carry no instrumentation state.
+ */
+@PublicApi
+public class NadelInstrumentationPreparsedDocumentCacheParameters {
+
+    private final CacheEvent cacheEvent;
+    private final ExecutionInput executionInput;
+
+    public NadelInstrumentationPreparsedDocumentCacheParameters(CacheEvent cacheEvent, ExecutionInput executionInput) {
+        this.cacheEvent = cacheEvent;
+        this.executionInput = executionInput;
+    }
+
+    public CacheEvent getCacheEvent() {
+        return cacheEvent;
+    }
+
+    /**
+     * @return the input of the query that was looked up, an eviction removes the document of another query
+     */
+    public ExecutionInput getExecutionInput() {
+        return executionInput;
+    }
+
+}
@@ -10,21 +10,51 @@ import graphql.GraphqlErrorBuilder;
 import graphql.Internal;
 import graphql.execution.ExecutionContext;
 import graphql.execution.nextgen.FieldSubSelection;
+import graphql.schema.GraphQLSchema;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
+import static graphql.language.AstPrinter.printAstCompact;
 import static java.util.concurrent.CompletableFuture.completedFuture;
 
+/**
+ * Runs introspection over the overall schema.
+ *
+ * One {@link GraphQL} instance is kept for the schema, and the results of introspection queries without errors are
+ * cached by the printed document, the operation name and the variables.  Tooling sends the same large introspection
+ * query over and over, so most of them are answered from the cache.  Everything is dropped when a different schema
+ * comes along.  Cached results are shared and can't be changed.
+ */
 @Internal
 public class DefaultIntrospectionRunner implements IntrospectionRunner {
 
+    private static final int DEFAULT_MAX_CACHED_RESULTS = 100;
+
     private enum Errors implements ErrorClassification {
         MixedIntrospectionAndNormalFields
     }
 
+    private final int maxCachedResults;
+    private volatile SchemaIntrospection schemaIntrospection;
+
+    public DefaultIntrospectionRunner() {
+        this(DEFAULT_MAX_CACHED_RESULTS);
+    }
+
+    /**
+     * @param maxCachedResults how many distinct introspection results are kept, 0 turns the cache off
+     */
+    public DefaultIntrospectionRunner(int maxCachedResults) {
+        this.maxCachedResults = maxCachedResults;
+    }
+
     @SuppressWarnings("RedundantIfStatement")
     @Override
     public boolean isIntrospectionQuery(ExecutionContext executionContext, FieldSubSelection fieldSubSelection) {
@@ -45,8 +75,30 @@ public class DefaultIntrospectionRunner implements IntrospectionRunner {
                     .build();
             return completedFuture(executionResult);
         }
-        GraphQL graphQL = GraphQL.newGraphQL(executionContext.getGraphQLSchema()).build();
-        return graphQL.executeAsync(executionInput);
+        SchemaIntrospection schemaIntrospection = getSchemaIntrospection(executionContext.getGraphQLSchema());
+        if (maxCachedResults <= 0) {
+            return schemaIntrospection.graphQL.executeAsync(executionInput);
+        }
+        ResultKey key = new ResultKey(printAstCompact(executionContext.getDocument()), executionInput.getOperationName(), executionInput.getVariables());
+        ExecutionResult cachedResult = schemaIntrospection.get(key);
+        if (cachedResult != null) {
+            return completedFuture(cachedResult);
+        }
+        return schemaIntrospection.graphQL.executeAsync(executionInput).thenApply(executionResult -> {
+            if (!executionResult.getErrors().isEmpty()) {
+                return executionResult;
+            }
+            return schemaIntrospection.put(key, executionResult);
+        });
+    }
+
+    private SchemaIntrospection getSchemaIntrospection(GraphQLSchema schema) {
+        SchemaIntrospection current = schemaIntrospection;
+        if (current == null || current.schema != schema) {
+            current = new SchemaIntrospection(schema, maxCachedResults);
+            schemaIntrospection = current;
+        }
+        return current;
     }
 
     private boolean isAllSystemFields(FieldSubSelection fieldSubSelection) {
@@ -69,4 +121,88 @@ public class DefaultIntrospectionRunner implements IntrospectionRunner {
 
         return Collections.singletonList(error);
     }
+
+    private static class SchemaIntrospection {
+        private final GraphQLSchema schema;
+        private final GraphQL graphQL;
+        private final Map<ResultKey, ExecutionResult> results;
+
+        SchemaIntrospection(GraphQLSchema schema, int maxCachedResults) {
+            this.schema = schema;
+            this.graphQL = GraphQL.newGraphQL(schema).build();
+            this.results = new LinkedHashMap<ResultKey, ExecutionResult>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<ResultKey, ExecutionResult> eldest) {
+                    return size() > maxCachedResults;
+                }
+            };
+        }
+
+        ExecutionResult get(ResultKey key) {
+            synchronized (results) {
+                return results.get(key);
+            }
+        }
+
+        ExecutionResult put(ResultKey key, ExecutionResult executionResult) {
+            ExecutionResult cachedResult = ExecutionResultImpl.newExecutionResult()
+                    .data(unmodifiable(executionResult.getData()))
+                    .extensions(executionResult.getExtensions())
+                    .build();
+            synchronized (results) {
+                results.put(key, cachedResult);
+            }
+            return cachedResult;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object unmodifiable(Object value) {
+        if (value instanceof Map) {
+            Map<Object, Object> result = new LinkedHashMap<>();
+            for (Map.Entry<Object, Object> entry : ((Map<Object, Object>) value).entrySet()) {
+                result.put(entry.getKey(), unmodifiable(entry.getValue()));
+            }
+            return Collections.unmodifiableMap(result);
+        }
+        if (value instanceof List) {
+            List<Object> result = new ArrayList<>();
+            for (Object item : (List<Object>) value) {
+                result.add(unmodifiable(item));
+            }
+            return Collections.unmodifiableList(result);
+        }
+        return value;
+    }
+
+    private static class ResultKey {
+        private final String document;
+        private final String operationName;
+        private final Map<String, Object> variables;
+
+        ResultKey(String document, String operationName, Map<String, Object> variables) {
+            this.document = document;
+            this.operationName = operationName;
+            this.variables = variables;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            ResultKey resultKey = (ResultKey) o;
+            return document.equals(resultKey.document) &&
+                    Objects.equals(operationName, resultKey.operationName) &&
+                    Objects.equals(variables, resultKey.variables);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(document, operationName, variables);
+        }
+    }
 }
@@ -3,7 +3,11 @@ package graphql.nadel.normalized;
 import graphql.Internal;
 import graphql.execution.MergedField;
 import graphql.nadel.dsl.NodeId;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLObjectType;
 
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -13,6 +17,9 @@ public class NormalizedQueryFromAst {
     private final List<NormalizedQueryField> topLevelFields;
     private final Map<String, List<NormalizedQueryField>> normalizedFieldsByFieldId;
     private final Map<NormalizedQueryField, MergedField> mergedFieldByNormalizedFields;
+    private final Map<NormalizedQueryField, List<String>> fieldIdsByNormalizedField;
+    // built on first use, it is only needed for the overall query
+    private volatile Map<String, Map<GraphQLObjectType, NormalizedQueryField>> normalizedFieldByFieldIdAndObjectType;
 
     public NormalizedQueryFromAst(List<NormalizedQueryField> topLevelFields,
                                   Map<String, List<NormalizedQueryField>> normalizedFieldsByFieldId,
@@ -20,6 +27,10 @@ public class NormalizedQueryFromAst {
         this.topLevelFields = topLevelFields;
         this.normalizedFieldsByFieldId = normalizedFieldsByFieldId;
         this.mergedFieldByNormalizedFields = mergedFieldByNormalizedFields;
+        this.fieldIdsByNormalizedField = new IdentityHashMap<>(mergedFieldByNormalizedFields.size());
+        for (Map.Entry<NormalizedQueryField, MergedField> entry : mergedFieldByNormalizedFields.entrySet()) {
+            fieldIdsByNormalizedField.put(entry.getKey(), NodeId.getIds(entry.getValue()));
+        }
     }
 
     public List<NormalizedQueryField> getTopLevelFields() {
@@ -39,7 +50,54 @@ public class NormalizedQueryFromAst {
     }
 
     public List<String> getFieldIds(NormalizedQueryField normalizedQueryField) {
-        MergedField mergedField = mergedFieldByNormalizedFields.get(normalizedQueryField);
-        return NodeId.getIds(mergedField);
+        List<String> fieldIds = fieldIdsByNormalizedField.get(normalizedQueryField);
+        if (fieldIds != null) {
+            return fieldIds;
+        }
+        return NodeId.getIds(mergedFieldByNormalizedFields.get(normalizedQueryField));
+    }
+
+    /**
+     * Finds the normalized field of a result node.  An ast field gives one normalized field per possible object
+     * type, or several if it is part of a fragment that is used more than once, in which case the first one is returned.
+     *
+     * @param astFieldId      the id of one of the ast fields of the result node
+     * @param objectType      the object type of the result node
+     * @param fieldDefinition the field definition of the result node
+     *
+     * @return the normalized field or null if there is none
+     */
+    public NormalizedQueryField getNormalizedField(String astFieldId, GraphQLObjectType objectType, GraphQLFieldDefinition fieldDefinition) {
+        Map<GraphQLObjectType, NormalizedQueryField> normalizedFieldsByObjectType = getNormalizedFieldByFieldIdAndObjectType().get(astFieldId);
+        if (normalizedFieldsByObjectType == null) {
+            return null;
+        }
+        NormalizedQueryField normalizedField = normalizedFieldsByObjectType.get(objectType);
+        if (normalizedField != null && normalizedField.getFieldDefinition() == fieldDefinition) {
+            return normalizedField;
+        }
+        // the same ast field on the same object type always has the same field definition, but be safe
+        for (NormalizedQueryField candidate : normalizedFieldsByFieldId.get(astFieldId)) {
+            if (candidate.getObjectType() == objectType && candidate.getFieldDefinition() == fieldDefinition) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private Map<String, Map<GraphQLObjectType, NormalizedQueryField>> getNormalizedFieldByFieldIdAndObjectType() {
+        Map<String, Map<GraphQLObjectType, NormalizedQueryField>> result = normalizedFieldByFieldIdAndObjectType;
+        if (result == null) {
+            result = new HashMap<>(normalizedFieldsByFieldId.size() * 2);
+            for (Map.Entry<String, List<NormalizedQueryField>> entry : normalizedFieldsByFieldId.entrySet()) {
+                Map<GraphQLObjectType, NormalizedQueryField> byObjectType = new IdentityHashMap<>(entry.getValue().size());
+                for (NormalizedQueryField normalizedField : entry.getValue()) {
+                    byObjectType.putIfAbsent(normalizedField.getObjectType(), normalizedField);
+                }
+                result.put(entry.getKey(), byObjectType);
+            }
+            normalizedFieldByFieldIdAndObjectType = result;
+        }
+        return result;
     }
 }
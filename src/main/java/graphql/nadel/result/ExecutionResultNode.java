@@ -38,12 +38,28 @@ public abstract class ExecutionResultNode {
 
     /*
      * we are trusting here the the children list is not modified on the outside (no defensive copy)
+     *
+     * Lists a builder took over from an existing node are already unmodifiable and checked, so they are shared as
+     * they are.  Lists the builder owns are handed over to this node, the builder copies them again if it is
+     * changed and used once more.
      */
     protected ExecutionResultNode(BuilderBase builderBase) {
         this.completedValue = builderBase.completedValue;
-        this.children = Collections.unmodifiableList(assertNotNull(builderBase.children));
-        children.forEach(Assert::assertNotNull);
-        this.errors = Collections.unmodifiableList(builderBase.errors);
+        if (builderBase.childrenShared) {
+            this.children = builderBase.children;
+        } else {
+            this.children = Collections.unmodifiableList(assertNotNull(builderBase.children));
+            children.forEach(Assert::assertNotNull);
+            builderBase.children = this.children;
+            builderBase.childrenShared = true;
+        }
+        if (builderBase.errorsShared) {
+            this.errors = builderBase.errors;
+        } else {
+            this.errors = Collections.unmodifiableList(builderBase.errors);
+            builderBase.errors = this.errors;
+            builderBase.errorsShared = true;
+        }
         this.extensions = builderBase.extensions;
         this.elapsedTime = builderBase.elapsedTime;
         this.totalNodeCount = builderBase.totalNodeCount;
@@ -157,6 +173,10 @@ public abstract class ExecutionResultNode {
                 '}';
     }
 
+    /*
+     * The lists of a builder are copied on first change only: a builder created from an existing node shares the
+     * lists of that node, which is what makes transform(...) cheap for the common case of changing a few fields.
+     */
     public abstract static class BuilderBase<T extends BuilderBase<T>> {
         protected Object completedValue;
         protected NonNullableFieldWasNullError nonNullableFieldWasNullError;
@@ -172,6 +192,9 @@ public abstract class ExecutionResultNode {
         private GraphQLObjectType objectType;
         private int totalNodeCount;
 
+        private boolean childrenShared;
+        private boolean errorsShared;
+
 
         public BuilderBase() {
 
@@ -180,13 +203,16 @@ public abstract class ExecutionResultNode {
         public BuilderBase(ExecutionResultNode existing) {
             this.completedValue = existing.getCompletedValue();
             this.nonNullableFieldWasNullError = existing.getNonNullableFieldWasNullError();
-            this.children.addAll(existing.getChildren());
-            this.errors.addAll(existing.getErrors());
+            this.children = existing.getChildren();
+            this.childrenShared = true;
+            this.errors = existing.getErrors();
+            this.errorsShared = true;
             this.extensions = existing.extensions;
             this.elapsedTime = existing.getElapsedTime();
             this.executionPath = existing.getExecutionPath();
             this.alias = existing.getAlias();
-            this.fieldIds.addAll(existing.getFieldIds());
+            // never changed in place, fieldIds(...) replaces the list
+            this.fieldIds = existing.getFieldIds();
 
             this.fieldDefinition = existing.fieldDefinition;
             this.objectType = existing.objectType;
@@ -222,30 +248,48 @@ public abstract class ExecutionResultNode {
         }
 
         public T fieldIds(List<String> fieldIds) {
-            this.fieldIds.clear();
-            this.fieldIds.addAll(fieldIds);
+            this.fieldIds = new ArrayList<>(fieldIds);
             return (T) this;
         }
 
         public T fieldId(String fieldId) {
-            this.fieldIds.clear();
+            this.fieldIds = new ArrayList<>(1);
             this.fieldIds.add(fieldId);
             return (T) this;
         }
 
         public T children(List<ExecutionResultNode> children) {
-            this.children.clear();
-            this.children.addAll(children);
+            this.children = new ArrayList<>(children);
+            this.childrenShared = false;
+            return (T) this;
+        }
+
+        /**
+         * Uses the list as the children without copying it, for callers that built the list just for this node
+         * and don't touch it afterwards
+         *
+         * @param children the new children
+         *
+         * @return this builder
+         */
+        public T ownedChildren(List<ExecutionResultNode> children) {
+            this.children = children;
+            this.childrenShared = false;
             return (T) this;
         }
 
         public T addChild(ExecutionResultNode child) {
+            if (childrenShared) {
+                this.children = new ArrayList<>(this.children);
+                this.childrenShared = false;
+            }
             this.children.add(child);
             return (T) this;
         }
 
         public T errors(List<GraphQLError> errors) {
             this.errors = errors;
+            this.errorsShared = false;
             return (T) this;
         }
 
@@ -255,6 +299,10 @@ public abstract class ExecutionResultNode {
         }
 
         public T addError(GraphQLError error) {
+            if (errorsShared) {
+                this.errors = new ArrayList<>(this.errors);
+                this.errorsShared = false;
+            }
             this.errors.add(error);
             return (T) this;
         }
@@ -40,6 +40,6 @@ public class ResultNodeAdapter implements NodeAdapter<ExecutionResultNode> {
         List<ExecutionResultNode> childrenList = new ArrayList<>(parentNode.getChildren());
         assertTrue(index >= 0 && index < childrenList.size(), () -> "The remove index MUST be within the range of the children");
         childrenList.remove(index);
-        return parentNode.transform(builder -> builder.children(childrenList));
+        return parentNode.transform(builder -> builder.ownedChildren(childrenList));
     }
 }
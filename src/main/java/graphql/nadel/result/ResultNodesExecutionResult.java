@@ -0,0 +1,258 @@
+package graphql.nadel.result;
+
+import graphql.ExecutionResult;
+import graphql.GraphQLError;
+import graphql.Internal;
+import graphql.nadel.util.JsonWriterKit;
+import graphql.schema.GraphQLNonNull;
+import graphql.schema.GraphQLOutputType;
+import graphql.schema.GraphQLTypeUtil;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * An {@link ExecutionResult} that is backed by the final result node tree.
+ *
+ * The data is only turned into maps when {@link #getData()} or {@link #toSpecification()} is called,
+ * {@link #writeJson(Writer)} writes the result straight from the result nodes.  Both give the same
+ * result as {@link ResultNodesUtil#toExecutionResult(RootExecutionResultNode)}, including how non null
+ * errors null out their parents.
+ */
+@Internal
+public class ResultNodesExecutionResult implements ExecutionResult {
+
+    private final RootExecutionResultNode rootNode;
+    private final Map<Object, Object> additionalExtensions;
+
+    private volatile Analysis analysis;
+    private volatile ExecutionResult materialized;
+
+    public ResultNodesExecutionResult(RootExecutionResultNode rootNode, Map<Object, Object> additionalExtensions) {
+        this.rootNode = rootNode;
+        this.additionalExtensions = additionalExtensions;
+    }
+
+    public RootExecutionResultNode getRootNode() {
+        return rootNode;
+    }
+
+    @Override
+    public List<GraphQLError> getErrors() {
+        return analysis().errors;
+    }
+
+    @Override
+    public <T> T getData() {
+        return materialized().getData();
+    }
+
+    @Override
+    public boolean isDataPresent() {
+        return true;
+    }
+
+    @Override
+    public Map<Object, Object> getExtensions() {
+        Map<Object, Object> extensions = null;
+        if (analysis().rootError == null) {
+            extensions = new LinkedHashMap<>(rootNode.getExtensions());
+        }
+        if (!additionalExtensions.isEmpty()) {
+            extensions = extensions == null ? new LinkedHashMap<>() : extensions;
+            extensions.putAll(additionalExtensions);
+        }
+        return extensions;
+    }
+
+    @Override
+    public Map<String, Object> toSpecification() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        List<GraphQLError> errors = getErrors();
+        if (!errors.isEmpty()) {
+            List<Map<String, Object>> errorsSpec = new ArrayList<>(errors.size());
+            for (GraphQLError error : errors) {
+                errorsSpec.add(error.toSpecification());
+            }
+            result.put("errors", errorsSpec);
+        }
+        result.put("data", getData());
+        Map<Object, Object> extensions = getExtensions();
+        if (extensions != null) {
+            result.put("extensions", extensions);
+        }
+        return result;
+    }
+
+    /**
+     * Writes this result in the graphql response format, without building the data as maps first.
+     *
+     * @param writer the writer to write to, it is neither flushed nor closed
+     *
+     * @throws IOException if writing fails
+     */
+    public void writeJson(Writer writer) throws IOException {
+        Analysis analysis = analysis();
+        writer.write('{');
+        if (!analysis.errors.isEmpty()) {
+            writer.write("\"errors\":[");
+            boolean first = true;
+            for (GraphQLError error : analysis.errors) {
+                if (!first) {
+                    writer.write(',');
+                }
+                first = false;
+                JsonWriterKit.writeValue(writer, error.toSpecification());
+            }
+            writer.write("],");
+        }
+        writer.write("\"data\":");
+        if (analysis.rootError != null) {
+            writer.write("null");
+        } else {
+            writeNode(writer, rootNode, analysis.nulledNodes);
+        }
+        Map<Object, Object> extensions = getExtensions();
+        if (extensions != null) {
+            writer.write(",\"extensions\":");
+            JsonWriterKit.writeValue(writer, extensions);
+        }
+        writer.write('}');
+    }
+
+    private void writeNode(Writer writer, ExecutionResultNode node, Set<ExecutionResultNode> nulledNodes) throws IOException {
+        if (node instanceof UnresolvedObjectResultNode) {
+            JsonWriterKit.writeString(writer, "Not resolved : " + node.getExecutionPath() + " with field " + node.getFieldName());
+        } else if (node instanceof LeafExecutionResultNode) {
+            JsonWriterKit.writeValue(writer, node.getCompletedValue());
+        } else if (nulledNodes.contains(node)) {
+            writer.write("null");
+        } else if (node instanceof ListExecutionResultNode) {
+            writer.write('[');
+            boolean first = true;
+            for (ExecutionResultNode child : node.getChildren()) {
+                if (!first) {
+                    writer.write(',');
+                }
+                first = false;
+                writeNode(writer, child, nulledNodes);
+            }
+            writer.write(']');
+        } else {
+            writer.write('{');
+            boolean first = true;
+            for (ExecutionResultNode child : node.getChildren()) {
+                if (!first) {
+                    writer.write(',');
+                }
+                first = false;
+                JsonWriterKit.writeString(writer, child.getResultKey());
+                writer.write(':');
+                writeNode(writer, child, nulledNodes);
+            }
+            writer.write('}');
+        }
+    }
+
+    private ExecutionResult materialized() {
+        if (materialized == null) {
+            materialized = ResultNodesUtil.toExecutionResult(rootNode);
+        }
+        return materialized;
+    }
+
+    private Analysis analysis() {
+        if (analysis == null) {
+            analysis = new Analysis(rootNode);
+        }
+        return analysis;
+    }
+
+    @Override
+    public String toString() {
+        return "ResultNodesExecutionResult{" +
+                "errors=" + getErrors() +
+                ", extensions=" + getExtensions() +
+                '}';
+    }
+
+    /**
+     * Collects the errors of the tree and the object and list nodes that are nulled out because of a non null child,
+     * the same way {@link ResultNodesUtil} does it while building the data.
+     */
+    private static class Analysis {
+        private final List<GraphQLError> errors;
+        private final NonNullableFieldWasNullError rootError;
+        private Set<ExecutionResultNode> nulledNodes = Collections.emptySet();
+
+        Analysis(RootExecutionResultNode rootNode) {
+            List<GraphQLError> errors = new ArrayList<>();
+            this.rootError = analyze(rootNode, errors);
+            if (rootError != null) {
+                errors.clear();
+                errors.add(rootError);
+            }
+            this.errors = unmodifiableList(errors);
+        }
+
+        /*
+         * Returns the error that nulls out the parent of this node, if there is one.
+         */
+        private NonNullableFieldWasNullError analyze(ExecutionResultNode node, List<GraphQLError> errors) {
+            if (node instanceof UnresolvedObjectResultNode) {
+                return null;
+            }
+            if (node instanceof LeafExecutionResultNode) {
+                if (node.getNonNullableFieldWasNullError() != null) {
+                    return node.getNonNullableFieldWasNullError();
+                }
+                errors.addAll(node.getErrors());
+                return null;
+            }
+
+            boolean isNonNull = node instanceof RootExecutionResultNode;
+            GraphQLOutputType actualType = null;
+            if (node.getFieldDefinition() != null) {
+                actualType = ResultNodesUtil.getActualType(node.getFieldDefinition(), node.getExecutionPath());
+                isNonNull = GraphQLTypeUtil.isNonNull(actualType);
+            }
+
+            int errorCount = errors.size();
+            for (ExecutionResultNode child : node.getChildren()) {
+                NonNullableFieldWasNullError childError = analyze(child, errors);
+                if (isNonNull && (child.getNonNullableFieldWasNullError() != null || childError != null)) {
+                    truncate(errors, errorCount);
+                    GraphQLOutputType nonNullType = actualType != null ? actualType : child.getFieldDefinition().getType();
+                    return new NonNullableFieldWasNullError((GraphQLNonNull) nonNullType, node.getExecutionPath());
+                } else if (childError != null) {
+                    truncate(errors, errorCount);
+                    errors.add(childError);
+                    markNulled(node);
+                    return null;
+                }
+            }
+            errors.addAll(node.getErrors());
+            return null;
+        }
+
+        private void markNulled(ExecutionResultNode node) {
+            if (nulledNodes.isEmpty()) {
+                nulledNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+            }
+            nulledNodes.add(node);
+        }
+
+        private static void truncate(List<GraphQLError> errors, int size) {
+            errors.subList(size, errors.size()).clear();
+        }
+    }
+}
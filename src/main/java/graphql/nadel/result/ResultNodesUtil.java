@@ -172,7 +172,7 @@ public class ResultNodesUtil {
     }
 
 
-    private static GraphQLOutputType getActualType(GraphQLFieldDefinition fieldDefinition, ExecutionPath executionPath) {
+    static GraphQLOutputType getActualType(GraphQLFieldDefinition fieldDefinition, ExecutionPath executionPath) {
         // example: field definition type: [[String]!]!, path: /foo/bar/type[3] => result is [String]!
         GraphQLOutputType result = fieldDefinition.getType();
         while (executionPath.isListSegment()) {
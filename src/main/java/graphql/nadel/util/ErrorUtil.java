@@ -33,6 +33,20 @@ public class ErrorUtil {
         return errorBuilder.build();
     }
 
+    public static GraphQLError withPath(GraphQLError error, List<Object> path) {
+        GraphqlErrorBuilder errorBuilder = GraphqlErrorBuilder.newError();
+        errorBuilder.message(error.getMessage());
+        errorBuilder.errorType(error.getErrorType());
+        errorBuilder.path(path);
+        if (error.getLocations() != null) {
+            errorBuilder.locations(error.getLocations());
+        }
+        if (error.getExtensions() != null) {
+            errorBuilder.extensions(error.getExtensions());
+        }
+        return errorBuilder.build();
+    }
+
     @SuppressWarnings("unchecked") // it needs to be this.  a class cast exception will tell it when its not
     private static void extractPath(GraphqlErrorBuilder errorBuilder, Map<String, Object> rawError) {
         List<Object> path = (List<Object>) rawError.get("path");
@@ -3,8 +3,6 @@ package graphql.nadel.util;
 import graphql.Internal;
 import graphql.execution.ExecutionPath;
 
-import java.util.List;
-
 @Internal
 public class ExecutionPathUtils {
 
@@ -15,24 +13,14 @@ public class ExecutionPathUtils {
      *
      * @return true if its a list ending path
      */
-    @SuppressWarnings("RedundantIfStatement")
     public static boolean isListEndingPath(ExecutionPath path) {
-        List<Object> segments = path.toList();
-        if (segments.isEmpty()) {
-            return false;
-        }
-        if (segments.get(segments.size() - 1) instanceof String) {
-            return false;
-        }
-        return true;
+        return path.isListSegment();
     }
 
     public static ExecutionPath removeLastSegment(ExecutionPath path) {
-        List<Object> segments = path.toList();
-        if (segments.isEmpty()) {
+        if (path.isRootPath()) {
             return path;
         }
-        segments = segments.subList(0, segments.size() - 1);
-        return ExecutionPath.fromList(segments);
+        return path.getParent();
     }
 }
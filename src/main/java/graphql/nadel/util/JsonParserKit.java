@@ -0,0 +1,78 @@
+package graphql.nadel.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import graphql.Internal;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Internal
+public class JsonParserKit {
+
+    /**
+     * Reads the value starting at the current token into maps, lists and plain values.  Afterwards the parser
+     * is positioned at the last token of that value.
+     *
+     * @param parser the parser positioned at the first token of a value
+     *
+     * @return the value
+     *
+     * @throws IOException if the JSON can't be read
+     */
+    public static Object readValue(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == null) {
+            throw new IOException("Unexpected end of JSON input");
+        }
+        switch (token) {
+            case START_OBJECT:
+                Map<String, Object> map = new LinkedHashMap<>();
+                while (nextFieldOrEnd(parser) == JsonToken.FIELD_NAME) {
+                    String key = parser.getCurrentName();
+                    parser.nextToken();
+                    map.put(key, readValue(parser));
+                }
+                return map;
+            case START_ARRAY:
+                List<Object> list = new ArrayList<>();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    list.add(readValue(parser));
+                }
+                return list;
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return parser.getNumberValue();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_NULL:
+                return null;
+            default:
+                throw new IOException("Unexpected JSON token " + token);
+        }
+    }
+
+    /**
+     * Moves to the next entry of the object that is currently read.
+     *
+     * @param parser the parser positioned inside an object
+     *
+     * @return either {@link JsonToken#FIELD_NAME} or {@link JsonToken#END_OBJECT}
+     *
+     * @throws IOException if the input ends before the object does
+     */
+    public static JsonToken nextFieldOrEnd(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+            throw new IOException("Unexpected JSON token " + token + " in object");
+        }
+        return token;
+    }
+}
@@ -0,0 +1,124 @@
+package graphql.nadel.util;
+
+import graphql.Internal;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.Map;
+
+@Internal
+public class JsonWriterKit {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * Writes maps, iterables, arrays and plain values as JSON.  Values that have no JSON representation are
+     * written as their string value.
+     *
+     * @param writer the writer to write to
+     * @param value  the value to write
+     *
+     * @throws IOException if writing fails
+     */
+    public static void writeValue(Writer writer, Object value) throws IOException {
+        if (value == null) {
+            writer.write("null");
+        } else if (value instanceof String) {
+            writeString(writer, (String) value);
+        } else if (value instanceof Boolean) {
+            writer.write(value.toString());
+        } else if (value instanceof Number) {
+            writeNumber(writer, (Number) value);
+        } else if (value instanceof Map) {
+            writer.write('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!first) {
+                    writer.write(',');
+                }
+                first = false;
+                writeString(writer, String.valueOf(entry.getKey()));
+                writer.write(':');
+                writeValue(writer, entry.getValue());
+            }
+            writer.write('}');
+        } else if (value instanceof Iterable) {
+            writer.write('[');
+            Iterator<?> iterator = ((Iterable<?>) value).iterator();
+            while (iterator.hasNext()) {
+                writeValue(writer, iterator.next());
+                if (iterator.hasNext()) {
+                    writer.write(',');
+                }
+            }
+            writer.write(']');
+        } else if (value instanceof Object[]) {
+            Object[] array = (Object[]) value;
+            writer.write('[');
+            for (int i = 0; i < array.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeValue(writer, array[i]);
+            }
+            writer.write(']');
+        } else {
+            writeString(writer, value.toString());
+        }
+    }
+
+    private static void writeNumber(Writer writer, Number number) throws IOException {
+        if (number instanceof Double || number instanceof Float) {
+            double doubleValue = number.doubleValue();
+            if (Double.isNaN(doubleValue) || Double.isInfinite(doubleValue)) {
+                writer.write("null");
+                return;
+            }
+        }
+        writer.write(number.toString());
+    }
+
+    public static void writeString(Writer writer, String value) throws IOException {
+        writer.write('"');
+        int length = value.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            writer.write(value, start, i - start);
+            start = i + 1;
+            switch (c) {
+                case '"':
+                    writer.write("\\\"");
+                    break;
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                case '\b':
+                    writer.write("\\b");
+                    break;
+                case '\f':
+                    writer.write("\\f");
+                    break;
+                default:
+                    writer.write("\\u00");
+                    writer.write(HEX[c >> 4]);
+                    writer.write(HEX[c & 0xF]);
+            }
+        }
+        writer.write(value, start, length - start);
+        writer.write('"');
+    }
+}
@@ -0,0 +1,102 @@
+package graphql.nadel
+
+import spock.lang.Specification
+
+import java.time.Duration
+
+class DefaultHydrationCacheTest extends Specification {
+
+    long now = 0
+
+    def key(String id) {
+        new HydrationCacheKey("service", "usersByIds", "{id name}", id)
+    }
+
+    def "objects expire after their time to live"() {
+        given:
+        def cache = DefaultHydrationCache.newHydrationCache()
+                .timeToLive(Duration.ofSeconds(10))
+                .ticker({ now })
+                .build()
+
+        when:
+        cache.put(key("1"), [id: "1"])
+        now = Duration.ofSeconds(9).toNanos()
+
+        then:
+        cache.get(key("1")) == [id: "1"]
+        cache.get(key("2")) == null
+
+        when:
+        now = Duration.ofSeconds(10).toNanos()
+
+        then:
+        cache.get(key("1")) == null
+        cache.size() == 0
+    }
+
+    def "expired objects are evicted when new ones are put and replaced objects keep their own time to live"() {
+        given:
+        def cache = DefaultHydrationCache.newHydrationCache()
+                .timeToLive(Duration.ofSeconds(10))
+                .ticker({ now })
+                .build()
+
+        when:
+        cache.put(key("1"), [id: "1"])
+        cache.put(key("2"), [id: "2"])
+        now = Duration.ofSeconds(5).toNanos()
+        cache.put(key("2"), [id: "2", name: "two"])
+        now = Duration.ofSeconds(11).toNanos()
+        cache.put(key("3"), [id: "3"])
+
+        then:
+        cache.size() == 2
+        cache.getTotalWeight() == 2
+        cache.get(key("1")) == null
+        cache.get(key("2")) == [id: "2", name: "two"]
+        cache.get(key("3")) == [id: "3"]
+    }
+
+    def "least recently used objects are evicted when the max weight is exceeded"() {
+        given:
+        def cache = DefaultHydrationCache.newHydrationCache()
+                .maxWeight(4)
+                .weigher({ value -> value.size() as long })
+                .ticker({ now })
+                .build()
+
+        when:
+        cache.put(key("1"), [id: "1", name: "one"])
+        cache.put(key("2"), [id: "2"])
+        cache.put(key("3"), [id: "3"])
+        cache.get(key("1"))
+        cache.put(key("4"), [id: "4"])
+
+        then:
+        cache.get(key("2")) == null
+        cache.get(key("1")) != null
+        cache.get(key("3")) != null
+        cache.get(key("4")) != null
+        cache.getTotalWeight() == 4
+
+        when: "an object heavier than the max weight is not cached at all"
+        cache.put(key("5"), [a: 1, b: 2, c: 3, d: 4, e: 5, f: 6])
+
+        then:
+        cache.get(key("5")) == null
+        cache.size() == 3
+    }
+
+    def "keys differ by shape"() {
+        given:
+        def cache = DefaultHydrationCache.newHydrationCache().build()
+
+        when:
+        cache.put(new HydrationCacheKey("service", "usersByIds", "{id}", "1"), [id: "1"])
+
+        then:
+        cache.get(new HydrationCacheKey("service", "usersByIds", "{id}", "1")) == [id: "1"]
+        cache.get(new HydrationCacheKey("service", "usersByIds", "{id name}", "1")) == null
+    }
+}
@@ -0,0 +1,102 @@
+package graphql.nadel
+
+import graphql.ExecutionInput
+import graphql.execution.preparsed.PreparsedDocumentEntry
+import graphql.language.Document
+import spock.lang.Specification
+
+import static graphql.nadel.DefaultPreparsedDocumentProvider.CacheEvent.EVICTION
+import static graphql.nadel.DefaultPreparsedDocumentProvider.CacheEvent.HIT
+import static graphql.nadel.DefaultPreparsedDocumentProvider.CacheEvent.MISS
+
+class DefaultPreparsedDocumentProviderTest extends Specification {
+
+    def computed = []
+    def events = []
+
+    def compute = { ExecutionInput executionInput ->
+        computed.add(executionInput.query)
+        new PreparsedDocumentEntry(Document.newDocument().build())
+    }
+
+    def listener = { cacheEvent, executionInput -> events.add(cacheEvent) } as DefaultPreparsedDocumentProvider.CacheEventListener
+
+    def input(String query) {
+        ExecutionInput.newExecutionInput().query(query).build()
+    }
+
+    def "documents of the same query are computed once"() {
+        given:
+        def provider = DefaultPreparsedDocumentProvider.newPreparsedDocumentProvider()
+                .cacheEventListener(listener)
+                .build()
+
+        when:
+        def entry1 = provider.getDocument(input("{ hello }"), compute)
+        def entry2 = provider.getDocument(input("{ hello }"), compute)
+
+        then:
+        entry2.is(entry1)
+        computed == ["{ hello }"]
+        events == [MISS, HIT]
+        provider.size() == 1
+        provider.getTotalWeight() == 9
+    }
+
+    def "least recently used queries are evicted when the max weight is exceeded"() {
+        given:
+        def provider = DefaultPreparsedDocumentProvider.newPreparsedDocumentProvider()
+                .maxWeight(15)
+                .cacheEventListener(listener)
+                .build()
+
+        when:
+        provider.getDocument(input("{ a }"), compute)
+        provider.getDocument(input("{ bb }"), compute)
+        provider.getDocument(input("{ a }"), compute)
+        provider.getDocument(input("{ ccc }"), compute)
+
+        then:
+        events == [MISS, MISS, HIT, MISS, EVICTION]
+        provider.size() == 2
+        provider.getTotalWeight() == 12
+
+        when:
+        provider.getDocument(input("{ a }"), compute)
+        provider.getDocument(input("{ bb }"), compute)
+
+        then:
+        computed == ["{ a }", "{ bb }", "{ ccc }", "{ bb }"]
+    }
+
+    def "queries heavier than the max weight are not kept"() {
+        given:
+        def provider = DefaultPreparsedDocumentProvider.newPreparsedDocumentProvider()
+                .maxWeight(5)
+                .build()
+
+        when:
+        provider.getDocument(input("{ hello }"), compute)
+        provider.getDocument(input("{ hello }"), compute)
+
+        then:
+        computed == ["{ hello }", "{ hello }"]
+        provider.size() == 0
+    }
+
+    def "events are reported with the input of the lookup"() {
+        given:
+        def lookups = []
+        def provider = DefaultPreparsedDocumentProvider.newPreparsedDocumentProvider()
+                .maxWeight(6)
+                .cacheEventListener({ cacheEvent, executionInput -> lookups.add([cacheEvent, executionInput.query]) })
+                .build()
+
+        when:
+        provider.getDocument(input("{ a }"), compute)
+        provider.getDocument(input("{ b }"), compute)
+
+        then:
+        lookups == [[MISS, "{ a }"], [MISS, "{ b }"], [EVICTION, "{ b }"]]
+    }
+}
@@ -756,12 +756,9 @@ class NadelE2ESyntheticHydrationTest extends Specification {
         def movies = [[id: "M1", name: "Movie 1", characterIds: ["C1", "C2"]], [id: "M2", name: "Movie 2", characterIds: ["C1", "C2", "C3"]]]
         def response1 = new ServiceExecutionResult([tests: [testing: [movies: movies]]])
 
-        def characters1 = [[id: "C1", name: "Luke", object_identifier__UUID: "C1"], [id: "C2", name: "Leia", object_identifier__UUID: "C2"], [id: "C1", name: "Luke", object_identifier__UUID: "C1"]]
+        def characters1 = [[id: "C1", name: "Luke", object_identifier__UUID: "C1"], [id: "C2", name: "Leia", object_identifier__UUID: "C2"], [id: "C3", name: "Anakin", object_identifier__UUID: "C3"]]
         def response2 = new ServiceExecutionResult([tests:[characters: characters1]])
 
-        def characters2 = [[id: "C2", name: "Leia", object_identifier__UUID: "C2"], [id: "C3", name: "Anakin", object_identifier__UUID: "C3"]]
-        def response3 = new ServiceExecutionResult([tests:[characters: characters2]])
-
         when:
         def result = nadel.execute(nadelExecutionInput)
 
@@ -772,8 +769,6 @@ class NadelE2ESyntheticHydrationTest extends Specification {
         then:
         1 * serviceExecution1.execute(_) >> completedFuture(response2)
 
-        1 * serviceExecution1.execute(_) >> completedFuture(response3)
-
         def data = [movies: [[id: "M1", name: "Movie 1", characters: [[id: "C1", name: "Luke"], [id: "C2", name: "Leia"]]], [id: "M2", name: "Movie 2", characters: [[id: "C1", name: "Luke"], [id: "C2", name: "Leia"], [id: "C3", name: "Anakin"]]]]]
         result.join().data == [tests: [testing: data]]
     }
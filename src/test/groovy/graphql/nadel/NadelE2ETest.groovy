@@ -1,5 +1,6 @@
 package graphql.nadel
 
+import com.fasterxml.jackson.core.JsonFactory
 import graphql.AssertException
 import graphql.ErrorType
 import graphql.GraphQLError
@@ -7,6 +8,11 @@ import graphql.GraphqlErrorException
 import graphql.execution.ExecutionId
 import graphql.execution.ExecutionIdProvider
 import graphql.execution.instrumentation.InstrumentationState
+import graphql.execution.preparsed.PreparsedDocumentProvider
+import graphql.language.Field
+import graphql.nadel.hooks.CreateServiceContextParams
+import graphql.nadel.hooks.ResultRewriteParams
+import graphql.nadel.hooks.ServiceExecutionHooks
 import graphql.nadel.instrumentation.NadelInstrumentation
 import graphql.nadel.instrumentation.parameters.NadelInstrumentRootExecutionResultParameters
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationCreateStateParameters
@@ -25,14 +31,22 @@ import graphql.util.TraversalControl
 import graphql.util.TraverserContext
 import spock.lang.Specification
 
+import java.util.concurrent.BrokenBarrierException
 import java.util.concurrent.CompletableFuture
 import java.util.concurrent.CompletionException
+import java.util.concurrent.CyclicBarrier
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+import java.util.concurrent.atomic.AtomicInteger
 
 import static graphql.language.AstPrinter.printAstCompact
 import static graphql.nadel.Nadel.newNadel
 import static graphql.nadel.NadelExecutionInput.newNadelExecutionInput
 import static graphql.nadel.testutils.TestUtil.typeDefinitions
 import static graphql.util.TreeTransformerUtil.changeNode
+import static java.time.Duration.ofMillis
+import static java.time.Duration.ofSeconds
 import static java.util.concurrent.CompletableFuture.completedFuture
 
 class NadelE2ETest extends Specification {
@@ -102,6 +116,31 @@ class NadelE2ETest extends Specification {
         result.join().data == data
     }
 
+    def "streaming service execution results are read without materializing them"() {
+
+        given:
+        def query = '''
+        query { hello { name id } }
+        '''
+        def streamingExecution = Mock(StreamingServiceExecution)
+        Nadel nadel = newNadel()
+                .dsl(simpleNDSL)
+                .serviceExecutionFactory(TestUtil.serviceFactory(streamingExecution, simpleUnderlyingSchema))
+                .build()
+
+        when:
+        def result = nadel.execute(newNadelExecutionInput().query(query)).join()
+
+        then:
+        1 * streamingExecution.executeStreaming(_) >> {
+            def response = '{"data": {"hello": {"id": "3", "name": "earth", "unasked": [1, 2]}}, "errors": [{"message": "partial"}]}'
+            completedFuture(new StreamingServiceExecutionResult(new JsonFactory().createParser(response)))
+        }
+        0 * streamingExecution.execute(_)
+        result.data == [hello: [name: "earth", id: "3"]]
+        result.errors.collect { it.message } == ["partial"]
+    }
+
     def "graphql-java validation is invoked"() {
         given:
         def query = '''
@@ -1048,4 +1087,721 @@ class NadelE2ETest extends Specification {
 
 
 
+    def "query plans are reused for the same document and variables are re-bound"() {
+        given:
+        def nsdl = '''
+         service Foo {
+            type Query{
+                foo(id: ID): Foo  => renamed from fooOriginal
+            }
+            type Foo {
+                name: String => renamed from title
+            }
+         }
+        '''
+        def underlyingSchema = typeDefinitions('''
+            type Query{
+                fooOriginal(id: ID): Foo
+            }
+            type Foo {
+                title: String
+            }
+        ''')
+        def query = '''
+        query OpName($id: ID) { foo(id: $id) {name} }
+        '''
+        ServiceExecution delegatedExecution = Mock(ServiceExecution)
+        def documents = [:]
+        PreparsedDocumentProvider documentProvider = { executionInput, computeFunction ->
+            documents.computeIfAbsent(executionInput.query, { computeFunction.apply(executionInput) })
+        } as PreparsedDocumentProvider
+        int isFieldAllowedCalls = 0
+        ServiceExecutionHooks hooks = new ServiceExecutionHooks() {
+            @Override
+            Optional<GraphQLError> isFieldAllowed(Field field, GraphQLFieldDefinition fieldDefinitionOverall, Object userSuppliedContext) {
+                isFieldAllowedCalls++
+                return Optional.empty()
+            }
+        }
+
+        Nadel nadel = newNadel()
+                .dsl(nsdl)
+                .serviceExecutionFactory(TestUtil.serviceFactory(delegatedExecution, underlyingSchema))
+                .preparsedDocumentProvider(documentProvider)
+                .serviceExecutionHooks(hooks)
+                .queryPlanCacheSize(10)
+                .build()
+
+        def queriesAndVariables = []
+
+        when:
+        def result1 = nadel.execute(newNadelExecutionInput().query(query).operationName("OpName").variables([id: "1"])).join()
+        def result2 = nadel.execute(newNadelExecutionInput().query(query).operationName("OpName").variables([id: "2"])).join()
+
+        then:
+        2 * delegatedExecution.execute(_) >> { args ->
+            ServiceExecutionParameters params = args[0]
+            queriesAndVariables.add([printAstCompact(params.query), params.variables])
+            completedFuture(new ServiceExecutionResult([fooOriginal: [title: "Foo" + params.variables["id"]]]))
+        }
+        result1.data == [foo: [name: "Foo1"]]
+        result2.data == [foo: [name: "Foo2"]]
+        queriesAndVariables[0][0] == queriesAndVariables[1][0]
+        queriesAndVariables[0][1] == [id: "1"]
+        queriesAndVariables[1][1] == [id: "2"]
+        // the second execution reuses the transformed query
+        isFieldAllowedCalls == 2
+    }
+
+    def "cached query plans only share the transformed query between requests with the same hooks key"() {
+        given:
+        def query = "{ hello { name } }"
+        def documents = [:]
+        PreparsedDocumentProvider documentProvider = { executionInput, computeFunction ->
+            documents.computeIfAbsent(executionInput.query, { computeFunction.apply(executionInput) })
+        } as PreparsedDocumentProvider
+        def isFieldAllowedContexts = []
+        ServiceExecutionHooks hooks = new ServiceExecutionHooks() {
+            @Override
+            CompletableFuture<Object> createServiceContext(CreateServiceContextParams params) {
+                return completedFuture([role: params.context.userSuppliedContext.role, requestId: UUID.randomUUID()])
+            }
+
+            @Override
+            Optional<GraphQLError> isFieldAllowed(Field field, GraphQLFieldDefinition fieldDefinitionOverall, Object userSuppliedContext) {
+                isFieldAllowedContexts.add(userSuppliedContext.role)
+                return userSuppliedContext.role == "admin" || field.name != "name" ? Optional.empty() : Optional.of(
+                        GraphqlErrorException.newErrorException().message("not allowed").build())
+            }
+
+            @Override
+            Object queryPlanCacheKey(Object serviceContext, Object userSuppliedContext) {
+                return serviceContext.role
+            }
+        }
+        Nadel nadel = newNadel()
+                .dsl(simpleNDSL)
+                .serviceExecutionFactory(serviceFactory)
+                .preparsedDocumentProvider(documentProvider)
+                .serviceExecutionHooks(hooks)
+                .queryPlanCacheSize(10)
+                .build()
+
+        when:
+        def results = ["admin", "user", "admin", "user"].collect { role ->
+            nadel.execute(newNadelExecutionInput().query(query).context([role: role])).join()
+        }
+
+        then:
+        4 * delegatedExecution.execute(_) >> { args ->
+            ServiceExecutionParameters params = args[0]
+            def hello = printAstCompact(params.query).contains("name") ? [name: "earth"] : [:]
+            completedFuture(new ServiceExecutionResult([hello: hello]))
+        }
+        results*.data == [[hello: [name: "earth"]], [hello: [name: null]], [hello: [name: "earth"]], [hello: [name: null]]]
+        // every role is transformed once
+        isFieldAllowedContexts == ["admin", "admin", "user", "user"]
+    }
+
+    def "batched hydration objects are cached across requests"() {
+        given:
+        def nsdl = '''
+         service Issues {
+            type Query {
+                issues: [Issue]
+            }
+            type Issue {
+                id: ID
+                authors: [User] => hydrated from UserService.usersByIds(ids: $source.authorIds) object identified by id, batch size 10
+            }
+         }
+         service UserService {
+            type Query {
+                usersByIds(ids: [ID]): [User]
+            }
+            type User {
+                id: ID
+                name: String
+            }
+         }
+        '''
+        def issuesSchema = typeDefinitions('''
+            type Query {
+                issues: [Issue]
+            }
+            type Issue {
+                id: ID
+                authorIds: [ID]
+            }
+        ''')
+        def userServiceSchema = typeDefinitions('''
+            type Query {
+                usersByIds(ids: [ID]): [User]
+            }
+            type User {
+                id: ID
+                name: String
+            }
+        ''')
+        ServiceExecution issuesExecution = Mock(ServiceExecution)
+        ServiceExecution userServiceExecution = Mock(ServiceExecution)
+        def hydrationCache = DefaultHydrationCache.newHydrationCache().build()
+
+        Nadel nadel = newNadel()
+                .dsl(nsdl)
+                .serviceExecutionFactory(TestUtil.serviceFactory([
+                        Issues     : new Tuple2(issuesExecution, issuesSchema),
+                        UserService: new Tuple2(userServiceExecution, userServiceSchema)]))
+                .hydrationCache(hydrationCache)
+                .build()
+
+        def query = "{ issues { id authors { id name } } }"
+        def userQueries = []
+
+        when:
+        def result1 = nadel.execute(newNadelExecutionInput().query(query).artificialFieldsUUID("UUID1")).join()
+        def result2 = nadel.execute(newNadelExecutionInput().query(query).artificialFieldsUUID("UUID2")).join()
+
+        then:
+        1 * issuesExecution.execute(_) >> completedFuture(new ServiceExecutionResult([issues: [[id: "ISSUE-1", authorIds: ["USER-1", "USER-2"]]]]))
+        1 * issuesExecution.execute(_) >> completedFuture(new ServiceExecutionResult([issues: [[id: "ISSUE-2", authorIds: ["USER-2", "USER-3"]]]]))
+        2 * userServiceExecution.execute(_) >> { args ->
+            ServiceExecutionParameters params = args[0]
+            userQueries.add(printAstCompact(params.query))
+            def alias = "object_identifier__UUID" + userQueries.size()
+            def users = params.query.definitions[0].selectionSet.selections[0].arguments[0].value.values.collect {
+                [id: it.value, name: "Name " + it.value, (alias): it.value]
+            }
+            completedFuture(new ServiceExecutionResult([usersByIds: users]))
+        }
+        userQueries == [
+                'query nadel_2_UserService {usersByIds(ids:["USER-1","USER-2"]) {id name object_identifier__UUID1:id}}',
+                'query nadel_2_UserService {usersByIds(ids:["USER-3"]) {id name object_identifier__UUID2:id}}',
+        ]
+        result1.data == [issues: [[id: "ISSUE-1", authors: [[id: "USER-1", name: "Name USER-1"], [id: "USER-2", name: "Name USER-2"]]]]]
+        result2.data == [issues: [[id: "ISSUE-2", authors: [[id: "USER-2", name: "Name USER-2"], [id: "USER-3", name: "Name USER-3"]]]]]
+        hydrationCache.size() == 3
+    }
+
+    def "hydrations that run at the same time on different threads share the call of the same value"() {
+        given:
+        def nsdl = '''
+         service Issues {
+            type Query {
+                issue: Issue
+            }
+            type Issue {
+                id: ID
+                author: User => hydrated from UserService.userById(id: $source.authorId)
+                project: Project => hydrated from ProjectService.projectById(id: $source.projectId)
+            }
+         }
+         service UserService {
+            type Query {
+                userById(id: ID): User
+            }
+            type User {
+                id: ID
+                manager: Person => hydrated from PersonService.personById(id: $source.managerId)
+            }
+         }
+         service ProjectService {
+            type Query {
+                projectById(id: ID): Project
+            }
+            type Project {
+                id: ID
+                lead: Person => hydrated from PersonService.personById(id: $source.leadId)
+            }
+         }
+         service PersonService {
+            type Query {
+                personById(id: ID): Person
+            }
+            type Person {
+                id: ID
+                name: String
+            }
+         }
+        '''
+        def issuesSchema = typeDefinitions('''
+            type Query {
+                issue: Issue
+            }
+            type Issue {
+                id: ID
+                authorId: ID
+                projectId: ID
+            }
+        ''')
+        def userServiceSchema = typeDefinitions('''
+            type Query {
+                userById(id: ID): User
+            }
+            type User {
+                id: ID
+                managerId: ID
+            }
+        ''')
+        def projectServiceSchema = typeDefinitions('''
+            type Query {
+                projectById(id: ID): Project
+            }
+            type Project {
+                id: ID
+                leadId: ID
+            }
+        ''')
+        def personServiceSchema = typeDefinitions('''
+            type Query {
+                personById(id: ID): Person
+            }
+            type Person {
+                id: ID
+                name: String
+            }
+        ''')
+        def ioExecutor = Executors.newFixedThreadPool(2)
+        // the user and the project come back at the same time on different threads
+        def barrier = new CyclicBarrier(2)
+        // a second call for the same person would come while the first one is still running
+        def personBarrier = new CyclicBarrier(2)
+        def personCalls = new AtomicInteger()
+        ServiceExecution issuesExecution = { params ->
+            completedFuture(new ServiceExecutionResult([issue: [authorId: "USER-1", projectId: "PROJECT-1"]]))
+        }
+        ServiceExecution userServiceExecution = { params ->
+            CompletableFuture.supplyAsync({
+                barrier.await()
+                new ServiceExecutionResult([userById: [managerId: "PERSON-1"]])
+            }, ioExecutor)
+        }
+        ServiceExecution projectServiceExecution = { params ->
+            CompletableFuture.supplyAsync({
+                barrier.await()
+                new ServiceExecutionResult([projectById: [leadId: "PERSON-1"]])
+            }, ioExecutor)
+        }
+        ServiceExecution personServiceExecution = { params ->
+            personCalls.incrementAndGet()
+            try {
+                personBarrier.await(200, TimeUnit.MILLISECONDS)
+            } catch (TimeoutException | BrokenBarrierException ignored) {
+            }
+            completedFuture(new ServiceExecutionResult([personById: [name: "Name PERSON-1"]], [[message: "Person error"]]))
+        }
+
+        Nadel nadel = newNadel()
+                .dsl(nsdl)
+                .serviceExecutionFactory(TestUtil.serviceFactory([
+                        Issues        : new Tuple2(issuesExecution, issuesSchema),
+                        UserService   : new Tuple2(userServiceExecution, userServiceSchema),
+                        ProjectService: new Tuple2(projectServiceExecution, projectServiceSchema),
+                        PersonService : new Tuple2(personServiceExecution, personServiceSchema)]))
+                .build()
+
+        when:
+        def results = (1..5).collect {
+            personCalls.set(0)
+            personBarrier.reset()
+            def result = nadel.execute(newNadelExecutionInput().query("{ issue { author { manager { name } } project { lead { name } } } }")).join()
+            [personCalls.get(), result]
+        }
+
+        then:
+        results.every { personCallCount, result ->
+            personCallCount == 1 &&
+                    result.data == [issue: [author: [manager: [name: "Name PERSON-1"]], project: [lead: [name: "Name PERSON-1"]]]] &&
+                    result.errors*.message == ["Person error"]
+        }
+
+        cleanup:
+        ioExecutor.shutdown()
+    }
+
+    def "combined batched hydrations only send the objects that are not cached"() {
+        given:
+        def nsdl = '''
+         service Issues {
+            type Query {
+                issues: [Issue]
+            }
+            type Issue {
+                id: ID
+                authors: [User] => hydrated from UserService.usersByIds(ids: $source.authorIds) object identified by id, batch size 10
+                reviewers: [User] => hydrated from UserService.usersByIds(ids: $source.reviewerIds) object identified by id, batch size 10
+            }
+         }
+         service UserService {
+            type Query {
+                usersByIds(ids: [ID]): [User]
+            }
+            type User {
+                id: ID
+                name: String
+            }
+         }
+        '''
+        def issuesSchema = typeDefinitions('''
+            type Query {
+                issues: [Issue]
+            }
+            type Issue {
+                id: ID
+                authorIds: [ID]
+                reviewerIds: [ID]
+            }
+        ''')
+        def userServiceSchema = typeDefinitions('''
+            type Query {
+                usersByIds(ids: [ID]): [User]
+            }
+            type User {
+                id: ID
+                name: String
+            }
+        ''')
+        ServiceExecution issuesExecution = Mock(ServiceExecution)
+        ServiceExecution userServiceExecution = Mock(ServiceExecution)
+        def hydrationCache = DefaultHydrationCache.newHydrationCache().build()
+
+        Nadel nadel = newNadel()
+                .dsl(nsdl)
+                .serviceExecutionFactory(TestUtil.serviceFactory([
+                        Issues     : new Tuple2(issuesExecution, issuesSchema),
+                        UserService: new Tuple2(userServiceExecution, userServiceSchema)]))
+                .hydrationCache(hydrationCache)
+                .build()
+
+        def query = "{ issues { id authors { id name } reviewers { name } } }"
+        def userQueries = []
+
+        when:
+        def result1 = nadel.execute(newNadelExecutionInput().query(query).artificialFieldsUUID("UUID1")).join()
+        def result2 = nadel.execute(newNadelExecutionInput().query(query).artificialFieldsUUID("UUID2")).join()
+        def result3 = nadel.execute(newNadelExecutionInput().query(query).artificialFieldsUUID("UUID3")).join()
+
+        then:
+        1 * issuesExecution.execute(_) >> completedFuture(new ServiceExecutionResult([issues: [[id: "ISSUE-1", authorIds: ["USER-1", "USER-2"], reviewerIds: ["USER-1"]]]]))
+        1 * issuesExecution.execute(_) >> completedFuture(new ServiceExecutionResult([issues: [[id: "ISSUE-2", authorIds: ["USER-1", "USER-3"], reviewerIds: ["USER-1"]]]]))
+        1 * issuesExecution.execute(_) >> completedFuture(new ServiceExecutionResult([issues: [[id: "ISSUE-1", authorIds: ["USER-1", "USER-2"], reviewerIds: ["USER-1"]]]]))
+        2 * userServiceExecution.execute(_) >> { args ->
+            ServiceExecutionParameters params = args[0]
+            userQueries.add(printAstCompact(params.query))
+            def data = [:]
+            params.query.definitions[0].selectionSet.selections.each { field ->
+                def objectIdentifierAlias = field.selectionSet.selections.find { it.alias?.startsWith("object_identifier__") }.alias
+                data[field.alias] = field.arguments[0].value.values.collect {
+                    [id: it.value, name: "Name " + it.value, (objectIdentifierAlias): it.value]
+                }
+            }
+            completedFuture(new ServiceExecutionResult(data))
+        }
+        userQueries == [
+                'query nadel_2_UserService {batch_hydration_0:usersByIds(ids:["USER-1","USER-2"]) {id name object_identifier__UUID1:id} batch_hydration_1:usersByIds(ids:["USER-1"]) {name object_identifier__UUID1:id}}',
+                'query nadel_2_UserService {batch_hydration_0:usersByIds(ids:["USER-3"]) {id name object_identifier__UUID2:id}}',
+        ]
+        result1.data == [issues: [[id: "ISSUE-1", authors: [[id: "USER-1", name: "Name USER-1"], [id: "USER-2", name: "Name USER-2"]], reviewers: [[name: "Name USER-1"]]]]]
+        result2.data == [issues: [[id: "ISSUE-2", authors: [[id: "USER-1", name: "Name USER-1"], [id: "USER-3", name: "Name USER-3"]], reviewers: [[name: "Name USER-1"]]]]]
+        result3.data == result1.data
+        hydrationCache.size() == 4
+    }
+
+    def "large lists are converted in parallel in list order"() {
+        given:
+        def nsdl = '''
+         service Issues {
+            type Query {
+                issues: [Issue]
+            }
+            type Issue {
+                id: ID
+                title: String => renamed from summary
+                labels: [String]
+            }
+         }
+        '''
+        def issuesSchema = typeDefinitions('''
+            type Query {
+                issues: [Issue]
+            }
+            type Issue {
+                id: ID
+                summary: String
+                labels: [String]
+            }
+        ''')
+        ServiceExecution issuesExecution = Mock(ServiceExecution)
+        def executor = Executors.newFixedThreadPool(3)
+
+        Nadel nadel = newNadel()
+                .dsl(nsdl)
+                .serviceExecutionFactory(TestUtil.serviceFactory(issuesExecution, issuesSchema))
+                .parallelListConversion(ParallelListConversion.newParallelListConversion()
+                        .executor(executor)
+                        .minListSize(10)
+                        .chunkSize(7)
+                        .build())
+                .build()
+
+        def underlyingIssues = (0..<100).collect { [id: "ISSUE-" + it, summary: "Summary " + it, labels: (0..<20).collect { "label-" + it }] }
+        def expectedIssues = (0..<100).collect { [id: "ISSUE-" + it, title: "Summary " + it, labels: (0..<20).collect { "label-" + it }] }
+
+        when:
+        def result = nadel.execute(newNadelExecutionInput().query("{ issues { id title labels } }")).join()
+
+        then:
+        1 * issuesExecution.execute(_) >> completedFuture(new ServiceExecutionResult([issues: underlyingIssues]))
+        result.errors.isEmpty()
+        result.data == [issues: expectedIssues]
+
+        cleanup:
+        executor.shutdown()
+    }
+
+    def "result conversion and hydration stages run on their own executors"() {
+        given:
+        def ioExecutor = Executors.newSingleThreadExecutor({ r -> new Thread(r, "io-thread") })
+        def conversionExecutor = Executors.newSingleThreadExecutor({ r -> new Thread(r, "conversion-thread") })
+        def hydrationExecutor = Executors.newSingleThreadExecutor({ r -> new Thread(r, "hydration-thread") })
+        String rewriteThread
+        String rootResultThread
+
+        Nadel nadel = newNadel()
+                .dsl(simpleNDSL)
+                .serviceExecutionFactory(serviceFactory)
+                .stageExecutors(StageExecutors.newStageExecutors()
+                        .resultConversionExecutor(conversionExecutor)
+                        .hydrationExecutor(hydrationExecutor)
+                        .build())
+                .serviceExecutionHooks(new ServiceExecutionHooks() {
+                    @Override
+                    CompletableFuture<RootExecutionResultNode> resultRewrite(ResultRewriteParams params) {
+                        rewriteThread = Thread.currentThread().name
+                        return completedFuture(params.resultNode)
+                    }
+                })
+                .instrumentation(new NadelInstrumentation() {
+                    @Override
+                    RootExecutionResultNode instrumentRootExecutionResult(RootExecutionResultNode rootExecutionResultNode, NadelInstrumentRootExecutionResultParameters parameters) {
+                        rootResultThread = Thread.currentThread().name
+                        return rootExecutionResultNode
+                    }
+                })
+                .build()
+
+        when:
+        def result = nadel.execute(newNadelExecutionInput().query("{ hello { name } }")).join()
+
+        then:
+        1 * delegatedExecution.execute(_) >> CompletableFuture.supplyAsync({ new ServiceExecutionResult([hello: [name: "earth"]]) }, ioExecutor)
+        result.data == [hello: [name: "earth"]]
+        rewriteThread == "conversion-thread"
+        rootResultThread == "hydration-thread"
+
+        cleanup:
+        [ioExecutor, conversionExecutor, hydrationExecutor]*.shutdown()
+    }
+
+    def "a service call that runs out of time gets an error"() {
+        given:
+        ServiceExecutionParameters params
+        Nadel nadel = newNadel()
+                .dsl(simpleNDSL)
+                .serviceExecutionFactory(serviceFactory)
+                .serviceCallPolicy(ServiceCallPolicy.newServiceCallPolicy()
+                        .serviceTimeout("MyService", ofMillis(50))
+                        .build())
+                .build()
+
+        when:
+        def result = nadel.execute(newNadelExecutionInput().query("{ hello { name } }")).join()
+
+        then:
+        1 * delegatedExecution.execute(_) >> { args ->
+            params = args[0]
+            new CompletableFuture()
+        }
+        params.timeout != null
+        params.timeout <= ofMillis(50)
+        result.data == [hello: null]
+        result.errors.size() == 1
+        result.errors[0].message.contains("timed out")
+    }
+
+    def "a synthetic hydration call gets the timeout of its top level field"() {
+        given:
+        def nsdl = '''
+         service Issues {
+            type Query {
+                issues: [Issue]
+            }
+            type Issue {
+                id: ID
+                authors: [User] => hydrated from UserService.usersQuery.usersByIds(ids: $source.authorIds) object identified by id, batch size 10
+            }
+         }
+         service UserService {
+            type Query {
+                usersQuery: UsersQuery
+            }
+            type UsersQuery {
+                usersByIds(ids: [ID]): [User]
+            }
+            type User {
+                id: ID
+                name: String
+            }
+         }
+        '''
+        def issuesSchema = typeDefinitions('''
+            type Query {
+                issues: [Issue]
+            }
+            type Issue {
+                id: ID
+                authorIds: [ID]
+            }
+        ''')
+        def userServiceSchema = typeDefinitions('''
+            type Query {
+                usersQuery: UsersQuery
+            }
+            type UsersQuery {
+                usersByIds(ids: [ID]): [User]
+            }
+            type User {
+                id: ID
+                name: String
+            }
+        ''')
+        ServiceExecution issuesExecution = Mock(ServiceExecution)
+        ServiceExecution userServiceExecution = Mock(ServiceExecution)
+        ServiceExecutionParameters userParams
+
+        Nadel nadel = newNadel()
+                .dsl(nsdl)
+                .serviceExecutionFactory(TestUtil.serviceFactory([
+                        Issues     : new Tuple2(issuesExecution, issuesSchema),
+                        UserService: new Tuple2(userServiceExecution, userServiceSchema)]))
+                .serviceCallPolicy(ServiceCallPolicy.newServiceCallPolicy()
+                        .serviceTimeout("UserService", ofSeconds(10))
+                        .hydrationTimeout("UserService", "usersByIds", ofMillis(50))
+                        .build())
+                .build()
+
+        when:
+        def result = nadel.execute(newNadelExecutionInput().query("{ issues { id authors { name } } }").artificialFieldsUUID("UUID")).join()
+
+        then:
+        1 * issuesExecution.execute(_) >> completedFuture(new ServiceExecutionResult([issues: [[id: "ISSUE-1", authorIds: ["USER-1"]]]]))
+        1 * userServiceExecution.execute(_) >> { args ->
+            userParams = args[0]
+            completedFuture(new ServiceExecutionResult([usersQuery: [usersByIds: [[name: "Name", object_identifier__UUID: "USER-1"]]]]))
+        }
+        userParams.timeout <= ofMillis(50)
+        result.data == [issues: [[id: "ISSUE-1", authors: [[name: "Name"]]]]]
+    }
+
+    def "top level fields of the same service are sent in one call when grouped"() {
+        given:
+        def rewrittenResultKeys = []
+        Nadel nadel = newNadel()
+                .dsl(simpleNDSL)
+                .serviceExecutionFactory(serviceFactory)
+                .groupTopLevelFieldsByService(true)
+                .serviceExecutionHooks(new ServiceExecutionHooks() {
+                    @Override
+                    CompletableFuture<RootExecutionResultNode> resultRewrite(ResultRewriteParams params) {
+                        rewrittenResultKeys.add([params.executionStepInfo.field.resultKey, params.resultNode.children*.resultKey, params.resultNode.errors*.message])
+                        return completedFuture(params.resultNode)
+                    }
+                })
+                .build()
+
+        when:
+        def result = nadel.execute(newNadelExecutionInput().query("{ a: hello { name } b: hello { id } }")).join()
+
+        then:
+        1 * delegatedExecution.execute(_) >> { args ->
+            ServiceExecutionParameters params = args[0]
+            assert printAstCompact(params.query) == "query nadel_2_MyService {a:hello {name} b:hello {id}}"
+            completedFuture(new ServiceExecutionResult([a: [name: "earth"], b: [id: "3"]], [[message: "no id", path: ["b", "id"]]]))
+        }
+        result.data == [a: [name: "earth"], b: [id: "3"]]
+        result.errors*.message == ["no id"]
+        rewrittenResultKeys == [["a", ["a"], []], ["b", ["b"], ["no id"]]]
+    }
+
+    def "errors of grouped renamed top level fields go to their own field"() {
+        given:
+        def nsdl = '''
+         service MyService {
+            type Query {
+                foo: Foo => renamed from fooOriginal
+                bar: Foo => renamed from barOriginal
+            }
+            type Foo {
+                name: String
+            }
+         }
+        '''
+        def underlyingSchema = typeDefinitions('''
+            type Query {
+                fooOriginal: Foo
+                barOriginal: Foo
+            }
+            type Foo {
+                name: String
+            }
+        ''')
+        def rewrittenErrors = []
+        Nadel nadel = newNadel()
+                .dsl(nsdl)
+                .serviceExecutionFactory(TestUtil.serviceFactory(delegatedExecution, underlyingSchema))
+                .groupTopLevelFieldsByService(true)
+                .serviceExecutionHooks(new ServiceExecutionHooks() {
+                    @Override
+                    CompletableFuture<RootExecutionResultNode> resultRewrite(ResultRewriteParams params) {
+                        rewrittenErrors.add([params.executionStepInfo.field.resultKey, params.resultNode.errors*.message])
+                        return completedFuture(params.resultNode)
+                    }
+                })
+                .build()
+
+        when:
+        def result = nadel.execute(newNadelExecutionInput().query("{ foo { name } bar { name } }")).join()
+
+        then:
+        1 * delegatedExecution.execute(_) >> { args ->
+            ServiceExecutionParameters params = args[0]
+            assert printAstCompact(params.query) == "query nadel_2_MyService {fooOriginal {name} barOriginal {name}}"
+            completedFuture(new ServiceExecutionResult([fooOriginal: [name: null], barOriginal: [name: null]], [
+                    [message: "no foo name", path: ["fooOriginal", "name"]],
+                    [message: "no bar name", path: ["barOriginal", "name"]]]))
+        }
+        result.data == [foo: [name: null], bar: [name: null]]
+        result.errors*.message as Set == ["no foo name", "no bar name"] as Set
+        rewrittenErrors == [["foo", ["no foo name"]], ["bar", ["no bar name"]]]
+    }
+
+    def "top level fields of the same service are sent in their own calls by default"() {
+        given:
+        Nadel nadel = newNadel()
+                .dsl(simpleNDSL)
+                .serviceExecutionFactory(serviceFactory)
+                .build()
+
+        when:
+        def result = nadel.execute(newNadelExecutionInput().query("{ a: hello { name } b: hello { id } }")).join()
+
+        then:
+        2 * delegatedExecution.execute(_) >> { args ->
+            ServiceExecutionParameters params = args[0]
+            def field = params.query.definitions[0].selectionSet.selections[0]
+            completedFuture(new ServiceExecutionResult(field.alias == "a" ? [a: [name: "earth"]] : [b: [id: "3"]]))
+        }
+        result.data == [a: [name: "earth"], b: [id: "3"]]
+    }
+
 }
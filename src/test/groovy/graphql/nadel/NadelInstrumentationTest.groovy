@@ -10,6 +10,7 @@ import graphql.nadel.instrumentation.ChainedNadelInstrumentation
 import graphql.nadel.instrumentation.NadelInstrumentation
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationCreateStateParameters
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationExecuteOperationParameters
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationPreparsedDocumentCacheParameters
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationQueryExecutionParameters
 import graphql.nadel.instrumentation.parameters.NadelNadelInstrumentationQueryValidationParameters
 import graphql.nadel.testutils.TestUtil
@@ -317,4 +318,42 @@ class NadelInstrumentationTest extends Specification {
                 .instrumentation(instrumentation)
                 .build()
     }
+
+    def "preparsed document cache events are instrumented"() {
+        given:
+        def query = "query OpName { hello { name } }"
+        def cacheEvents = []
+        def validations = 0
+        NadelInstrumentation instrumentation = new NadelInstrumentation() {
+            @Override
+            InstrumentationContext<List<ValidationError>> beginValidation(NadelNadelInstrumentationQueryValidationParameters parameters) {
+                validations++
+                return noOp()
+            }
+
+            @Override
+            void preparsedDocumentCacheEvent(NadelInstrumentationPreparsedDocumentCacheParameters parameters) {
+                assert parameters.executionInput.query == query
+                cacheEvents.add(parameters.cacheEvent)
+            }
+        }
+
+        Nadel nadel = newNadel()
+                .dsl(simpleNDSL)
+                .serviceExecutionFactory(serviceFactory)
+                .instrumentation(instrumentation)
+                .preparsedDocumentCacheSize(10_000)
+                .build()
+
+        when:
+        def result1 = nadel.execute(newNadelExecutionInput().query(query)).join()
+        def result2 = nadel.execute(newNadelExecutionInput().query(query)).join()
+
+        then:
+        2 * delegatedExecution.execute(_) >> completedFuture(new ServiceExecutionResult([hello: [name: "earth"]]))
+        result1.data == [hello: [name: "earth"]]
+        result2.data == [hello: [name: "earth"]]
+        validations == 1
+        cacheEvents == [DefaultPreparsedDocumentProvider.CacheEvent.MISS, DefaultPreparsedDocumentProvider.CacheEvent.HIT]
+    }
 }
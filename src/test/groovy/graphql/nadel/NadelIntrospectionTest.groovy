@@ -108,4 +108,71 @@ class NadelIntrospectionTest extends Specification {
         er.errors[0].errorType.toString() == "MixedIntrospectionAndNormalFields"
 
     }
+
+    def "repeated introspection queries are answered from the cache"() {
+        given:
+        def query1 = '''query { __type(name : "World") { name fields { name } } }'''
+        def query2 = '''
+        query {
+            __type(name : "World") {
+                name
+                fields { name }
+            }
+        }
+        '''
+
+        Nadel nadel = buildNadel()
+
+        when:
+        def er1 = nadel.execute(newNadelExecutionInput().query(query1)).join()
+        def er2 = nadel.execute(newNadelExecutionInput().query(query2)).join()
+
+        then:
+        er1.data == [__type: [name: "World", fields: [[name: "id"], [name: "name"]]]]
+        er2.data.is(er1.data)
+    }
+
+    def "introspection results are not shared between schemas"() {
+        given:
+        def introspectionRunner = new DefaultIntrospectionRunner()
+        def query = '''query { __type(name : "World") { fields { name } } }'''
+
+        def otherNDSL = """
+         service MyService {
+            type Query{
+                hello: World
+            }
+            type World {
+                id: ID
+            }
+         }
+        """
+        def otherUnderlyingSchema = TestUtil.typeDefinitions("""
+            type Query{
+                hello: World
+            }
+            type World {
+                id: ID
+            }
+        """)
+
+        Nadel nadel1 = newNadel()
+                .dsl(simpleNDSL)
+                .introspectionRunner(introspectionRunner)
+                .serviceExecutionFactory(serviceFactory)
+                .build()
+        Nadel nadel2 = newNadel()
+                .dsl(otherNDSL)
+                .introspectionRunner(introspectionRunner)
+                .serviceExecutionFactory(TestUtil.serviceFactory(delegatedExecution, otherUnderlyingSchema))
+                .build()
+
+        when:
+        def er1 = nadel1.execute(newNadelExecutionInput().query(query)).join()
+        def er2 = nadel2.execute(newNadelExecutionInput().query(query)).join()
+
+        then:
+        er1.data == [__type: [fields: [[name: "id"], [name: "name"]]]]
+        er2.data == [__type: [fields: [[name: "id"]]]]
+    }
 }
@@ -0,0 +1,40 @@
+package graphql.nadel.dsl
+
+import graphql.nadel.NadelGraphQLParser
+import spock.lang.Specification
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class NodeIdTest extends Specification {
+
+    def "parsed nodes are numbered and generated ids never clash with them"() {
+        given:
+        def document = new NadelGraphQLParser().parseDocument("{ foo { bar } }")
+        def field = document.definitions[0].selectionSet.selections[0]
+
+        expect:
+        NodeId.getId(field) ==~ /\d+/
+        NodeId.newId().startsWith(NodeId.GENERATED_ID_PREFIX)
+        !(NodeId.newId() ==~ /\d+/)
+    }
+
+    def "generated ids are unique across threads"() {
+        given:
+        def ids = ConcurrentHashMap.newKeySet()
+        def executor = Executors.newFixedThreadPool(8)
+
+        when:
+        8.times {
+            executor.submit({
+                5000.times { ids.add(NodeId.newId()) }
+            } as Runnable)
+        }
+        executor.shutdown()
+        executor.awaitTermination(10, TimeUnit.SECONDS)
+
+        then:
+        ids.size() == 8 * 5000
+    }
+}
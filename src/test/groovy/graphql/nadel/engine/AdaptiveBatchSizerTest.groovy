@@ -0,0 +1,86 @@
+package graphql.nadel.engine
+
+import graphql.nadel.AdaptiveBatchSizing
+import spock.lang.Specification
+
+class AdaptiveBatchSizerTest extends Specification {
+
+    def settings = AdaptiveBatchSizing.newAdaptiveBatchSizing()
+            .windowSize(4)
+            .tailPercentile(1)
+            .tailLatencyTolerance(0.5)
+            .growthStep(2)
+            .minBatchSize(3)
+            .build()
+    def sizer = new AdaptiveBatchSizer(settings)
+
+    void calls(int count, int objectCount, long latencyPerObject) {
+        count.times { sizer.recordCall("Users", "usersByIds", objectCount, objectCount * latencyPerObject) }
+    }
+
+    def "starts at the static batch size, shrinks when the tail latency per object climbs and grows back while it is flat"() {
+        expect:
+        sizer.getBatchSize("Users", "usersByIds", 20) == 20
+
+        when:
+        calls(4, 20, 100)
+
+        then: "it can't grow past the static size"
+        sizer.getBatchSize("Users", "usersByIds", 20) == 20
+
+        when:
+        calls(1, 20, 200)
+
+        then:
+        sizer.getBatchSize("Users", "usersByIds", 20) == 10
+
+        when:
+        calls(2, 10, 200)
+
+        then:
+        sizer.getBatchSize("Users", "usersByIds", 20) == 14
+    }
+
+    def "the window rolls over the latest calls"() {
+        given:
+        sizer.getBatchSize("Users", "usersByIds", 20)
+        calls(3, 10, 100)
+        calls(1, 10, 1000)
+
+        when: "the slow call leaves the window"
+        calls(4, 10, 100)
+
+        and: "a call that is slow compared to the calls since then"
+        calls(1, 10, 200)
+
+        then:
+        sizer.getBatchSize("Users", "usersByIds", 20) == 10
+    }
+
+    def "never shrinks below the minimum"() {
+        given:
+        sizer.getBatchSize("Users", "usersByIds", 4)
+
+        when:
+        calls(4, 4, 100)
+        calls(1, 4, 1000)
+
+        then:
+        sizer.getBatchSize("Users", "usersByIds", 4) == 3
+    }
+
+    def "small calls count per object, calls without objects and fields without a static size are not counted"() {
+        given:
+        sizer.getBatchSize("Users", "usersByIds", 20)
+
+        when:
+        calls(4, 20, 100)
+        calls(1, 2, 100)
+        sizer.recordCall("Users", "usersByIds", 0, 100000)
+        sizer.recordCall("Users", "otherField", 20, 1000000)
+
+        then:
+        sizer.getBatchSize("Users", "usersByIds", 20) == 20
+        sizer.getBatchSize("Users", "otherField", 20) == 20
+    }
+}
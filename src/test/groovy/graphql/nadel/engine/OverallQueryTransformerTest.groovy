@@ -1,6 +1,7 @@
 package graphql.nadel.engine
 
 
+import graphql.GraphQLError
 import graphql.execution.ExecutionContext
 import graphql.execution.ExecutionPath
 import graphql.execution.ExecutionStepInfo
@@ -14,6 +15,7 @@ import graphql.nadel.Service
 import graphql.nadel.dsl.NodeId
 import graphql.nadel.hooks.ServiceExecutionHooks
 import graphql.nadel.testutils.TestUtil
+import graphql.schema.GraphQLFieldDefinition
 import graphql.schema.GraphQLSchema
 import spock.lang.Specification
 
@@ -263,7 +265,7 @@ class OverallQueryTransformerTest extends Specification {
         (executionContext, fieldSubSelection) = TestUtil.executionData(schema, query)
 
         List<MergedField> fields = new ArrayList<>(fieldSubSelection.getSubFields().values())
-        def transformer = new OverallQueryTransformer()
+        def transformer = new OverallQueryTransformer(new OverallTypeRenames(schema))
         def serviceExecutionHooks = new ServiceExecutionHooks() {}
         def transformationResult = transformer.transformMergedFields(executionContext, underlyingSchemaExampleService, null, Operation.QUERY, fields, serviceExecutionHooks, null, null)
         when:
@@ -275,6 +277,55 @@ class OverallQueryTransformerTest extends Specification {
     }
 
 
+    def "a fragment is transformed once per service and service context in a request"() {
+        given:
+        def query = TestUtil.parseQuery('''
+            {
+             a: foo(id: "1") { ...frag }
+             b: foo(id: "2") { ...frag }
+            }
+            fragment frag on Foo {
+                barId
+                qux
+            }
+            ''')
+        FieldSubSelection fieldSubSelection
+        ExecutionContext executionContext
+        (executionContext, fieldSubSelection) = TestUtil.executionData(schema, query)
+        def fieldsInFragment = []
+        def hooks = new ServiceExecutionHooks() {
+            @Override
+            Optional<GraphQLError> isFieldAllowed(Field field, GraphQLFieldDefinition fieldDefinitionOverall, Object userSuppliedContext) {
+                if (field.name != "foo") {
+                    fieldsInFragment.add(field.name)
+                }
+                return Optional.empty()
+            }
+        }
+        def transformer = new OverallQueryTransformer(new OverallTypeRenames(schema))
+        def serviceContext = new Object()
+        def transform = { MergedField field, Object context ->
+            transformer.transformMergedFields(executionContext, underlyingSchemaExampleService, null, Operation.QUERY, [field], hooks, null, context)
+        }
+
+        when:
+        def resultA = transform(fieldSubSelection.subFields["a"], serviceContext)
+        def resultB = transform(fieldSubSelection.subFields["b"], serviceContext)
+
+        then:
+        fieldsInFragment == ["barId", "qux"]
+        AstPrinter.printAstCompact(resultA.document) == 'query {a:foo(id:"1") {...frag}} fragment frag on Foo {bazId qux}'
+        AstPrinter.printAstCompact(resultB.document) == 'query {b:foo(id:"2") {...frag}} fragment frag on Foo {bazId qux}'
+        resultB.fieldIdToTransformation.keySet() == resultA.fieldIdToTransformation.keySet()
+        resultB.fieldIdToTransformation.size() == 1
+
+        when:
+        transform(fieldSubSelection.subFields["b"], new Object())
+
+        then:
+        fieldsInFragment == ["barId", "qux", "barId", "qux"]
+    }
+
     private static Document doTransform(GraphQLSchema overallSchema,
                                         GraphQLSchema underlyingSchema,
                                         Document query,
@@ -286,7 +337,7 @@ class OverallQueryTransformerTest extends Specification {
 
         List<MergedField> fields = new ArrayList<>(fieldSubSelection.getSubFields().values())
 
-        def transformer = new OverallQueryTransformer()
+        def transformer = new OverallQueryTransformer(new OverallTypeRenames(overallSchema))
         def hooks = new ServiceExecutionHooks() {}
         Object serviceContext = new Object();
         def transformationResult = transformer.transformMergedFields(executionContext, underlyingSchema, operationName, operation, fields, hooks, null, serviceContext)
@@ -0,0 +1,67 @@
+package graphql.nadel.engine
+
+import graphql.nadel.testutils.TestUtil
+import spock.lang.Specification
+
+class OverallTypeRenamesTest extends Specification {
+
+    def overallSchema = TestUtil.schemaFromNdsl('''
+        service example {
+            type Query {
+                pet: Pet
+                searchResult: SearchResult
+                owner: Owner
+            }
+            interface Pet => renamed from Animal {
+                name: String
+            }
+            type Dog implements Pet => renamed from Canine {
+                name: String
+            }
+            type Cat implements Pet {
+                name: String
+            }
+            type Owner => renamed from Human {
+                name: String
+            }
+            union SearchResult = Dog | Owner
+        }
+        ''')
+
+    def overallTypeRenames = new OverallTypeRenames(overallSchema)
+
+    def "the renames of a type and the types it resolves to are recorded"() {
+        given:
+        def typeRenameMappings = [:]
+
+        when:
+        def petMapping = overallTypeRenames.recordTypeRenames("Pet", typeRenameMappings)
+
+        then:
+        petMapping.underlyingName == "Animal"
+        typeRenameMappings == [Animal: "Pet", Canine: "Dog"]
+    }
+
+    def "the renames of the members of a union are recorded"() {
+        given:
+        def typeRenameMappings = [:]
+
+        when:
+        def searchResultMapping = overallTypeRenames.recordTypeRenames("SearchResult", typeRenameMappings)
+
+        then:
+        searchResultMapping == null
+        typeRenameMappings == [Canine: "Dog", Human: "Owner"]
+    }
+
+    def "types without renames record nothing"() {
+        given:
+        def typeRenameMappings = [:]
+
+        expect:
+        overallTypeRenames.recordTypeRenames("Cat", typeRenameMappings) == null
+        overallTypeRenames.getTypeMappingDefinition("Cat") == null
+        overallTypeRenames.getTypeMappingDefinition("Owner").underlyingName == "Human"
+        typeRenameMappings.isEmpty()
+    }
+}
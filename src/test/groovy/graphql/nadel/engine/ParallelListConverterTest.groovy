@@ -0,0 +1,106 @@
+package graphql.nadel.engine
+
+import graphql.nadel.ParallelListConversion
+import spock.lang.Specification
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
+import java.util.concurrent.RejectedExecutionException
+
+class ParallelListConverterTest extends Specification {
+
+    def executor = Executors.newFixedThreadPool(4)
+
+    def cleanup() {
+        executor.shutdown()
+    }
+
+    def converter(Executor executor) {
+        new ParallelListConverter(ParallelListConversion.newParallelListConversion()
+                .executor(executor)
+                .minListSize(10)
+                .chunkSize(3)
+                .build())
+    }
+
+    def squares(int from, int to) {
+        (from..<to).collect { it * it }
+    }
+
+    def "chunks are put together in list order"() {
+        given:
+        def chunks = ConcurrentHashMap.newKeySet()
+
+        when:
+        def result = converter(executor).convert(100, { from, to ->
+            chunks.add([from, to])
+            squares(from, to)
+        })
+
+        then:
+        result == squares(0, 100)
+        chunks.size() == 34
+        chunks.contains([99, 100])
+    }
+
+    def "small lists are converted in one chunk on the calling thread"() {
+        given:
+        def threads = []
+
+        when:
+        def result = converter(executor).convert(9, { from, to ->
+            threads.add(Thread.currentThread())
+            squares(from, to)
+        })
+
+        then:
+        result == squares(0, 9)
+        threads == [Thread.currentThread()]
+    }
+
+    def "there is no parallel conversion without settings"() {
+        expect:
+        !ParallelListConverter.SEQUENTIAL.isParallel(100_000)
+        ParallelListConverter.SEQUENTIAL.convert(5, { from, to -> squares(from, to) }) == squares(0, 5)
+    }
+
+    def "lists inside a chunk are converted on the thread of the chunk"() {
+        given:
+        def converter = converter(executor)
+        def nestedParallel = ConcurrentHashMap.newKeySet()
+
+        when:
+        def result = converter.convert(20, { from, to ->
+            nestedParallel.add(converter.isParallel(20))
+            (from..<to).collect { converter.convert(20, { nestedFrom, nestedTo -> squares(nestedFrom, nestedTo) }) }
+        })
+
+        then:
+        result == (0..<20).collect { squares(0, 20) }
+        nestedParallel == [false] as Set
+        converter.isParallel(20)
+    }
+
+    def "the calling thread converts every chunk when the executor rejects tasks"() {
+        given:
+        Executor rejecting = { throw new RejectedExecutionException() }
+
+        expect:
+        converter(rejecting).convert(50, { from, to -> squares(from, to) }) == squares(0, 50)
+    }
+
+    def "a failed chunk fails the conversion"() {
+        when:
+        converter(executor).convert(50, { from, to ->
+            if (from == 30) {
+                throw new IllegalStateException("broken chunk")
+            }
+            squares(from, to)
+        })
+
+        then:
+        def e = thrown(IllegalStateException)
+        e.message == "broken chunk"
+    }
+}
@@ -0,0 +1,54 @@
+package graphql.nadel.engine
+
+import graphql.execution.ExecutionPath
+import graphql.nadel.result.LeafExecutionResultNode
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class PathMapperTest extends Specification {
+
+    def pathMapper = new PathMapper()
+
+    @Unroll
+    def "patches the last field name of #path"() {
+        given:
+        def environment = new UnapplyEnvironment(null, false, false, [:], null)
+
+        expect:
+        pathMapper.mapPath(ExecutionPath.parse(path), resultKey, environment).toString() == expected
+
+        where:
+        path               | resultKey | expected
+        "/a/b"             | "c"       | "/a/c"
+        "/a[0]/b"          | "c"       | "/a[0]/c"
+        "/a/b[1]"          | "c"       | "/a/c[1]"
+        "/a/b[1][2]"       | "c"       | "/a/c[1][2]"
+        "/a[0]/b[1]"       | "b"       | "/a[0]/b[1]"
+    }
+
+    def "an unchanged path is not copied"() {
+        given:
+        def environment = new UnapplyEnvironment(null, false, false, [:], null)
+        def path = ExecutionPath.parse("/a[0]/b[1]")
+
+        expect:
+        pathMapper.mapPath(path, "b", environment).is(path)
+    }
+
+    @Unroll
+    def "hydrated #path is appended to the parent path"() {
+        given:
+        def parentNode = LeafExecutionResultNode.newLeafExecutionResultNode()
+                .executionPath(ExecutionPath.parse("/issue/reporter"))
+                .build()
+        def environment = new UnapplyEnvironment(parentNode, true, false, [:], null)
+
+        expect:
+        pathMapper.mapPath(ExecutionPath.parse(path), resultKey, environment).toString() == expected
+
+        where:
+        path                | resultKey | expected
+        "/userById"         | "name"    | "/issue/reporter/name"
+        "/usersByIds[3]"    | "name"    | "/issue/reporter[3]"
+    }
+}
@@ -0,0 +1,175 @@
+package graphql.nadel.engine
+
+import graphql.nadel.ServiceCallPolicy
+import spock.lang.Specification
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeoutException
+
+import static java.time.Duration.ofMillis
+import static java.time.Duration.ofSeconds
+
+class ServiceCallGuardTest extends Specification {
+
+    def "there are no timeouts without a policy"() {
+        given:
+        def future = new CompletableFuture()
+
+        expect:
+        ServiceCallGuard.NONE.getTimeout("service", "field", false, System.nanoTime()) == null
+        ServiceCallGuard.NONE.call("service", "field", true, null, { future }, {}).is(future)
+    }
+
+    def "the most specific timeout is used"() {
+        given:
+        def guard = new ServiceCallGuard(ServiceCallPolicy.newServiceCallPolicy()
+                .defaultTimeout(ofSeconds(10))
+                .serviceTimeout("issues", ofSeconds(5))
+                .hydrationTimeout("issues", "issueById", ofSeconds(2))
+                .build())
+        def now = System.nanoTime()
+
+        expect:
+        guard.getTimeout("issues", "issueById", true, now) == ofSeconds(2)
+        guard.getTimeout("issues", "issueById", false, now) == ofSeconds(5)
+        guard.getTimeout("issues", "issues", true, now) == ofSeconds(5)
+        guard.getTimeout("users", "user", false, now) == ofSeconds(10)
+    }
+
+    def "a call never gets more than what is left of the request deadline"() {
+        given:
+        def guard = new ServiceCallGuard(ServiceCallPolicy.newServiceCallPolicy()
+                .serviceTimeout("issues", ofSeconds(5))
+                .requestDeadline(ofSeconds(3))
+                .build())
+        def oneSecondAgo = System.nanoTime() - ofSeconds(1).toNanos()
+        def fiveSecondsAgo = System.nanoTime() - ofSeconds(5).toNanos()
+
+        expect:
+        guard.getTimeout("issues", "issues", false, oneSecondAgo) <= ofSeconds(2)
+        guard.getTimeout("issues", "issues", false, oneSecondAgo) > ofSeconds(1)
+        guard.getTimeout("issues", "issues", false, fiveSecondsAgo).isNegative()
+    }
+
+    def "a call that does not answer in time fails with a timeout"() {
+        given:
+        def guard = new ServiceCallGuard(ServiceCallPolicy.newServiceCallPolicy().build())
+
+        when:
+        guard.call("issues", "issues", false, ofMillis(20), { new CompletableFuture() }, {}).get()
+
+        then:
+        def e = thrown(ExecutionException)
+        e.cause instanceof TimeoutException
+        e.cause.message == "The call to service 'issues' timed out after 20 ms"
+    }
+
+    def "a call after the request deadline is not made"() {
+        given:
+        def guard = new ServiceCallGuard(ServiceCallPolicy.newServiceCallPolicy().build())
+        def calls = 0
+
+        when:
+        guard.call("issues", "issues", false, ofMillis(-1), { calls++; new CompletableFuture() }, {}).get()
+
+        then:
+        def e = thrown(ExecutionException)
+        e.cause instanceof TimeoutException
+        calls == 0
+    }
+
+    def "a slow query is sent again and the first answer is used"() {
+        given:
+        def guard = new ServiceCallGuard(ServiceCallPolicy.newServiceCallPolicy()
+                .hedgeAfterPercentile(0.5)
+                .hedgeMinSamples(2)
+                .hedgeWindowSize(2)
+                .build())
+        2.times {
+            guard.call("issues", "issues", true, null, { CompletableFuture.completedFuture("fast") }, {}).join()
+        }
+        def slow = new CompletableFuture()
+        def attempts = [slow, CompletableFuture.completedFuture("hedged")].iterator()
+        def discarded = []
+
+        when:
+        def result = guard.call("issues", "issues", true, ofSeconds(5), { attempts.next() }, { discarded.add(it) }).get()
+        slow.complete("late")
+
+        then:
+        result == "hedged"
+        !attempts.hasNext()
+        discarded == ["late"]
+    }
+
+    def "calls that must not be repeated are not hedged"() {
+        given:
+        def guard = new ServiceCallGuard(ServiceCallPolicy.newServiceCallPolicy()
+                .hedgeAfterPercentile(0.5)
+                .hedgeMinSamples(1)
+                .hedgeWindowSize(1)
+                .build())
+        guard.call("issues", "createIssue", false, null, { CompletableFuture.completedFuture("done") }, {}).join()
+        def calls = 0
+
+        when:
+        guard.call("issues", "createIssue", false, ofMillis(50), { calls++; new CompletableFuture() }, {}).get()
+
+        then:
+        thrown(ExecutionException)
+        calls == 1
+    }
+
+    def "a failed attempt does not fail the call while the other one still runs"() {
+        given:
+        def guard = new ServiceCallGuard(ServiceCallPolicy.newServiceCallPolicy()
+                .hedgeAfterPercentile(0.5)
+                .hedgeMinSamples(1)
+                .hedgeWindowSize(1)
+                .build())
+        guard.call("issues", "issues", true, null, { CompletableFuture.completedFuture("fast") }, {}).join()
+        def first = new CompletableFuture()
+        def second = new CompletableFuture()
+        def attempts = [first, second].iterator()
+
+        when:
+        def result = guard.call("issues", "issues", true, ofSeconds(5), { attempts.next() }, {})
+        while (attempts.hasNext()) {
+            Thread.sleep(1)
+        }
+        first.completeExceptionally(new RuntimeException("broken"))
+        def doneAfterFirstFailure = result.isDone()
+        second.complete("second")
+
+        then:
+        !doneAfterFirstFailure
+        result.get() == "second"
+    }
+
+    def "a hedged attempt only gets what is left of the timeout"() {
+        given:
+        def guard = new ServiceCallGuard(ServiceCallPolicy.newServiceCallPolicy()
+                .hedgeAfterPercentile(0.5)
+                .hedgeMinSamples(1)
+                .hedgeWindowSize(1)
+                .build())
+        guard.call("issues", "issues", true, null, { CompletableFuture.completedFuture("fast") }, {}).join()
+        def timeouts = [].asSynchronized()
+        def second = new CompletableFuture()
+        def attempts = [new CompletableFuture(), second].iterator()
+
+        when:
+        def result = guard.call("issues", "issues", true, ofSeconds(5), { timeout -> timeouts.add(timeout); attempts.next() }, {})
+        while (attempts.hasNext()) {
+            Thread.sleep(1)
+        }
+        second.complete("second")
+
+        then:
+        result.get() == "second"
+        timeouts[0] == ofSeconds(5)
+        timeouts[1] < ofSeconds(5)
+        !timeouts[1].isNegative()
+    }
+}
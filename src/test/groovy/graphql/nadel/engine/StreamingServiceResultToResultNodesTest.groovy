@@ -0,0 +1,160 @@
+package graphql.nadel.engine
+
+import com.fasterxml.jackson.core.JsonFactory
+import graphql.execution.ExecutionContext
+import graphql.execution.nextgen.FieldSubSelection
+import graphql.nadel.ServiceExecutionResult
+import graphql.nadel.StreamingServiceExecutionResult
+import graphql.nadel.result.ElapsedTime
+import graphql.nadel.result.ResultNodesUtil
+import graphql.nadel.testutils.TestUtil
+import groovy.json.JsonOutput
+import spock.lang.Specification
+
+class StreamingServiceResultToResultNodesTest extends Specification {
+
+    def elapsedTime = ElapsedTime.newElapsedTime().build()
+    def jsonFactory = new JsonFactory()
+    def resultToNodes = new ServiceResultToResultNodes()
+    def streamingResultToNodes = new StreamingServiceResultToResultNodes(resultToNodes)
+
+    def schema = TestUtil.schema("""
+        type Query {
+            foo: Foo
+            pets: [Pet]
+            count: Int!
+        }
+        type Foo {
+            id: ID
+            names: [String!]
+            bar: Bar
+        }
+        type Bar {
+            name: String
+        }
+        interface Pet {
+            name: String
+        }
+        type Dog implements Pet {
+            name: String
+            barks: Boolean
+        }
+        type Cat implements Pet {
+            name: String
+            lives: Int
+        }
+        """)
+
+    def query = TestUtil.parseQuery("""
+        {
+            foo { id names bar { name } }
+            pets { typename__UUID: __typename name ... on Dog { barks } ... on Cat { lives } }
+            count
+        }
+        """)
+
+    def streamingResult(Object response) {
+        new StreamingServiceExecutionResult(jsonFactory.createParser(JsonOutput.toJson(response)))
+    }
+
+    def "produces the same result as the map based conversion"() {
+        given:
+        def data = [
+                "unknown": ["deeply": ["nested": [1, 2, 3]]],
+                "pets"   : [
+                        ["typename__UUID": "Cat", "lives": 9, "name": "Tom"],
+                        ["name": "Rex", "typename__UUID": "Dog", "barks": true],
+                        null
+                ],
+                "foo"    : ["bar": ["name": "myBar"], "id": "1", "names": ["a", "b"]],
+                "count"  : 3
+        ]
+        def errors = [["message": "partial failure", "path": ["foo", "bar"]]]
+        def extensions = ["cost": 42]
+
+        def normalizedQuery = TestUtil.createNormalizedQuery(schema, query)
+        FieldSubSelection fieldSubSelection
+        ExecutionContext executionContext
+        (executionContext, fieldSubSelection) = TestUtil.executionData(schema, query)
+
+        when:
+        def mapNode = resultToNodes.resultToResultNode(executionContext,
+                fieldSubSelection.getExecutionStepInfo(),
+                fieldSubSelection.getMergedSelectionSet().getSubFieldsList(),
+                new ServiceExecutionResult(data, errors, extensions),
+                elapsedTime,
+                normalizedQuery)
+        def streamingNode = streamingResultToNodes.resultToResultNode(executionContext,
+                streamingResult(["errors": errors, "data": data, "extensions": extensions]),
+                elapsedTime,
+                normalizedQuery)
+        def expected = ResultNodesUtil.toExecutionResult(mapNode)
+        def actual = ResultNodesUtil.toExecutionResult(streamingNode)
+
+        then:
+        actual.data == expected.data
+        actual.data.keySet() as List == ["foo", "pets", "count"]
+        actual.errors.collect { it.message } == expected.errors.collect { it.message }
+        streamingNode.extensions == extensions
+        streamingNode.getChildren().collect { it.executionPath.toString() } == ["/foo", "/pets", "/count"]
+        streamingNode.getChildren()[1].getChildren()[1].executionPath.toString() == "/pets[1]"
+    }
+
+    def "missing entries, null data and type mismatches are handled like the map based conversion"() {
+        given:
+        def normalizedQuery = TestUtil.createNormalizedQuery(schema, query)
+        FieldSubSelection fieldSubSelection
+        ExecutionContext executionContext
+        (executionContext, fieldSubSelection) = TestUtil.executionData(schema, query)
+
+        when:
+        def mapNode = resultToNodes.resultToResultNode(executionContext,
+                fieldSubSelection.getExecutionStepInfo(),
+                fieldSubSelection.getMergedSelectionSet().getSubFieldsList(),
+                new ServiceExecutionResult(data),
+                elapsedTime,
+                normalizedQuery)
+        def streamingNode = streamingResultToNodes.resultToResultNode(executionContext,
+                streamingResult(["data": data]),
+                elapsedTime,
+                normalizedQuery)
+        def expected = ResultNodesUtil.toExecutionResult(mapNode)
+        def actual = ResultNodesUtil.toExecutionResult(streamingNode)
+
+        then:
+        actual.data == expected.data
+        actual.errors.collect { it.class } == expected.errors.collect { it.class }
+
+        where:
+        data << [
+                null,
+                ["foo": ["id": "1"], "count": 1],
+                ["foo": ["names": "not a list", "bar": null], "pets": [], "count": 1],
+        ]
+    }
+
+    def "malformed json is reported as an IOException"() {
+        given:
+        def normalizedQuery = TestUtil.createNormalizedQuery(schema, query)
+        ExecutionContext executionContext = TestUtil.executionData(schema, query)[0]
+
+        when:
+        streamingResultToNodes.resultToResultNode(executionContext,
+                new StreamingServiceExecutionResult(jsonFactory.createParser('{"data": {"foo": {"id": "1"')),
+                elapsedTime,
+                normalizedQuery)
+
+        then:
+        thrown(IOException)
+    }
+
+    def "the response can be read into a service execution result"() {
+        when:
+        def result = streamingResult(["data": ["count": 1], "errors": [["message": "boom"]]]).toServiceExecutionResult()
+
+        then:
+        result.data == ["count": 1]
+        result.errors == [["message": "boom"]]
+        result.extensions == [:]
+    }
+}
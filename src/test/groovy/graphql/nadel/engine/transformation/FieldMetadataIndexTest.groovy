@@ -0,0 +1,44 @@
+package graphql.nadel.engine.transformation
+
+import spock.lang.Specification
+
+class FieldMetadataIndexTest extends Specification {
+
+    def "looks up the transformation ids of a field"() {
+        given:
+        def metadataByFieldId = [
+                field1: [new FieldMetadata("t1", true), new FieldMetadata("t2", false)],
+                field2: [new FieldMetadata("t1", false)],
+        ]
+
+        when:
+        def index = FieldMetadataIndex.build(metadataByFieldId)
+
+        then:
+        index.getTransformationIds("field1") == ["t1", "t2"]
+        index.getRootOfTransformationIds("field1") == ["t1"]
+        index.isRootOfTransformation("field1")
+
+        index.getTransformationIds("field2") == ["t1"]
+        index.getRootOfTransformationIds("field2") == []
+        !index.isRootOfTransformation("field2")
+
+        index.getTransformationIds("unknown") == []
+        index.getRootOfTransformationIds("unknown") == []
+        !index.isRootOfTransformation("unknown")
+    }
+
+    def "the index does not see metadata added after it was built"() {
+        given:
+        def transformationMetadata = new TransformationMetadata()
+        transformationMetadata.getMetadataByFieldId().put("field1", [new FieldMetadata("t1", true)])
+        transformationMetadata.indexFieldMetadata()
+
+        when:
+        transformationMetadata.getMetadataByFieldId().put("field2", [new FieldMetadata("t2", true)])
+
+        then:
+        transformationMetadata.getFieldMetadataIndex().isRootOfTransformation("field1")
+        !transformationMetadata.getFieldMetadataIndex().isRootOfTransformation("field2")
+    }
+}
@@ -785,6 +785,47 @@ type Dog implements Animal{
     }
 
 
+    def "normalized fields can be found by ast field, object type and field definition"() {
+        String schema = """
+        type Query{
+            pets: [Pet]
+        }
+        interface Pet {
+            id: ID
+        }
+        type Cat implements Pet{
+            id: ID
+        }
+        type Dog implements Pet{
+            id: ID
+        }
+        """
+        GraphQLSchema graphQLSchema = TestUtil.schema(schema)
+
+        String query = "{ pets { id } }"
+        assertValidQuery(graphQLSchema, query)
+
+        Document document = TestUtil.parseQuery(query)
+        def petsField = (document.getDefinitions()[0] as OperationDefinition).getSelectionSet().getSelections()[0] as Field
+        def idField = petsField.getSelectionSet().getSelections()[0] as Field
+        def cat = graphQLSchema.getObjectType("Cat")
+        def dog = graphQLSchema.getObjectType("Dog")
+
+        NormalizedQueryFactory dependencyGraph = new NormalizedQueryFactory();
+        def tree = dependencyGraph.createNormalizedQuery(graphQLSchema, document, null, [:])
+
+        when:
+        def catId = tree.getNormalizedField(getId(idField), cat, cat.getFieldDefinition("id"))
+        def dogId = tree.getNormalizedField(getId(idField), dog, dog.getFieldDefinition("id"))
+
+        then:
+        catId.objectType == cat
+        dogId.objectType == dog
+        tree.getFieldIds(catId) == [getId(idField)]
+        tree.getNormalizedField(getId(idField), cat, dog.getFieldDefinition("id")) == null
+        tree.getNormalizedField("unknown", cat, cat.getFieldDefinition("id")) == null
+    }
+
     private void assertValidQuery(GraphQLSchema graphQLSchema, String query) {
         GraphQL graphQL = GraphQL.newGraphQL(graphQLSchema).build();
         assert graphQL.execute(query).errors.size() == 0
@@ -0,0 +1,95 @@
+package graphql.nadel.result
+
+import graphql.GraphqlErrorBuilder
+import graphql.execution.ExecutionPath
+import graphql.schema.GraphQLFieldDefinition
+import spock.lang.Specification
+
+import static graphql.Scalars.GraphQLString
+
+class ExecutionResultNodeTest extends Specification {
+
+    def fieldDefinition = GraphQLFieldDefinition.newFieldDefinition().name("foo").type(GraphQLString).build()
+
+    def leaf(String name) {
+        LeafExecutionResultNode.newLeafExecutionResultNode()
+                .executionPath(ExecutionPath.parse("/foo/" + name))
+                .fieldDefinition(fieldDefinition)
+                .build()
+    }
+
+    def "transform shares the lists that are not changed"() {
+        given:
+        def node = ObjectExecutionResultNode.newObjectExecutionResultNode()
+                .executionPath(ExecutionPath.parse("/foo"))
+                .fieldDefinition(fieldDefinition)
+                .fieldId("id1")
+                .children([leaf("a"), leaf("b")])
+                .build()
+
+        when:
+        def transformed = node.transform({ builder -> builder.completedValue("value") })
+
+        then:
+        transformed.children.is(node.children)
+        transformed.errors.is(node.errors)
+        transformed.fieldIds.is(node.fieldIds)
+        transformed.completedValue == "value"
+    }
+
+    def "adding to a shared list does not change the original node"() {
+        given:
+        def node = ObjectExecutionResultNode.newObjectExecutionResultNode()
+                .executionPath(ExecutionPath.parse("/foo"))
+                .fieldDefinition(fieldDefinition)
+                .children([leaf("a")])
+                .build()
+        def error = GraphqlErrorBuilder.newError().message("error").build()
+
+        when:
+        def transformed = node.transform({ builder -> builder.addChild(leaf("b")).addError(error) })
+
+        then:
+        node.children.size() == 1
+        node.errors.isEmpty()
+        transformed.children.size() == 2
+        transformed.errors == [error]
+    }
+
+    def "a builder that is used again does not change the nodes it built"() {
+        given:
+        def builder = ObjectExecutionResultNode.newObjectExecutionResultNode()
+                .executionPath(ExecutionPath.parse("/foo"))
+                .fieldDefinition(fieldDefinition)
+                .addChild(leaf("a"))
+
+        when:
+        def first = builder.build()
+        def second = builder.addChild(leaf("b")).build()
+
+        then:
+        first.children.size() == 1
+        second.children.size() == 2
+    }
+
+    def "owned children are used without copying"() {
+        given:
+        def children = [leaf("a"), leaf("b")]
+
+        when:
+        def node = ObjectExecutionResultNode.newObjectExecutionResultNode()
+                .executionPath(ExecutionPath.parse("/foo"))
+                .fieldDefinition(fieldDefinition)
+                .ownedChildren(children)
+                .build()
+
+        then:
+        node.children == children
+
+        when:
+        node.children.add(leaf("c"))
+
+        then:
+        thrown(UnsupportedOperationException)
+    }
+}
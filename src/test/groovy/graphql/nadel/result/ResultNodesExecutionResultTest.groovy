@@ -0,0 +1,107 @@
+package graphql.nadel.result
+
+import graphql.ExecutionResultImpl
+import graphql.execution.ExecutionContext
+import graphql.execution.nextgen.FieldSubSelection
+import graphql.nadel.ExecutionResultJsonWriter
+import graphql.nadel.ServiceExecutionResult
+import graphql.nadel.engine.ServiceResultToResultNodes
+import graphql.nadel.testutils.TestUtil
+import groovy.json.JsonOutput
+import groovy.json.JsonSlurper
+import spock.lang.Specification
+
+class ResultNodesExecutionResultTest extends Specification {
+
+    def schema = TestUtil.schema("""
+        type Query {
+            foo: Foo
+            bars: [Bar!]
+            required: String!
+            hello: String
+        }
+        type Foo {
+            id: ID!
+            name: String
+        }
+        type Bar {
+            id: ID!
+            text: String
+        }
+        """)
+
+    def query = TestUtil.parseQuery("{ foo { id name } bars { id text } required hello }")
+
+    RootExecutionResultNode resultNodes(ServiceExecutionResult serviceExecutionResult) {
+        def normalizedQuery = TestUtil.createNormalizedQuery(schema, query)
+        FieldSubSelection fieldSubSelection
+        ExecutionContext executionContext
+        (executionContext, fieldSubSelection) = TestUtil.executionData(schema, query)
+        new ServiceResultToResultNodes().resultToResultNode(executionContext,
+                fieldSubSelection.getExecutionStepInfo(),
+                fieldSubSelection.getMergedSelectionSet().getSubFieldsList(),
+                serviceExecutionResult,
+                ElapsedTime.newElapsedTime().build(),
+                normalizedQuery)
+    }
+
+    static Object json(Object value) {
+        new JsonSlurper().parseText(JsonOutput.toJson(value))
+    }
+
+    def "writes the same response as the map based conversion"() {
+        given:
+        def rootNode = resultNodes(new ServiceExecutionResult(data, [["message": "service error"]], ["ext": "value"]))
+        def expected = ResultNodesUtil.toExecutionResult(rootNode)
+        def result = new ResultNodesExecutionResult(rootNode, [:])
+
+        when:
+        def writer = new StringWriter()
+        ExecutionResultJsonWriter.writeJson(result, writer)
+
+        then:
+        new JsonSlurper().parseText(writer.toString()) == json(expected.toSpecification())
+        json(result.toSpecification()) == json(expected.toSpecification())
+        result.errors.collect { it.message } == expected.errors.collect { it.message }
+        result.extensions == expected.extensions
+
+        where:
+        data << [
+                // all good, with characters that need escaping
+                ["foo": ["id": "1", "name": "quote \" backslash \\ newline \n tab \t bell \u0007 unicode é"], "bars": [["id": "2", "text": null]], "required": "r", "hello": "world"],
+                // a non null field nulls out its nullable parent object
+                ["foo": ["id": null, "name": "name"], "bars": [], "required": "r", "hello": "world"],
+                // a non null list item nulls out the list
+                ["foo": null, "bars": [["id": "1", "text": "a"], null], "required": "r", "hello": "world"],
+                // a non null item inside a non null list item nulls out the list
+                ["foo": null, "bars": [["id": "1", "text": "a"], ["id": null, "text": "b"]], "required": "r"],
+                // a non null top level field nulls out the whole data
+                ["foo": ["id": "1", "name": "name"], "bars": null, "required": null, "hello": "world"],
+        ]
+    }
+
+    def "additional extensions are added and the output stream is written as UTF-8"() {
+        given:
+        def rootNode = resultNodes(new ServiceExecutionResult(["foo": null, "bars": null, "required": "é", "hello": null]))
+        def result = new ResultNodesExecutionResult(rootNode, ["resultComplexity": ["totalNodeCount": 4]])
+
+        when:
+        def outputStream = new ByteArrayOutputStream()
+        ExecutionResultJsonWriter.writeJson(result, outputStream)
+
+        then:
+        outputStream.toString("UTF-8") == '{"data":{"foo":null,"bars":null,"required":"é","hello":null},"extensions":{"resultComplexity":{"totalNodeCount":4}}}'
+    }
+
+    def "other execution results are written from their specification"() {
+        given:
+        def result = ExecutionResultImpl.newExecutionResult().data(["hello": [1, 2.5, true]]).addExtension("a", "b").build()
+
+        when:
+        def writer = new StringWriter()
+        ExecutionResultJsonWriter.writeJson(result, writer)
+
+        then:
+        writer.toString() == '{"data":{"hello":[1,2.5,true]},"extensions":{"a":"b"}}'
+    }
+}
@@ -100,7 +100,7 @@ public class ExecutionBenchmark {
     @OutputTimeUnit(TimeUnit.MILLISECONDS)
     public ExecutionResult benchMarkAvgTime(NadelInstance nadelInstance) throws ExecutionException, InterruptedException {
         BenchmarkContext.ExecutionArgs executionArgs = nadelInstance.benchmarkContext.executionArgs;
-        Execution execution = new Execution(executionArgs.services, executionArgs.overallSchema, executionArgs.instrumentation, executionArgs.introspectionRunner, executionArgs.serviceExecutionHooks, executionArgs.context);
+        Execution execution = new Execution(executionArgs.services, executionArgs.overallSchema, executionArgs.instrumentation, executionArgs.introspectionRunner, executionArgs.serviceExecutionHooks);
         return execution.execute(executionArgs.executionInput, executionArgs.document, executionArgs.executionId, executionArgs.instrumentationState, executionArgs.nadelExecutionParams).get();
     }
 